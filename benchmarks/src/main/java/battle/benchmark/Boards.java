@@ -0,0 +1,79 @@
+package battle.benchmark;
+
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.ships.Ship;
+
+import java.util.ArrayList;
+
+/**
+ * The boards shared by the benchmarks, always built from the same seed
+ * so every run and every release measures the same positions.
+ */
+final class Boards {
+    /**
+     * The seed of every benchmark
+     */
+    static final long SEED = 42L;
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private Boards() {
+
+    }
+
+    /**
+     * The classic fleet (5, 4, 3, 3, 2), which fits on every board from 10x10 to 256x256
+     *
+     * @return the fleet
+     */
+    static ArrayList<Ship> fleet() {
+        ArrayList<Ship> fleet = new ArrayList<>();
+        fleet.add(new Ship("porte-avion", 5));
+        fleet.add(new Ship("fregate", 4));
+        fleet.add(new Ship("patrouilleur", 3));
+        fleet.add(new Ship("patrouilleur", 3));
+        fleet.add(new Ship("sous-marin", 2));
+        return fleet;
+    }
+
+    /**
+     * Every square of a board, in a random order
+     *
+     * @param size   the width and height of the board
+     * @param random the random source
+     * @return the shots, as {line, column}
+     */
+    static int[][] shuffledShots(int size, RandomSource random) {
+        int[][] shots = new int[size * size][];
+        for (int i = 0; i < shots.length; i++) {
+            shots[i] = new int[]{i / size, i % size};
+        }
+        for (int i = shots.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int[] shot = shots[i];
+            shots[i] = shots[j];
+            shots[j] = shot;
+        }
+        return shots;
+    }
+
+    /**
+     * Bring the opponent grid of a player to the middle of a game : half of the squares are shot
+     * at the opponent, who answers as a real player would.
+     *
+     * @param player   the player
+     * @param opponent the opponent
+     * @param size     the width and height of the board
+     * @param random   the random source
+     */
+    static void playHalfGame(Player player, Player opponent, int size, RandomSource random) {
+        int[][] shots = Boards.shuffledShots(size, random);
+        for (int i = 0; i < shots.length / 2; i++) {
+            ShotResult shotResult = opponent.analyzeShot(shots[i]);
+            player.sendLastShotResult(shotResult, shots[i]);
+        }
+    }
+}
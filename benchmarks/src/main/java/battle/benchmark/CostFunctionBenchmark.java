@@ -0,0 +1,110 @@
+package battle.benchmark;
+
+import battle.game.Game;
+import battle.game.RandomSource;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.CostFunction;
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.ships.Ship;
+
+import java.util.ArrayList;
+
+/**
+ * Training benchmark of the cost functions.
+ * For each cost function, a fresh SmartAutoPlayer is trained against an AutoPlayer and
+ * the number of games needed to reach a given win rate (over a sliding window of games) is reported.
+ * <p>
+ * Usage : CostFunctionBenchmark [width] [height] [target win rate] [window] [max games]
+ */
+public final class CostFunctionBenchmark {
+    /**
+     * The seed of the networks and the players, the same for every cost function
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private CostFunctionBenchmark() {
+
+    }
+
+    /**
+     * Run the benchmark
+     *
+     * @param args width, height, target win rate, window and maximum number of games (all optional)
+     */
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double targetWinRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.75d;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int maxGames = args.length > 4 ? Integer.parseInt(args[4]) : 200000;
+
+        ArrayList<Ship> fleet = new ArrayList<>();
+        fleet.add(new Ship("patrouilleur", 3));
+        fleet.add(new Ship("sous-marin", 2));
+
+        System.out.println("Games needed to win " + targetWinRate * 100 + "% of the last " + window +
+                " games against AutoPlayer on a " + width + "x" + height + " board (max " + maxGames + ")");
+
+        CostFunctionBenchmark.run("MSE + Softmax", fleet, width, height,
+                Activation.Softmax, new CostFunction.MSE(), targetWinRate, window, maxGames);
+        CostFunctionBenchmark.run("CrossEntropy + Softmax", fleet, width, height,
+                Activation.Softmax, new CostFunction.CrossEntropy(), targetWinRate, window, maxGames);
+        CostFunctionBenchmark.run("Huber + Identity", fleet, width, height,
+                Activation.Identity, new CostFunction.Huber(), targetWinRate, window, maxGames);
+    }
+
+    /**
+     * Train a network until it reaches the target win rate and print the number of games played.
+     *
+     * @param label            the label of the configuration
+     * @param fleet            the fleet
+     * @param width            the width of the board
+     * @param height           the height of the board
+     * @param outputActivation the activation of the output layer
+     * @param costFunction     the cost function
+     * @param targetWinRate    the win rate to reach
+     * @param window           the number of last games used to compute the win rate
+     * @param maxGames         the maximum number of games to play
+     */
+    private static void run(String label, ArrayList<Ship> fleet, int width, int height, Activation outputActivation,
+                            CostFunction costFunction, double targetWinRate, int window, int maxGames) {
+        RandomSource random = new RandomSource(CostFunctionBenchmark.SEED);
+        NeuralNetwork neuralNetwork = SmartAutoPlayer.createNetwork(width * height, outputActivation, costFunction, random.nextLong());
+        Player smartPlayer = new SmartAutoPlayer(fleet, "Neural Network AI player", width, height, neuralNetwork, true, random.split());
+        Player autoPlayer = new AutoPlayer(fleet, "Programmed AI player", width, height, random.split());
+        Game game = new Game(smartPlayer, autoPlayer);
+
+        // Circular record of the results of the last games
+        boolean[] won = new boolean[window];
+        int wonInWindow = 0;
+
+        long start = System.nanoTime();
+        int games = 0;
+        boolean reached = false;
+        while (!reached && games < maxGames) {
+            boolean win = game.play() == smartPlayer;
+
+            int slot = games % window;
+            if (games >= window && won[slot]) {
+                wonInWindow--;
+            }
+            won[slot] = win;
+            if (win) {
+                wonInWindow++;
+            }
+            games++;
+
+            reached = games >= window && wonInWindow >= targetWinRate * window;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-24s %s after %d games (%.1f%% of the last %d won, %.1f s)%n", label,
+                reached ? "reached" : "NOT reached", games, 100.0 * wonInWindow / Math.min(games, window), window, seconds);
+    }
+}
@@ -0,0 +1,369 @@
+package battle.benchmark;
+
+import battle.game.Game;
+import battle.game.GameListener;
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.CostFunction;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end macro-benchmark of the game loop : a fixed number of seeded headless AA games
+ * are played for each scenario, and the games/s, shots/s, p50/p99 latency of a move and the bytes
+ * allocated per game are reported, then written as JSON.
+ * <p>
+ * When a thresholds file is given, each metric is checked against its bound and the benchmark exits with
+ * the status 1 if any of them regressed. A bound is either absolute (<code>scenario.metric.min</code> or
+ * <code>scenario.metric.max</code>), for the metrics which do not depend on the machine such as the allocations,
+ * or relative to a baseline (<code>scenario.metric.minRatio</code> or <code>scenario.metric.maxRatio</code>),
+ * the report of a previous run on the same machine, for the throughputs and latencies.
+ * The relative bounds are skipped without a baseline.
+ * <p>
+ * Usage : GameThroughputBenchmark [output json] [thresholds properties] [games scale] [baseline json]
+ */
+public final class GameThroughputBenchmark {
+    /**
+     * The width and height of the board
+     */
+    private static final int SIZE = 10;
+    /**
+     * The minimum number of games played to warm up a scenario
+     */
+    private static final int WARM_UP_GAMES = 20;
+    /**
+     * A metric of the report, in its scenario : "name": value
+     */
+    private static final Pattern METRIC = Pattern.compile("^\\s*\"([^\"]+)\": (-?[0-9.]+),?$");
+    /**
+     * A scenario of the report : "name": {
+     */
+    private static final Pattern SCENARIO = Pattern.compile("^\\s*\"([^\"]+)\": \\{$");
+    /**
+     * The scenarios, with the number of measured games of each one (at a scale of 1)
+     */
+    private static final Map<String, Integer> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        GameThroughputBenchmark.SCENARIOS.put("auto-vs-auto", 20000);
+        GameThroughputBenchmark.SCENARIOS.put("auto-vs-smart", 400);
+        GameThroughputBenchmark.SCENARIOS.put("auto-vs-smart-training", 100);
+    }
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private GameThroughputBenchmark() {
+
+    }
+
+    /**
+     * Run the benchmark
+     *
+     * @param args the output file, the thresholds file, the scale of the number of games and the baseline report (all optional)
+     * @throws IOException if the report can't be written or the thresholds read
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "macro-benchmark.json");
+        String thresholdsFile = args.length > 1 ? args[1] : null;
+        double scale = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        Path baselineFile = args.length > 3 && !args[3].isEmpty() ? Paths.get(args[3]) : null;
+
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> scenario : GameThroughputBenchmark.SCENARIOS.entrySet()) {
+            int games = Math.max(1, (int) (scenario.getValue() * scale));
+            Map<String, Double> metrics = GameThroughputBenchmark.run(scenario.getKey(), games);
+            results.put(scenario.getKey(), metrics);
+            System.out.println(scenario.getKey() + " : " + metrics);
+        }
+
+        GameThroughputBenchmark.writeJson(results, output);
+        System.out.println("Results written to " + output.toAbsolutePath());
+
+        if (thresholdsFile != null) {
+            Properties thresholds = new Properties();
+            try (InputStream in = new FileInputStream(thresholdsFile)) {
+                thresholds.load(in);
+            }
+
+            Map<String, Map<String, Double>> baseline = baselineFile != null ? GameThroughputBenchmark.readJson(baselineFile) : null;
+            if (baseline == null) {
+                System.out.println("No baseline, the bounds relative to a baseline are not checked");
+            }
+            List<String> regressions = GameThroughputBenchmark.check(results, thresholds, baseline);
+            for (String regression : regressions) {
+                System.err.println("REGRESSION " + regression);
+            }
+            if (!regressions.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Create the two players of a scenario, the first one being the one shooting first
+     *
+     * @param scenario the name of the scenario
+     * @param random   the random source of the scenario
+     * @return the players
+     */
+    private static Player[] createPlayers(String scenario, RandomSource random) {
+        Player autoPlayer = new AutoPlayer(Boards.fleet(), "Programmed AI player", GameThroughputBenchmark.SIZE, GameThroughputBenchmark.SIZE, random.split());
+        Player opponent;
+
+        switch (scenario) {
+            case "auto-vs-auto":
+                opponent = new AutoPlayer(Boards.fleet(), "Random AI player", GameThroughputBenchmark.SIZE, GameThroughputBenchmark.SIZE, random.split());
+                break;
+            case "auto-vs-smart":
+            case "auto-vs-smart-training":
+                opponent = new SmartAutoPlayer(Boards.fleet(), "Neural Network AI player", GameThroughputBenchmark.SIZE, GameThroughputBenchmark.SIZE,
+                        SmartAutoPlayer.createNetwork(GameThroughputBenchmark.SIZE * GameThroughputBenchmark.SIZE, Activation.Softmax, new CostFunction.CrossEntropy(), random.nextLong()),
+                        scenario.endsWith("training"), random.split());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario : " + scenario);
+        }
+
+        return new Player[]{opponent, autoPlayer};
+    }
+
+    /**
+     * Play the games of a scenario, after half of them (at least {@link #WARM_UP_GAMES}) to warm up, and compute its metrics.
+     * The recorder of the moves is sized from the warm up, so that it allocates nothing while measuring.
+     *
+     * @param scenario the name of the scenario
+     * @param games    the number of measured games
+     * @return the metrics, by name
+     */
+    private static Map<String, Double> run(String scenario, int games) {
+        Player[] players = GameThroughputBenchmark.createPlayers(scenario, new RandomSource(Boards.SEED));
+        Game game = new Game(players[0], players[1]);
+
+        int warmUpGames = Math.max(GameThroughputBenchmark.WARM_UP_GAMES, games / 2);
+        long warmUpShots = 0;
+        for (int i = 0; i < warmUpGames; i++) {
+            game.play();
+            warmUpShots += game.getShotCount();
+        }
+
+        // Twice the shots expected, the recorder only grows on an unusually long run
+        MoveRecorder recorder = new MoveRecorder((int) Math.min(Integer.MAX_VALUE - 8, 2 * warmUpShots * games / warmUpGames + 1));
+        game.addListener(recorder);
+        // Leave the garbage of the warm up out of the measured games
+        System.gc();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < games; i++) {
+            game.play();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long[] moves = recorder.getMoveNanos();
+        Arrays.sort(moves);
+
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("games", (double) games);
+        metrics.put("gamesPerSecond", games / seconds);
+        metrics.put("shotsPerSecond", moves.length / seconds);
+        metrics.put("p50MoveNanos", (double) GameThroughputBenchmark.percentile(moves, 0.50));
+        metrics.put("p99MoveNanos", (double) GameThroughputBenchmark.percentile(moves, 0.99));
+        metrics.put("allocatedBytesPerGame", (double) allocated / games);
+        return metrics;
+    }
+
+    /**
+     * Get a percentile of sorted values (nearest rank)
+     *
+     * @param sorted     the sorted values
+     * @param percentile the percentile, between 0 and 1
+     * @return the value
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Check the metrics against their thresholds
+     *
+     * @param results    the metrics of each scenario
+     * @param thresholds the thresholds, as scenario.metric.min, scenario.metric.max, scenario.metric.minRatio
+     *                   or scenario.metric.maxRatio
+     * @param baseline   the metrics of each scenario of the baseline, or null to skip the relative thresholds
+     * @return the description of each regression
+     */
+    private static List<String> check(Map<String, Map<String, Double>> results, Properties thresholds, Map<String, Map<String, Double>> baseline) {
+        List<String> regressions = new ArrayList<>();
+
+        for (String key : thresholds.stringPropertyNames()) {
+            String[] parts = key.split("\\.");
+            if (parts.length != 3 || !Arrays.asList("min", "max", "minRatio", "maxRatio").contains(parts[2])) {
+                throw new IllegalArgumentException("Invalid threshold \"" + key + "\", expected scenario.metric.min, scenario.metric.max, "
+                        + "scenario.metric.minRatio or scenario.metric.maxRatio");
+            }
+
+            Map<String, Double> metrics = results.get(parts[0]);
+            if (metrics == null || !metrics.containsKey(parts[1])) {
+                throw new IllegalArgumentException("Unknown scenario or metric in the threshold \"" + key + "\"");
+            }
+
+            double value = metrics.get(parts[1]);
+            double bound = Double.parseDouble(thresholds.getProperty(key));
+            boolean relative = parts[2].endsWith("Ratio");
+            if (relative) {
+                if (baseline == null) {
+                    continue;
+                }
+                Map<String, Double> baselineMetrics = baseline.get(parts[0]);
+                if (baselineMetrics == null || !baselineMetrics.containsKey(parts[1])) {
+                    throw new IllegalArgumentException("The baseline has no value for the threshold \"" + key + "\"");
+                }
+                bound *= baselineMetrics.get(parts[1]);
+            }
+
+            if (parts[2].startsWith("min") ? value < bound : value > bound) {
+                regressions.add(String.format(Locale.ROOT, "%s.%s = %.1f, %s allowed %.1f%s", parts[0], parts[1], value,
+                        parts[2].startsWith("min") ? "min" : "max", bound, relative ? " (" + thresholds.getProperty(key) + " x baseline)" : ""));
+            }
+        }
+
+        return regressions;
+    }
+
+    /**
+     * Read the metrics of each scenario from a report written by {@link #writeJson(Map, Path)}
+     *
+     * @param input the report
+     * @return the metrics of each scenario
+     * @throws IOException if the report can't be read
+     */
+    private static Map<String, Map<String, Double>> readJson(Path input) throws IOException {
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        Map<String, Double> metrics = null;
+
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            Matcher scenario = GameThroughputBenchmark.SCENARIO.matcher(line);
+            Matcher metric = GameThroughputBenchmark.METRIC.matcher(line);
+            if (scenario.matches() && !"scenarios".equals(scenario.group(1))) {
+                metrics = new LinkedHashMap<>();
+                results.put(scenario.group(1), metrics);
+            } else if (metric.matches() && metrics != null) {
+                metrics.put(metric.group(1), Double.parseDouble(metric.group(2)));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Write the metrics of each scenario as a JSON object
+     *
+     * @param results the metrics of each scenario
+     * @param output  the output file
+     * @throws IOException if the file can't be written
+     */
+    private static void writeJson(Map<String, Map<String, Double>> results, Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            writer.println("{");
+            writer.println("  \"boardSize\": " + GameThroughputBenchmark.SIZE + ",");
+            writer.println("  \"seed\": " + Boards.SEED + ",");
+            writer.println("  \"scenarios\": {");
+
+            int s = 0;
+            for (Map.Entry<String, Map<String, Double>> scenario : results.entrySet()) {
+                writer.println("    \"" + scenario.getKey() + "\": {");
+                int m = 0;
+                for (Map.Entry<String, Double> metric : scenario.getValue().entrySet()) {
+                    String separator = ++m < scenario.getValue().size() ? "," : "";
+                    writer.println(String.format(Locale.ROOT, "      \"%s\": %.3f%s", metric.getKey(), metric.getValue(), separator));
+                }
+                writer.println("    }" + (++s < results.size() ? "," : ""));
+            }
+
+            writer.println("  }");
+            writer.println("}");
+        }
+    }
+
+    /**
+     * A listener keeping the time of every move
+     */
+    private static final class MoveRecorder implements GameListener {
+        /**
+         * The time of each move, in nanoseconds
+         */
+        private long[] moveNanos;
+        /**
+         * The number of moves recorded
+         */
+        private int count;
+
+        /**
+         * Instantiates a new Move recorder.
+         *
+         * @param capacity the number of moves recorded before growing
+         */
+        MoveRecorder(int capacity) {
+            this.moveNanos = new long[capacity];
+        }
+
+        /**
+         * Record the time of a move
+         *
+         * @param shooter    the player who shot
+         * @param shot       the shot position
+         * @param shotResult the result of the shot
+         * @param nanos      the time taken by the move
+         */
+        @Override
+        public void movePlayed(Player shooter, int[] shot, ShotResult shotResult, long nanos) {
+            if (this.count == this.moveNanos.length) {
+                this.moveNanos = Arrays.copyOf(this.moveNanos, this.count * 2);
+            }
+            this.moveNanos[this.count++] = nanos;
+        }
+
+        /**
+         * Gets a copy of the time of every move recorded
+         *
+         * @return the times, in nanoseconds
+         */
+        long[] getMoveNanos() {
+            return Arrays.copyOf(this.moveNanos, this.count);
+        }
+    }
+}
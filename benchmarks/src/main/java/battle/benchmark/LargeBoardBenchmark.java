@@ -0,0 +1,133 @@
+package battle.benchmark;
+
+import battle.game.Game;
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.HuntTargetAutoPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks of the scripted players from the classic board to the largest one, the same fleet on each :
+ * the cost of a shot should follow the ships and the shots rather than the number of squares.
+ * The players choosing a shot look at an opponent grid in the middle of a game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeBoardBenchmark {
+    /**
+     * The width and height of the board
+     */
+    @Param({"15", "64", "256"})
+    public int size;
+    /**
+     * A random player in the middle of a game
+     */
+    private Player autoPlayer;
+    /**
+     * The game between two hunt and target players
+     */
+    private Game game;
+    /**
+     * A hunt and target player in the middle of a game
+     */
+    private Player huntTargetPlayer;
+    /**
+     * The index of the next shot
+     */
+    private int nextShot;
+    /**
+     * Every square of the board, in the order they are shot at
+     */
+    private int[][] shots;
+    /**
+     * The player shot at by analyzeShot
+     */
+    private Player target;
+
+    /**
+     * Create the players from the benchmark seed
+     */
+    @Setup
+    public void setup() {
+        RandomSource random = new RandomSource(Boards.SEED);
+
+        this.target = new AutoPlayer(Boards.fleet(), "target", this.size, this.size, random.split());
+        this.shots = Boards.shuffledShots(this.size, random);
+        this.nextShot = 0;
+
+        Player opponent = new AutoPlayer(Boards.fleet(), "opponent", this.size, this.size, random.split());
+        this.autoPlayer = new AutoPlayer(Boards.fleet(), "auto", this.size, this.size, random.split());
+        Boards.playHalfGame(this.autoPlayer, opponent, this.size, random);
+
+        opponent.initializeGrids();
+        this.huntTargetPlayer = new HuntTargetAutoPlayer(Boards.fleet(), "hunt-target", this.size, this.size, random.split());
+        Boards.playHalfGame(this.huntTargetPlayer, opponent, this.size, random);
+
+        this.game = new Game(new HuntTargetAutoPlayer(Boards.fleet(), "hunt-target 1", this.size, this.size, random.split()),
+                new HuntTargetAutoPlayer(Boards.fleet(), "hunt-target 2", this.size, this.size, random.split()));
+    }
+
+    /**
+     * Answer a shot. Every square is shot once, then the grids are reset and the ships placed again,
+     * so the cost of a reset is spread over size * size shots.
+     *
+     * @return the shot result
+     */
+    @Benchmark
+    public ShotResult analyzeShot() {
+        ShotResult shotResult = this.target.analyzeShot(this.shots[this.nextShot++]);
+        if (this.nextShot == this.shots.length) {
+            this.nextShot = 0;
+            this.target.initializeGrids();
+        }
+        return shotResult;
+    }
+
+    /**
+     * Choose a random shot among the squares not yet shot
+     *
+     * @return the shot
+     */
+    @Benchmark
+    public int[] autoPlayerNewShot() {
+        return this.autoPlayer.newShot();
+    }
+
+    /**
+     * Play a whole game between two hunt and target players, placements included
+     *
+     * @return the winner
+     */
+    @Benchmark
+    public Player huntTargetGame() {
+        return this.game.play();
+    }
+
+    /**
+     * Choose a shot on the checkerboard among the squares not yet shot
+     *
+     * @return the shot
+     */
+    @Benchmark
+    public int[] huntTargetNewShot() {
+        return this.huntTargetPlayer.newShot();
+    }
+}
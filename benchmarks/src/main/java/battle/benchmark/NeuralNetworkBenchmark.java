@@ -0,0 +1,135 @@
+package battle.benchmark;
+
+import battle.game.RandomSource;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.CostFunction;
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.players.auto.neuralnet.Result;
+import battle.game.players.auto.neuralnet.math.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks of the network of {@link SmartAutoPlayer} : evaluating a board, gathering
+ * the learning of a shot and letting it sink in the weights.
+ * The input is a board in the middle of a game (half the squares shot, some of them hits).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeuralNetworkBenchmark {
+    /**
+     * Evaluate the input
+     *
+     * @param board the network and the board
+     * @return the result
+     */
+    @Benchmark
+    public Result evaluate(Board board) {
+        return board.neuralNetwork.evaluate(board.input);
+    }
+
+    /**
+     * Backpropagate the error of the last evaluation
+     *
+     * @param board the network and the board
+     * @return the network
+     */
+    @Benchmark
+    public NeuralNetwork learnFrom(Board board) {
+        board.neuralNetwork.learnFrom(board.expected);
+        return board.neuralNetwork;
+    }
+
+    /**
+     * Apply the learning gathered before the call
+     *
+     * @param learning the network with the learning of one shot
+     * @return the network
+     */
+    @Benchmark
+    public NeuralNetwork updateFromLearning(GatheredLearning learning) {
+        learning.neuralNetwork.updateFromLearning();
+        return learning.neuralNetwork;
+    }
+
+    /**
+     * The network of a SmartAutoPlayer and a board to evaluate, built from the benchmark seed.
+     */
+    @State(Scope.Thread)
+    public static class Board {
+        /**
+         * The width and height of the board
+         */
+        @Param({"10", "15"})
+        public int size;
+        /**
+         * The expected output : a hit on one square
+         */
+        Vector expected;
+        /**
+         * The input : hit plane and busy plane of the opponent grid
+         */
+        Vector input;
+        /**
+         * The network
+         */
+        NeuralNetwork neuralNetwork;
+
+        /**
+         * Create the network and the vectors
+         */
+        @Setup
+        public void setup() {
+            RandomSource random = new RandomSource(Boards.SEED);
+            int totalGridSize = this.size * this.size;
+            this.neuralNetwork = SmartAutoPlayer.createNetwork(totalGridSize, Activation.Softmax, new CostFunction.CrossEntropy(), random.nextLong());
+
+            double[] input = new double[totalGridSize * 2];
+            for (int i = 0; i < totalGridSize; i++) {
+                if (random.nextBoolean()) {
+                    input[i] = 1;
+                    input[i + totalGridSize] = random.nextInt(5) == 0 ? 1 : 0;
+                }
+            }
+            this.input = new Vector(input);
+
+            double[] expected = new double[totalGridSize];
+            expected[random.nextInt(totalGridSize)] = 1;
+            this.expected = new Vector(expected);
+
+            // learnFrom works on the outputs of the last evaluation
+            this.neuralNetwork.evaluate(this.input);
+        }
+    }
+
+    /**
+     * A board whose network gathers the learning of one shot before each call,
+     * so updateFromLearning always has deltas to apply.
+     */
+    @State(Scope.Thread)
+    public static class GatheredLearning extends Board {
+        /**
+         * Gather the learning of one shot
+         */
+        @Setup(Level.Invocation)
+        public void gatherLearning() {
+            this.neuralNetwork.learnFrom(this.expected);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package battle.benchmark;
+
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.CostFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks of the hot paths of the game engine : answering a shot, placing the fleet
+ * and choosing a shot (randomly or with the network).
+ * The players choosing a shot look at an opponent grid in the middle of a game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+    /**
+     * The width and height of the board
+     */
+    @Param({"10", "15"})
+    public int size;
+    /**
+     * The player shot at by analyzeShot
+     */
+    private Player target;
+    /**
+     * Every square of the board, in the order they are shot at
+     */
+    private int[][] shots;
+    /**
+     * The index of the next shot
+     */
+    private int nextShot;
+    /**
+     * The player whose ships are placed again and again
+     */
+    private Player placer;
+    /**
+     * A random player in the middle of a game
+     */
+    private Player autoPlayer;
+    /**
+     * A network player in the middle of a game
+     */
+    private Player smartAutoPlayer;
+
+    /**
+     * Create the players from the benchmark seed
+     */
+    @Setup
+    public void setup() {
+        RandomSource random = new RandomSource(Boards.SEED);
+
+        this.target = new AutoPlayer(Boards.fleet(), "target", this.size, this.size, random.split());
+        this.shots = Boards.shuffledShots(this.size, random);
+        this.nextShot = 0;
+        this.placer = new AutoPlayer(Boards.fleet(), "placer", this.size, this.size, random.split());
+
+        Player opponent = new AutoPlayer(Boards.fleet(), "opponent", this.size, this.size, random.split());
+        this.autoPlayer = new AutoPlayer(Boards.fleet(), "auto", this.size, this.size, random.split());
+        Boards.playHalfGame(this.autoPlayer, opponent, this.size, random);
+
+        opponent.initializeGrids();
+        this.smartAutoPlayer = new SmartAutoPlayer(Boards.fleet(), "smart", this.size, this.size,
+                SmartAutoPlayer.createNetwork(this.size * this.size, Activation.Softmax, new CostFunction.CrossEntropy(), random.nextLong()),
+                false, random.split());
+        Boards.playHalfGame(this.smartAutoPlayer, opponent, this.size, random);
+    }
+
+    /**
+     * Answer a shot. Every square is shot once, then the grids are reset and the ships placed again,
+     * so the cost of a placement is spread over size * size shots.
+     *
+     * @return the shot result
+     */
+    @Benchmark
+    public ShotResult analyzeShot() {
+        ShotResult shotResult = this.target.analyzeShot(this.shots[this.nextShot++]);
+        if (this.nextShot == this.shots.length) {
+            this.nextShot = 0;
+            this.target.initializeGrids();
+        }
+        return shotResult;
+    }
+
+    /**
+     * Reset the grids and place the fleet
+     *
+     * @return the player
+     */
+    @Benchmark
+    public Player shipPlacement() {
+        this.placer.initializeGrids();
+        return this.placer;
+    }
+
+    /**
+     * Choose a random shot among the squares not yet shot
+     *
+     * @return the shot
+     */
+    @Benchmark
+    public int[] autoPlayerNewShot() {
+        return this.autoPlayer.newShot();
+    }
+
+    /**
+     * Choose a shot with the network
+     *
+     * @return the shot
+     */
+    @Benchmark
+    public int[] smartAutoPlayerNewShot() {
+        return this.smartAutoPlayer.newShot();
+    }
+}
@@ -1,9 +1,11 @@
 import battle.BattleShip;
+import battle.config.ConfigException;
 import battle.text.AppText;
 
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileFilter;
 import java.io.File;
+import java.io.IOException;
 
 /**
  * The type Launch battle.
@@ -73,6 +75,25 @@ public class LaunchBattle {
             playerName2 = AppText.getTextFor("player") + " 2";
         }
 
-        new BattleShip(path, playerName1, playerName2);
+        try {
+            new BattleShip(path, playerName1, playerName2);
+        } catch (IOException e) {
+            System.err.println("Fichier non trouvé : " + path);
+            System.exit(1);
+        } catch (ConfigException e) {
+            System.err.println(e.getMessage() + ". Check this configuration example : \n" +
+                    "\t10 : 15:\n" +
+                    "\tmode : HH:\n" +
+                    "\tporte-avion : 5:\n" +
+                    "\tfregate : 4:\n" +
+                    "\tfregate : 4:\n" +
+                    "\tpatrouilleur : 3:\n" +
+                    "\tsous-marin : 2:\n" +
+                    "\tremorqueur : 1:");
+            System.exit(1);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
     }
 }
@@ -0,0 +1,243 @@
+package battle.batch;
+
+import battle.config.ConfigException;
+import battle.config.ConfigParser;
+import battle.config.GameConfig;
+import battle.game.Game;
+import battle.game.Mode;
+import battle.game.RandomSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Play many scenarios (configuration files) headless in a single JVM, so that the start of the JVM and the warm-up
+ * of the JIT are paid once for all of them.
+ * <p>
+ * Each scenario plays a number of games between the players of the AA mode (the neural network player, learning,
+ * against the programmed IA), whatever the mode of its file, as no human can play headless.
+ * The games of a scenario are played in a row as the network learns from each of them, and the scenarios are shared
+ * among the threads of a pool. A scenario which cannot be read is reported in the summary without stopping the others.
+ * <p>
+ * Usage : BatchRunner directory|manifest [games] [threads] [summary file]
+ * <p>
+ * A directory gives all the .txt files under it, a manifest lists a configuration file by line
+ * (relative to the manifest, empty lines and lines starting with # being ignored).
+ */
+public class BatchRunner {
+    /**
+     * The default number of games of each scenario
+     */
+    public static final int DEFAULT_GAMES = 1000;
+    /**
+     * The number of games of each scenario
+     */
+    private final int games;
+    /**
+     * The seed of the scenarios
+     */
+    private final long seed;
+    /**
+     * The number of threads playing the scenarios
+     */
+    private final int threads;
+
+    /**
+     * Instantiates a new Batch runner.
+     *
+     * @param games   the number of games of each scenario
+     * @param threads the number of threads playing the scenarios
+     * @param seed    the seed of the scenarios, each one getting its own seed drawn in the order of the files
+     */
+    public BatchRunner(int games, int threads, long seed) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("The games parameter should be a number greater than 0.");
+        } else if (threads <= 0) {
+            throw new IllegalArgumentException("The threads parameter should be a number greater than 0.");
+        }
+
+        this.games = games;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Play the scenarios of a directory or a manifest and print the summary
+     *
+     * @param args the directory or manifest, the number of games of each scenario, the number of threads
+     *             and the file where to write the summary (all but the first optional)
+     * @throws IOException          if the scenarios or the summary cannot be accessed
+     * @throws InterruptedException if the batch is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage : BatchRunner directory|manifest [games] [threads] [summary file]");
+            System.exit(1);
+        }
+
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : BatchRunner.DEFAULT_GAMES;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = Long.getLong("battle.seed", RandomSource.withRandomSeed().getSeed());
+
+        List<Path> files = BatchRunner.scenarios(Path.of(args[0]));
+        long start = System.nanoTime();
+        List<ScenarioResult> results = new BatchRunner(games, threads, seed).run(files);
+        String summary = String.format("%d scenarios, %d games each, %d threads, seed %d, %.1f s%n%n", files.size(), games,
+                threads, seed, (System.nanoTime() - start) / 1e9) + BatchRunner.summary(results);
+
+        System.out.print(summary);
+        if (args.length > 3) {
+            Files.write(Path.of(args[3]), summary.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Get the configuration files of a directory or a manifest
+     *
+     * @param path the directory, whose .txt files are taken, or the manifest, listing a file by line
+     * @return the files, sorted for a directory and in the order of the manifest otherwise
+     * @throws IOException if the directory or the manifest cannot be read
+     */
+    public static List<Path> scenarios(Path path) throws IOException {
+        // Check parameters
+        if (path == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                return files.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".txt"))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        List<Path> files = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String name = line.trim();
+            if (!name.isEmpty() && !name.startsWith("#")) {
+                files.add(directory.resolve(name).normalize());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Get the summary table of the scenarios : board, fleet, games, wins of the first player, shots by game and time
+     *
+     * @param results the results of the scenarios
+     * @return the table
+     */
+    public static String summary(List<ScenarioResult> results) {
+        // Check parameters
+        if (results == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        int width = "Scenario".length();
+        for (ScenarioResult result : results) {
+            width = Math.max(width, result.getFile().toString().length());
+        }
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-" + width + "s  %-7s  %-16s%8s%8s%10s%8s%9s%n", "Scenario", "Board", "Fleet",
+                "Games", "Wins", "Win rate", "Shots", "Time"));
+        for (ScenarioResult result : results) {
+            if (result.getError() != null) {
+                table.append(String.format("%-" + width + "s  %s%n", result.getFile(), result.getError()));
+            } else {
+                GameConfig config = result.getConfig();
+                String fleet = config.getShipSizes().stream().map(String::valueOf).collect(Collectors.joining(","));
+                table.append(String.format("%-" + width + "s  %-7s  %-16s%8d%8d%9.1f%%%8.1f%8.1fs%n", result.getFile(),
+                        config.getWidth() + "x" + config.getHeight(), fleet, result.getGames(), result.getWins(),
+                        result.getWinRate() * 100, result.getMeanShots(), result.getNanos() / 1e9));
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * Play the scenarios on the threads of the pool
+     *
+     * @param files the configuration files of the scenarios
+     * @return the result of each scenario, in the order of the files
+     * @throws InterruptedException if the batch is interrupted
+     */
+    public List<ScenarioResult> run(List<Path> files) throws InterruptedException {
+        // Check parameters
+        if (files == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        RandomSource random = new RandomSource(this.seed);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            List<Future<ScenarioResult>> futures = new ArrayList<>();
+            for (Path file : files) {
+                long scenarioSeed = random.nextLong();
+                futures.add(executor.submit(() -> this.play(file, scenarioSeed)));
+            }
+
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Future<ScenarioResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException("A scenario of the batch failed.", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read a scenario and play its games
+     *
+     * @param file the configuration file of the scenario
+     * @param seed the seed of the scenario
+     * @return the result of the scenario, with an error if the file cannot be read or its games cannot be played
+     */
+    private ScenarioResult play(Path file, long seed) {
+        GameConfig config;
+        try {
+            config = ConfigParser.readGame(file);
+        } catch (ConfigException e) {
+            return new ScenarioResult(file, e.getMessage());
+        } catch (IOException e) {
+            return new ScenarioResult(file, "Cannot read the file : " + e.getMessage());
+        }
+
+        long start = System.nanoTime();
+        int wins = 0;
+        long shots = 0;
+        try {
+            Game game = new Game(config.getFleet(), "Neural Network AI player", "Programmed AI player",
+                    config.getWidth(), config.getHeight(), Mode.AA, seed);
+            for (int i = 0; i < this.games; i++) {
+                wins += game.play() == game.getPlayer1() ? 1 : 0;
+                shots += game.getShotCount();
+            }
+        } catch (RuntimeException e) {
+            // A valid file can still describe games which cannot be played, e.g. a fleet too large for the board
+            return new ScenarioResult(file, "Cannot play the scenario : "
+                    + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+        }
+        return new ScenarioResult(file, config, this.games, wins, shots, System.nanoTime() - start);
+    }
+}
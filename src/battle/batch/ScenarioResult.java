@@ -0,0 +1,147 @@
+package battle.batch;
+
+import battle.config.GameConfig;
+
+import java.nio.file.Path;
+
+/**
+ * The results of the games of a scenario of a batch (see {@link BatchRunner}), or the error which prevented them.
+ */
+public final class ScenarioResult {
+    /**
+     * The configuration of the scenario, null if it could not be read
+     */
+    private final GameConfig config;
+    /**
+     * The reason why the scenario was not played, null if it was
+     */
+    private final String error;
+    /**
+     * The configuration file of the scenario
+     */
+    private final Path file;
+    /**
+     * The number of games played
+     */
+    private final int games;
+    /**
+     * The time taken by the games, in nanoseconds
+     */
+    private final long nanos;
+    /**
+     * The number of shots fired by both players in all the games
+     */
+    private final long shots;
+    /**
+     * The number of games won by the first player
+     */
+    private final int wins;
+
+    /**
+     * Instantiates the result of a scenario played.
+     *
+     * @param file   the configuration file of the scenario
+     * @param config the configuration of the scenario
+     * @param games  the number of games played
+     * @param wins   the number of games won by the first player
+     * @param shots  the number of shots fired by both players in all the games
+     * @param nanos  the time taken by the games, in nanoseconds
+     */
+    ScenarioResult(Path file, GameConfig config, int games, int wins, long shots, long nanos) {
+        this.file = file;
+        this.config = config;
+        this.error = null;
+        this.games = games;
+        this.wins = wins;
+        this.shots = shots;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Instantiates the result of a scenario which could not be played.
+     *
+     * @param file  the configuration file of the scenario
+     * @param error the reason why the scenario was not played
+     */
+    ScenarioResult(Path file, String error) {
+        this.file = file;
+        this.config = null;
+        this.error = error;
+        this.games = 0;
+        this.wins = 0;
+        this.shots = 0;
+        this.nanos = 0;
+    }
+
+    /**
+     * Gets the configuration of the scenario.
+     *
+     * @return the configuration, null if it could not be read
+     */
+    public GameConfig getConfig() {
+        return this.config;
+    }
+
+    /**
+     * Gets the reason why the scenario was not played.
+     *
+     * @return the error, null if the scenario was played
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * Gets the configuration file of the scenario.
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return the number of games
+     */
+    public int getGames() {
+        return this.games;
+    }
+
+    /**
+     * Gets the average number of shots fired by both players in a game.
+     *
+     * @return the average number of shots, 0 if no game was played
+     */
+    public double getMeanShots() {
+        return this.games == 0 ? 0 : (double) this.shots / this.games;
+    }
+
+    /**
+     * Gets the time taken by the games, in nanoseconds.
+     *
+     * @return the time
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Gets the share of the games won by the first player.
+     *
+     * @return the win rate, between 0 and 1
+     */
+    public double getWinRate() {
+        return this.games == 0 ? 0 : (double) this.wins / this.games;
+    }
+
+    /**
+     * Gets the number of games won by the first player.
+     *
+     * @return the number of games won
+     */
+    public int getWins() {
+        return this.wins;
+    }
+}
@@ -0,0 +1,65 @@
+package battle.config;
+
+/**
+ * An error in a configuration file, at a given line and column of the file.
+ */
+public class ConfigException extends Exception {
+    /**
+     * The version of the serialized form
+     */
+    private static final long serialVersionUID = -2048674967076338216L;
+    /**
+     * The column of the error, starting at 1
+     */
+    private final int column;
+    /**
+     * The line of the error, starting at 1
+     */
+    private final int line;
+    /**
+     * The name of the file
+     */
+    private final String source;
+
+    /**
+     * Instantiates a new Config exception.
+     *
+     * @param source  the name of the file
+     * @param line    the line of the error, starting at 1
+     * @param column  the column of the error, starting at 1
+     * @param message the description of the error
+     */
+    public ConfigException(String source, int line, int column, String message) {
+        super(source + ":" + line + ":" + column + " : " + message);
+        this.source = source;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Gets the column of the error, starting at 1.
+     *
+     * @return the column
+     */
+    public int getColumn() {
+        return this.column;
+    }
+
+    /**
+     * Gets the line of the error, starting at 1.
+     *
+     * @return the line
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Gets the name of the file.
+     *
+     * @return the name
+     */
+    public String getSource() {
+        return this.source;
+    }
+}
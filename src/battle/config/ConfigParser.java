@@ -0,0 +1,298 @@
+package battle.config;
+
+import battle.BattleShip;
+import battle.game.Mode;
+import battle.game.ships.Direction;
+import battle.game.ships.Ship;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parser of the configuration files, read in a single pass without regular expressions.
+ * The values of a file are separated by colons, the spaces and line breaks around them being ignored :
+ * <pre>
+ * 10 : 15 :
+ * mode : AA :
+ * porte-avion : 5 :
+ * sous-marin : 2 :
+ * </pre>
+ * A player configuration file gives the name, line, column and direction of each ship :
+ * <pre>
+ * porte-avion : 0 : 4 : HORIZONTAL :
+ * sous-marin : 7 : 7 : VERTICAL :
+ * </pre>
+ * An invalid file raises a {@link ConfigException} giving the line and column of the faulty value.
+ */
+public final class ConfigParser {
+    /**
+     * The name of the file, for the error messages
+     */
+    private final String source;
+    /**
+     * The text of the file
+     */
+    private final CharSequence text;
+    /**
+     * The column of the next character, starting at 1
+     */
+    private int column = 1;
+    /**
+     * The line of the next character, starting at 1
+     */
+    private int line = 1;
+    /**
+     * The index of the next character
+     */
+    private int position;
+    /**
+     * The column of the current value
+     */
+    private int valueColumn;
+    /**
+     * The index after the last character of the current value
+     */
+    private int valueEnd;
+    /**
+     * The line of the current value
+     */
+    private int valueLine;
+    /**
+     * The index of the first character of the current value
+     */
+    private int valueStart;
+
+    /**
+     * Instantiates a new Config parser.
+     *
+     * @param source the name of the file
+     * @param text   the text of the file
+     */
+    private ConfigParser(String source, CharSequence text) {
+        this.source = source;
+        this.text = text;
+    }
+
+    /**
+     * Read a game configuration file
+     *
+     * @param file the file
+     * @return the configuration
+     * @throws IOException     if the file cannot be read
+     * @throws ConfigException if the file is not a valid configuration
+     */
+    public static GameConfig readGame(Path file) throws IOException, ConfigException {
+        // Check parameters
+        if (file == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        return ConfigParser.parseGame(file.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a game configuration : the width and height of the board, the mode and the name and size of each ship
+     *
+     * @param source the name of the file, for the error messages
+     * @param text   the text of the configuration
+     * @return the configuration
+     * @throws ConfigException if the text is not a valid configuration
+     */
+    public static GameConfig parseGame(String source, CharSequence text) throws ConfigException {
+        // Check parameters
+        if (source == null || text == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        ConfigParser parser = new ConfigParser(source, text);
+        int width = parser.expectNumber("the width", BattleShip.BOARD_MIN_WIDTH, BattleShip.BOARD_MAX_WIDTH);
+        int height = parser.expectNumber("the height", BattleShip.BOARD_MIN_HEIGHT, BattleShip.BOARD_MAX_HEIGHT);
+        if (!"mode".equalsIgnoreCase(parser.expectValue("the word \"mode\""))) {
+            throw parser.error("Expected the word \"mode\", found \"" + parser.value() + "\"");
+        }
+        String modeName = parser.expectValue("the mode");
+        if (!Mode.contains(modeName)) {
+            throw parser.error("Unknown mode \"" + modeName + "\", expected HH, HA or AA");
+        }
+
+        List<String> shipNames = new ArrayList<>();
+        List<Integer> shipSizes = new ArrayList<>();
+        while (parser.next()) {
+            String shipName = parser.value();
+            shipNames.add(shipName);
+            // A ship longer than both sides of the board could never be placed
+            shipSizes.add(parser.expectNumber("the size of " + shipName, Ship.MIN_SIZE, Math.min(Ship.MAX_SIZE, Math.max(width, height))));
+        }
+        return new GameConfig(width, height, Mode.valueOf(modeName), shipNames, shipSizes);
+    }
+
+    /**
+     * Read a player configuration file
+     *
+     * @param file the file
+     * @return the placements of the ships, in the order of the file
+     * @throws IOException     if the file cannot be read
+     * @throws ConfigException if the file is not a valid player configuration
+     */
+    public static List<ShipPlacement> readPlacements(Path file) throws IOException, ConfigException {
+        // Check parameters
+        if (file == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        return ConfigParser.parsePlacements(file.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a player configuration : the name, line, column and direction of each ship.
+     * The positions are not checked against a board, which is the job of the player.
+     *
+     * @param source the name of the file, for the error messages
+     * @param text   the text of the configuration
+     * @return the placements of the ships, in the order of the text
+     * @throws ConfigException if the text is not a valid player configuration
+     */
+    public static List<ShipPlacement> parsePlacements(String source, CharSequence text) throws ConfigException {
+        // Check parameters
+        if (source == null || text == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        ConfigParser parser = new ConfigParser(source, text);
+        List<ShipPlacement> placements = new ArrayList<>();
+        while (parser.next()) {
+            String shipName = parser.value();
+            int shipLine = parser.expectNumber("the line of " + shipName, 0, Integer.MAX_VALUE);
+            int shipColumn = parser.expectNumber("the column of " + shipName, 0, Integer.MAX_VALUE);
+            String directionName = parser.expectValue("the direction of " + shipName);
+            if (!Direction.contains(directionName)) {
+                throw parser.error("Unknown direction \"" + directionName + "\", expected HORIZONTAL or VERTICAL");
+            }
+            placements.add(new ShipPlacement(shipName, shipLine, shipColumn, Direction.valueOf(directionName)));
+        }
+        return placements;
+    }
+
+    /**
+     * Move to the next value : skip the spaces, then read up to the next colon or the end of the text
+     *
+     * @return false at the end of the text
+     * @throws ConfigException if the value is empty
+     */
+    private boolean next() throws ConfigException {
+        while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+            this.advance();
+        }
+        if (this.position == this.text.length()) {
+            return false;
+        }
+
+        this.valueStart = this.position;
+        this.valueEnd = this.position;
+        this.valueLine = this.line;
+        this.valueColumn = this.column;
+        while (this.position < this.text.length() && this.text.charAt(this.position) != ':') {
+            if (!Character.isWhitespace(this.text.charAt(this.position))) {
+                this.valueEnd = this.position + 1;
+            }
+            this.advance();
+        }
+        if (this.valueEnd == this.valueStart) {
+            throw this.error("Empty value");
+        }
+        if (this.position < this.text.length()) {
+            // Skip the colon
+            this.advance();
+        }
+        return true;
+    }
+
+    /**
+     * Move to the next character, counting the lines and columns
+     */
+    private void advance() {
+        if (this.text.charAt(this.position) == '\n') {
+            this.line++;
+            this.column = 1;
+        } else {
+            this.column++;
+        }
+        this.position++;
+    }
+
+    /**
+     * Get the current value
+     *
+     * @return the value, without the spaces around it
+     */
+    private String value() {
+        return this.text.subSequence(this.valueStart, this.valueEnd).toString();
+    }
+
+    /**
+     * Move to the next value, which must exist
+     *
+     * @param expected the description of the value
+     * @return the value
+     * @throws ConfigException at the end of the text
+     */
+    private String expectValue(String expected) throws ConfigException {
+        if (!this.next()) {
+            this.valueLine = this.line;
+            this.valueColumn = this.column;
+            throw this.error("Unexpected end of file, expected " + expected);
+        }
+        return this.value();
+    }
+
+    /**
+     * Move to the next value, which must be a number in a range
+     *
+     * @param expected the description of the value
+     * @param min      the minimum of the number
+     * @param max      the maximum of the number
+     * @return the number
+     * @throws ConfigException at the end of the text, or if the value is not a number of the range
+     */
+    private int expectNumber(String expected, int min, int max) throws ConfigException {
+        this.expectValue(expected);
+
+        int index = this.valueStart;
+        boolean negative = this.text.charAt(index) == '-';
+        if (negative || this.text.charAt(index) == '+') {
+            index++;
+        }
+        if (index == this.valueEnd) {
+            throw this.error("Expected " + expected + ", found \"" + this.value() + "\"");
+        }
+
+        long number = 0;
+        for (; index < this.valueEnd; index++) {
+            char c = this.text.charAt(index);
+            if (c < '0' || c > '9' || number > Integer.MAX_VALUE) {
+                throw this.error("Expected " + expected + ", found \"" + this.value() + "\"");
+            }
+            number = number * 10 + (c - '0');
+        }
+        number = negative ? -number : number;
+
+        if (number < min || number > max) {
+            throw this.error("Expected " + expected + " between " + min + " and " + max + ", found " + number);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Create an error at the current value
+     *
+     * @param message the description of the error
+     * @return the error
+     */
+    private ConfigException error(String message) {
+        return new ConfigException(this.source, this.valueLine, this.valueColumn, message);
+    }
+}
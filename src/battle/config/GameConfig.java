@@ -0,0 +1,146 @@
+package battle.config;
+
+import battle.BattleShip;
+import battle.game.Mode;
+import battle.game.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The configuration of a game read from a file (see {@link ConfigParser#parseGame(String, CharSequence)}) :
+ * the dimensions of the board, the mode and the fleet of each player.
+ * A configuration is immutable, each call to {@link #getFleet()} gives new ships.
+ */
+public final class GameConfig {
+    /**
+     * The height of the board
+     */
+    private final int height;
+    /**
+     * The game mode
+     */
+    private final Mode mode;
+    /**
+     * The names of the ships of the fleet
+     */
+    private final List<String> shipNames;
+    /**
+     * The sizes of the ships of the fleet, in the order of their names
+     */
+    private final List<Integer> shipSizes;
+    /**
+     * The width of the board
+     */
+    private final int width;
+
+    /**
+     * Instantiates a new Game config.
+     *
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param mode      the game mode
+     * @param shipNames the names of the ships of the fleet
+     * @param shipSizes the sizes of the ships of the fleet, in the order of their names
+     */
+    public GameConfig(int width, int height, Mode mode, List<String> shipNames, List<Integer> shipSizes) {
+        // Check parameters
+        if (mode == null || shipNames == null || shipSizes == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (width < BattleShip.BOARD_MIN_WIDTH || width > BattleShip.BOARD_MAX_WIDTH) {
+            throw new IllegalArgumentException("The width parameter should be a number between " + BattleShip.BOARD_MIN_WIDTH + " and " + BattleShip.BOARD_MAX_WIDTH + ".");
+        } else if (height < BattleShip.BOARD_MIN_HEIGHT || height > BattleShip.BOARD_MAX_HEIGHT) {
+            throw new IllegalArgumentException("The height parameter should be a number between " + BattleShip.BOARD_MIN_HEIGHT + " and " + BattleShip.BOARD_MAX_HEIGHT + ".");
+        } else if (shipNames.size() != shipSizes.size()) {
+            throw new IllegalArgumentException("The shipNames and shipSizes parameters should have the same size.");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.mode = mode;
+        this.shipNames = Collections.unmodifiableList(new ArrayList<>(shipNames));
+        this.shipSizes = Collections.unmodifiableList(new ArrayList<>(shipSizes));
+        for (int i = 0; i < this.shipNames.size(); i++) {
+            // Check the ship the same way as its constructor
+            new Ship(this.shipNames.get(i), this.shipSizes.get(i));
+            if (this.shipSizes.get(i) > Math.max(width, height)) {
+                throw new IllegalArgumentException("The size of the ship " + this.shipNames.get(i) + " should not be greater than the width or the height.");
+            }
+        }
+    }
+
+    /**
+     * Gets a new fleet of the configuration.
+     *
+     * @return the ships, not placed yet
+     */
+    public ArrayList<Ship> getFleet() {
+        ArrayList<Ship> fleet = new ArrayList<>();
+        for (int i = 0; i < this.shipNames.size(); i++) {
+            fleet.add(new Ship(this.shipNames.get(i), this.shipSizes.get(i)));
+        }
+        return fleet;
+    }
+
+    /**
+     * Gets the height of the board.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the game mode.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Gets the names of the ships of the fleet.
+     *
+     * @return the names
+     */
+    public List<String> getShipNames() {
+        return this.shipNames;
+    }
+
+    /**
+     * Gets the sizes of the ships of the fleet, in the order of their names.
+     *
+     * @return the sizes
+     */
+    public List<Integer> getShipSizes() {
+        return this.shipSizes;
+    }
+
+    /**
+     * Gets the width of the board.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the configuration in the format of the configuration files.
+     *
+     * @return the configuration
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(this.width).append(" : ").append(this.height).append(" :\n");
+        text.append("mode : ").append(this.mode).append(" :\n");
+        for (int i = 0; i < this.shipNames.size(); i++) {
+            text.append(this.shipNames.get(i)).append(" : ").append(this.shipSizes.get(i)).append(" :\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package battle.config;
+
+import battle.game.ships.Direction;
+
+/**
+ * The placement of a ship read from a player configuration file
+ * (see {@link ConfigParser#parsePlacements(String, CharSequence)}).
+ */
+public final class ShipPlacement {
+    /**
+     * The column of the origin of the ship
+     */
+    private final int column;
+    /**
+     * The direction of the ship
+     */
+    private final Direction direction;
+    /**
+     * The line of the origin of the ship
+     */
+    private final int line;
+    /**
+     * The name of the ship
+     */
+    private final String name;
+
+    /**
+     * Instantiates a new Ship placement.
+     *
+     * @param name      the name of the ship
+     * @param line      the line of the origin of the ship
+     * @param column    the column of the origin of the ship
+     * @param direction the direction of the ship
+     */
+    public ShipPlacement(String name, int line, int column, Direction direction) {
+        // Check parameters
+        if (name == null || direction == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.name = name;
+        this.line = line;
+        this.column = column;
+        this.direction = direction;
+    }
+
+    /**
+     * Gets the column of the origin of the ship.
+     *
+     * @return the column
+     */
+    public int getColumn() {
+        return this.column;
+    }
+
+    /**
+     * Gets the direction of the ship.
+     *
+     * @return the direction
+     */
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    /**
+     * Gets the line of the origin of the ship.
+     *
+     * @return the line
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Gets the name of the ship.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+}
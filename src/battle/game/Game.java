@@ -1,15 +1,27 @@
 package battle.game;
 
 import battle.BattleShip;
+import battle.game.journal.GameJournalWriter;
 import battle.game.players.HumanPlayer;
 import battle.game.players.Player;
 import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.OpeningBook;
 import battle.game.players.auto.SmartAutoPlayer;
 import battle.game.ships.Ship;
+import battle.metrics.MetricsRegistry;
+import battle.metrics.MetricsReporter;
+import battle.metrics.TrainingMetrics;
 import battle.text.AppText;
+import battle.trace.NewShotEvent;
+import battle.trace.Tracing;
 
 import javax.swing.JOptionPane;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class contains the main logic of the game of battleship.
@@ -19,18 +31,54 @@ public class Game implements IGame {
      * The number of games of training between each progress demonstration of the ai
      */
     private static final double TRAINING_GAME_NUMBER = 5000.0d;
+    /**
+     * The system property making the ai learn from the images of each position through the symmetries of the board
+     */
+    private static final String AUGMENT_PROPERTY = "battle.augment";
+    /**
+     * The default time between two reports of the metrics, in milliseconds
+     */
+    private static final long METRICS_PERIOD = 10000;
+    /**
+     * The system property giving the directory of the game journal
+     */
+    private static final String JOURNAL_PROPERTY = "battle.journal";
+    /**
+     * The system property giving the file the metrics are written to
+     */
+    private static final String METRICS_PROPERTY = "battle.metrics";
+    /**
+     * The system property giving the directory of the opening books
+     */
+    private static final String OPENINGS_PROPERTY = "battle.openings";
     /**
      * The fleet of the game
      */
     private final ArrayList<Ship> fleet = new ArrayList<>();
+    /**
+     * The listeners of the headless games
+     */
+    private final List<GameListener> listeners = new ArrayList<>();
     /**
      * The game mode
      */
     private final Mode mode;
+    /**
+     * The seed of the random decisions of the automatic players, 0 if the players were given
+     */
+    private final long seed;
     /**
      * The player actually playing
      */
     private Player current;
+    /**
+     * The periodic writer of the metrics of the training, if asked for
+     */
+    private MetricsReporter metricsReporter;
+    /**
+     * The metrics of the training, while they are recorded
+     */
+    private TrainingMetrics trainingMetrics;
     /**
      * The first player
      */
@@ -39,10 +87,18 @@ public class Game implements IGame {
      * The second player
      */
     private Player player2;
+    /**
+     * The position of the last shot
+     */
+    private int[] lastShot;
     /**
      * The result of the last shot
      */
     private ShotResult shotResult;
+    /**
+     * The number of shots fired since the beginning of the game
+     */
+    private int shotCount;
 
     /**
      * The constructor of the class Game, initialize fleets by copying the parameter.
@@ -56,6 +112,23 @@ public class Game implements IGame {
      * @param mode        the mode of the game (HH, HA or AA)
      */
     public Game(ArrayList<Ship> fleet, String playerName1, String playerName2, int width, int height, Mode mode) {
+        this(fleet, playerName1, playerName2, width, height, mode, RandomSource.withRandomSeed().getSeed());
+    }
+
+    /**
+     * The constructor of the class Game, with the seed of every random decision of the automatic players.
+     * Each automatic player gets its own source split from the seed, so a seed and a configuration
+     * always replay the same games.
+     *
+     * @param fleet       the fleet of the game (then copied into attribute)
+     * @param playerName1 the name of the first player
+     * @param playerName2 the name of the second player
+     * @param width       the width of the game board
+     * @param height      the height of the game board
+     * @param mode        the mode of the game (HH, HA or AA)
+     * @param seed        the seed of the game
+     */
+    public Game(ArrayList<Ship> fleet, String playerName1, String playerName2, int width, int height, Mode mode, long seed) {
         // Check parameters
         if (fleet == null || playerName1 == null || playerName2 == null || mode == null) {
             throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
@@ -74,21 +147,46 @@ public class Game implements IGame {
             System.err.println("Can't copy ship");
         }
 
+        this.seed = seed;
+        RandomSource random = new RandomSource(seed);
         if (mode == Mode.HH) {
             this.player1 = new HumanPlayer(this.fleet, playerName1, width, height);
             this.player2 = new HumanPlayer(this.fleet, playerName2, width, height);
         } else if (mode == Mode.HA) {
             this.player1 = new HumanPlayer(this.fleet, playerName1, width, height);
-            this.player2 = new SmartAutoPlayer(this.fleet, "Neural Network AI player", width, height, false);
+            SmartAutoPlayer smartPlayer = new SmartAutoPlayer(this.fleet, "Neural Network AI player", width, height, false, random.split());
+            this.loadOpeningBook(smartPlayer);
+            this.player2 = smartPlayer;
         } else if (mode == Mode.AA) {
-            this.player1 = new SmartAutoPlayer(this.fleet, "Neural Network AI player", width, height);
-            this.player2 = new AutoPlayer(this.fleet, "Programmed AI player", width, height);
+            SmartAutoPlayer smartPlayer = new SmartAutoPlayer(this.fleet, "Neural Network AI player", width, height, true, random.split());
+            smartPlayer.setAugmented(Boolean.getBoolean(Game.AUGMENT_PROPERTY));
+            this.player1 = smartPlayer;
+            this.player2 = new AutoPlayer(this.fleet, "Programmed AI player", width, height, random.split());
         }
 
         this.mode = mode;
         this.current = this.player1;
     }
 
+    /**
+     * A constructor used to play headless games between two already created players (AA mode).
+     *
+     * @param player1 the first player
+     * @param player2 the second player
+     */
+    public Game(Player player1, Player player2) {
+        // Check parameters
+        if (player1 == null || player2 == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.player1 = player1;
+        this.player2 = player2;
+        this.mode = Mode.AA;
+        this.seed = 0;
+        this.current = this.player1;
+    }
+
     /**
      * Change the current player of the game by swapping them
      */
@@ -153,7 +251,13 @@ public class Game implements IGame {
         if (player == null) {
             throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
         }
-        return player.newShot();
+        NewShotEvent event = Tracing.ENABLED ? Tracing.begin(new NewShotEvent()) : null;
+        int[] shot = player.newShot();
+        if (event != null) {
+            event.player = player.getName();
+            event.commit();
+        }
+        return shot;
     }
 
     /**
@@ -189,63 +293,277 @@ public class Game implements IGame {
 
         if (this.mode != Mode.AA) {
             this.displayGrids();
+        } else {
+            this.recordMetrics();
+            this.recordJournal();
         }
 
-        for (int i = 0; i < iterationCount; i++) {
-            if (this.mode == Mode.AA) {
-                this.player1.initializeGrids();
-                this.player2.initializeGrids();
+        try {
+            for (int i = 0; i < iterationCount; i++) {
+                if (this.mode == Mode.AA) {
+                    this.player1.initializeGrids();
+                    this.player2.initializeGrids();
+                    this.shotCount = 0;
+                    for (GameListener listener : this.listeners) {
+                        listener.gameStarted(this.player1, this.player2);
+                    }
 
-                if (i % value == 0) {
-                    this.displayGrids();
-                    double winPercentage = (gameWonCount / value) * 100;
-                    System.out.println(winPercentage + "% of games won by the neural network over the programmed IA");
+                    if (i % value == 0) {
+                        this.displayGrids();
+                        double winPercentage = (gameWonCount / value) * 100;
+                        System.out.println(winPercentage + "% of games won by the neural network over the programmed IA");
+                    }
                 }
-            }
 
-            boolean gameRunning = true;
-            while (gameRunning) {
-                int[] shot = this.readShot(this.current);
-                ShotResult shotResult = this.analyzeShot(shot);
-                this.current.sendLastShotResult(shotResult, shot);
-                this.changeCurrent();
-                gameRunning = !this.allSunk(this.current);
+                boolean gameRunning = true;
+                while (gameRunning) {
+                    gameRunning = this.playMove();
 
-                if (i % value == 0) {
-                    try {
-                        // Pausing between each moves of AIs
-                        Thread.sleep(200);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
+                    if (i % value == 0) {
+                        try {
+                            // Pausing between each moves of AIs
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            e.printStackTrace();
+                        }
                     }
                 }
-            }
 
-            if (this.mode == Mode.AA) {
-                if (this.current == this.player2) {
-                    gameWonCount++;
-
-                    if (i % value == 0) {
-                        System.out.println("The neural network WON the last game !");
+                if (this.mode == Mode.AA) {
+                    Player winner = this.current == this.player1 ? this.player2 : this.player1;
+                    for (GameListener listener : this.listeners) {
+                        listener.gameEnded(winner, this.shotCount);
                     }
-                } else {
-                    if (i % value == 0) {
-                        System.out.println("The neural network LOOSED the last game !");
+
+                    if (this.current == this.player2) {
+                        gameWonCount++;
+
+                        if (i % value == 0) {
+                            System.out.println("The neural network WON the last game !");
+                        }
+                    } else {
+                        if (i % value == 0) {
+                            System.out.println("The neural network LOOSED the last game !");
+                        }
                     }
                 }
+
+                if (this.mode == Mode.AA && i % value == 0) {
+                    gameWonCount = 0;
+                    this.player1.closeGrids();
+                    this.player2.closeGrids();
+                }
+
+                this.changeCurrent();
+                if (this.mode != Mode.AA) {
+                    this.endOfGame();
+                }
             }
+        } finally {
+            if (this.mode == Mode.AA) {
+                this.stopMetrics();
+            }
+        }
+    }
 
-            if (this.mode == Mode.AA && i % value == 0) {
-                gameWonCount = 0;
-                this.player1.closeGrids();
-                this.player2.closeGrids();
+    /**
+     * Record the metrics of the training in the default registry and expose them through JMX (the MBean being
+     * registered once for every game of the program, see {@link #stopMetrics()}). They are also written periodically to the file given by the battle.metrics system property if any
+     * (JSON if its name ends with .json, CSV otherwise), every battle.metrics.period milliseconds.
+     */
+    private void recordMetrics() {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.trainingMetrics = new TrainingMetrics(registry, this.player1, (int) Game.TRAINING_GAME_NUMBER);
+        this.addListener(this.trainingMetrics);
+        if (this.player1 instanceof SmartAutoPlayer) {
+            ((SmartAutoPlayer) this.player1).getNeuralNetwork().recordMetrics(registry, "nn");
+        }
+        registry.registerMBean("training");
+
+        String output = System.getProperty(Game.METRICS_PROPERTY);
+        if (output != null) {
+            try {
+                this.metricsReporter = new MetricsReporter(registry, Paths.get(output), Long.getLong(Game.METRICS_PROPERTY + ".period", Game.METRICS_PERIOD));
+            } catch (IOException e) {
+                System.err.println("Can't write the metrics to " + output);
+            }
+        }
+    }
+
+    /**
+     * Stop recording the metrics of the training : the training metrics stop listening to the games and their
+     * gauges bound to the players are removed, the network stops recording its metrics and the periodic writer
+     * is closed. The MBean stays, exposing the metrics of the next training of the program.
+     */
+    private void stopMetrics() {
+        if (this.trainingMetrics != null) {
+            this.listeners.remove(this.trainingMetrics);
+            this.trainingMetrics.unregister();
+            this.trainingMetrics = null;
+        }
+        if (this.player1 instanceof SmartAutoPlayer) {
+            ((SmartAutoPlayer) this.player1).getNeuralNetwork().recordMetrics(null, null);
+        }
+        if (this.metricsReporter != null) {
+            try {
+                this.metricsReporter.close();
+            } catch (IOException e) {
+                System.err.println("Can't close the metrics file");
+            }
+            this.metricsReporter = null;
+        }
+    }
+
+    /**
+     * Record the games in the journal of the directory given by the battle.journal system property, if any.
+     * The journal is closed when the program exits.
+     */
+    private void recordJournal() {
+        String directory = System.getProperty(Game.JOURNAL_PROPERTY);
+        if (directory != null) {
+            try {
+                GameJournalWriter journal = new GameJournalWriter(Paths.get(directory), this.player1.getWidth(), this.player1.getHeight(), this.seed);
+                this.addListener(journal);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        System.err.println("Can't close the game journal");
+                    }
+                }));
+            } catch (IOException e) {
+                System.err.println("Can't open the game journal in " + directory);
+            }
+        }
+    }
+
+    /**
+     * Give a player the opening book of the game configuration, found in the directory given by the battle.openings
+     * system property if any (see {@link OpeningBook#fileName(int, int, List)}).
+     * The shots of the book are drawn among its candidates when the battle.openings.random system property is true.
+     *
+     * @param player the player
+     */
+    private void loadOpeningBook(SmartAutoPlayer player) {
+        String directory = System.getProperty(Game.OPENINGS_PROPERTY);
+        if (directory != null) {
+            Path file = Paths.get(directory, OpeningBook.fileName(player.getWidth(), player.getHeight(), this.fleet));
+            if (Files.exists(file)) {
+                try {
+                    player.setOpeningBook(OpeningBook.load(file), Boolean.getBoolean(Game.OPENINGS_PROPERTY + ".random"));
+                } catch (IOException e) {
+                    System.err.println("Can't read the opening book " + file);
+                }
+            } else {
+                System.err.println("No opening book " + file);
             }
+        }
+    }
+
+    /**
+     * Add a listener notified of the games played
+     *
+     * @param listener the listener
+     */
+    public void addListener(GameListener listener) {
+        // Check parameters
+        if (listener == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+        this.listeners.add(listener);
+    }
 
-            this.changeCurrent();
-            if (this.mode != Mode.AA) {
-                this.endOfGame();
+    /**
+     * Play a whole game without any display nor pause, player1 shooting first.
+     * Grids of both players are initialized (and ships placed) before the game.
+     *
+     * @return the winner of the game
+     */
+    public Player play() {
+        return this.play(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Play a game without any display nor pause, player1 shooting first, stopped after a number of shots
+     * so that players shooting the same squares again and again cannot play forever.
+     * A stopped game is lost by the player who hit the fewest squares of its opponent, the first player on a tie.
+     * Grids of both players are initialized (and ships placed) before the game.
+     *
+     * @param maxShots the maximum number of shots of both players
+     * @return the winner of the game
+     */
+    public Player play(int maxShots) {
+        if (maxShots <= 0) {
+            throw new IllegalArgumentException("The maxShots parameter should be a number greater than 0.");
+        }
+
+        this.player1.initializeGrids();
+        this.player2.initializeGrids();
+        this.current = this.player1;
+        this.shotCount = 0;
+
+        for (GameListener listener : this.listeners) {
+            listener.gameStarted(this.player1, this.player2);
+        }
+
+        boolean gameRunning = true;
+        while (gameRunning && this.shotCount < maxShots) {
+            gameRunning = this.playMove();
+        }
+        if (gameRunning) {
+            // Stopped : the hits received by a player are the squares hit by its opponent
+            this.current = this.player2.getAllHitNumber() <= this.player1.getAllHitNumber() ? this.player1 : this.player2;
+        }
+
+        // The current player is the one whose fleet has been sunk
+        this.changeCurrent();
+
+        for (GameListener listener : this.listeners) {
+            listener.gameEnded(this.current, this.shotCount);
+        }
+        return this.current;
+    }
+
+    /**
+     * Let the current player shoot, send him the result and give the hand to his opponent.
+     *
+     * @return true if the game is not over
+     */
+    private boolean playMove() {
+        Player shooter = this.current;
+        long start = this.listeners.isEmpty() ? 0 : System.nanoTime();
+
+        this.lastShot = this.readShot(this.current);
+        this.shotResult = this.analyzeShot(this.lastShot);
+        this.current.sendLastShotResult(this.shotResult, this.lastShot);
+        this.shotCount++;
+        this.changeCurrent();
+
+        if (!this.listeners.isEmpty()) {
+            long nanos = System.nanoTime() - start;
+            for (GameListener listener : this.listeners) {
+                listener.movePlayed(shooter, this.lastShot, this.shotResult, nanos);
             }
         }
+        return !this.allSunk(this.current);
+    }
+
+    /**
+     * Gets the number of shots fired by both players during the last game played with {@link #play()}.
+     *
+     * @return the shot count
+     */
+    public int getShotCount() {
+        return this.shotCount;
+    }
+
+    /**
+     * Gets the first player, who shoots first in the games played with {@link #play()}.
+     *
+     * @return the first player
+     */
+    public Player getPlayer1() {
+        return this.player1;
     }
 
     /**
@@ -0,0 +1,38 @@
+package battle.game;
+
+import battle.game.players.Player;
+
+/**
+ * The interface of an observer of the games played by a {@link Game}, either headless with {@link Game#play()} or in the AA mode of {@link Game#start()}.
+ * Every method does nothing by default, so a listener only overrides what it needs.
+ */
+public interface GameListener {
+    /**
+     * Called when a game starts, once the ships of both players are placed
+     *
+     * @param player1 the first player, shooting first
+     * @param player2 the second player
+     */
+    default void gameStarted(Player player1, Player player2) {
+    }
+
+    /**
+     * Called after each move, once the shooter knows the result of the shot
+     *
+     * @param shooter    the player who shot
+     * @param shot       the shot position
+     * @param shotResult the result of the shot
+     * @param nanos      the time taken by the move (choosing the shot, analysing it and learning from it)
+     */
+    default void movePlayed(Player shooter, int[] shot, ShotResult shotResult, long nanos) {
+    }
+
+    /**
+     * Called when a game is over
+     *
+     * @param winner    the winner of the game
+     * @param shotCount the number of shots fired by both players
+     */
+    default void gameEnded(Player winner, int shotCount) {
+    }
+}
@@ -0,0 +1,95 @@
+package battle.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * The source of every random decision of the game (ships placement, random shots, weights initialization...).
+ * A source created with a seed always gives the same sequence of values, so a (seed, configuration) pair
+ * replays exactly the same games.
+ * <p>
+ * A source is not thread-safe : each player (or thread) should get its own source with {@link #split()}.
+ */
+public final class RandomSource {
+    /**
+     * The seed of the source
+     */
+    private final long seed;
+    /**
+     * The generator
+     */
+    private final SplittableRandom random;
+
+    /**
+     * The constructor of the class RandomSource
+     *
+     * @param seed the seed
+     */
+    public RandomSource(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Create a source with an unpredictable seed, for when the games don't need to be replayed
+     *
+     * @return the random source
+     */
+    public static RandomSource withRandomSeed() {
+        return new RandomSource(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create a new independent source, whose seed is drawn from this one
+     *
+     * @return the new source
+     */
+    public RandomSource split() {
+        return new RandomSource(this.random.nextLong());
+    }
+
+    /**
+     * Get a number between 0 (inclusive) and bound (exclusive)
+     *
+     * @param bound the bound
+     * @return the number
+     */
+    public int nextInt(int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Get a number between 0 (inclusive) and 1 (exclusive)
+     *
+     * @return the number
+     */
+    public double nextDouble() {
+        return this.random.nextDouble();
+    }
+
+    /**
+     * Get a random boolean
+     *
+     * @return the boolean
+     */
+    public boolean nextBoolean() {
+        return this.random.nextBoolean();
+    }
+
+    /**
+     * Get a random long, e.g. to seed something else
+     *
+     * @return the long
+     */
+    public long nextLong() {
+        return this.random.nextLong();
+    }
+
+    /**
+     * Gets the seed of the source.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+}
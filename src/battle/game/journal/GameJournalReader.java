@@ -0,0 +1,178 @@
+package battle.game.journal;
+
+import battle.game.ShotResult;
+import battle.game.ships.Direction;
+import battle.game.ships.Ship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read the games of a journal written by {@link GameJournalWriter}, file after file, in the order they were played.
+ * Each file is memory-mapped, so the games are decoded straight from the page cache at disk speed.
+ * A game cut at the end of a file (the program being stopped while it was written) is skipped.
+ */
+public class GameJournalReader implements Closeable {
+    /**
+     * The files of the journal
+     */
+    private final List<Path> files;
+    /**
+     * The current file, null before the first and after the last
+     */
+    private ByteBuffer buffer;
+    /**
+     * The number of bytes of a cell in the current file
+     */
+    private int cellBytes;
+    /**
+     * The height of the board of the current file
+     */
+    private int height;
+    /**
+     * The index of the next file to open
+     */
+    private int nextFile;
+    /**
+     * The width of the board of the current file
+     */
+    private int width;
+
+    /**
+     * Instantiates a new Game journal reader.
+     *
+     * @param directory the directory of the journal
+     * @throws IOException if the directory can't be read
+     */
+    public GameJournalReader(Path directory) throws IOException {
+        // Check parameters
+        if (directory == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+        this.files = JournalFormat.files(directory);
+    }
+
+    /**
+     * Read the next game
+     *
+     * @return the game, or null when all the games have been read
+     * @throws IOException if a file can't be read or is not a journal
+     */
+    public GameRecord next() throws IOException {
+        while (true) {
+            if (this.buffer == null) {
+                if (this.nextFile == this.files.size()) {
+                    return null;
+                }
+                this.openFile(this.files.get(this.nextFile++));
+            }
+
+            if (this.buffer.remaining() < 4) {
+                this.close();
+                continue;
+            }
+
+            int length = this.buffer.getInt();
+            if (length <= 0) {
+                throw new IOException("Corrupted journal : record of " + length + " bytes");
+            } else if (length > this.buffer.remaining()) {
+                // The last record of a file interrupted while it was written
+                this.close();
+                continue;
+            }
+
+            int end = this.buffer.position() + length;
+            GameRecord record = this.readRecord();
+            if (this.buffer.position() != end) {
+                throw new IOException("Corrupted journal : record of " + length + " bytes, " + (this.buffer.position() - end + length) + " read");
+            }
+            return record;
+        }
+    }
+
+    /**
+     * Read a record, after its length
+     *
+     * @return the game
+     */
+    private GameRecord readRecord() {
+        long seed = this.buffer.getLong();
+        int number = this.buffer.getInt();
+        int winner = this.buffer.get();
+        int firstShooter = this.buffer.get();
+
+        List<List<GameRecord.Placement>> placements = new ArrayList<>(2);
+        for (int player = 0; player < 2; player++) {
+            int shipCount = Byte.toUnsignedInt(this.buffer.get());
+            List<GameRecord.Placement> fleet = new ArrayList<>(shipCount);
+            for (int i = 0; i < shipCount; i++) {
+                int size = Byte.toUnsignedInt(this.buffer.get());
+                size = size == 0 ? Ship.MAX_SIZE : size;
+                Direction direction = this.buffer.get() == 1 ? Direction.VERTICAL : Direction.HORIZONTAL;
+                fleet.add(new GameRecord.Placement(size, direction, this.readCell()));
+            }
+            placements.add(fleet);
+        }
+
+        int shotCount = this.buffer.getInt();
+        int[] shotCells = new int[shotCount];
+        ShotResult[] shotResults = new ShotResult[shotCount];
+        ShotResult[] results = ShotResult.values();
+        for (int i = 0; i < shotCount; i++) {
+            shotCells[i] = this.readCell();
+            shotResults[i] = results[Byte.toUnsignedInt(this.buffer.get())];
+        }
+
+        return new GameRecord(seed, number, this.width, this.height, winner, firstShooter, placements, shotCells, shotResults);
+    }
+
+    /**
+     * Read a cell
+     *
+     * @return the cell
+     */
+    private int readCell() {
+        return this.cellBytes == 1 ? Byte.toUnsignedInt(this.buffer.get()) : Short.toUnsignedInt(this.buffer.getShort());
+    }
+
+    /**
+     * Map a file and read its header
+     *
+     * @param file the file
+     * @throws IOException if the file can't be read or is not a journal
+     */
+    private void openFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (this.buffer.remaining() < JournalFormat.HEADER_BYTES || this.buffer.getInt() != JournalFormat.MAGIC) {
+            this.close();
+            throw new IOException(file + " is not a game journal");
+        }
+
+        short version = this.buffer.getShort();
+        if (version != JournalFormat.VERSION) {
+            this.close();
+            throw new IOException(file + " is a game journal of version " + version + ", expected " + JournalFormat.VERSION);
+        }
+
+        this.width = Short.toUnsignedInt(this.buffer.getShort());
+        this.height = Short.toUnsignedInt(this.buffer.getShort());
+        this.cellBytes = JournalFormat.cellBytes(this.width, this.height);
+    }
+
+    /**
+     * Release the current file (the mapping itself is released by the garbage collector)
+     */
+    @Override
+    public void close() {
+        this.buffer = null;
+    }
+}
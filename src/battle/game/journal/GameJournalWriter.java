@@ -0,0 +1,341 @@
+package battle.game.journal;
+
+import battle.game.GameListener;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.ships.Direction;
+import battle.game.ships.Ship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * An append-only journal of the games played, listening to a {@link battle.game.Game}.
+ * Each game is encoded in a few bytes per shot (see {@link JournalFormat}) into a reusable record buffer,
+ * the records are batched in a large direct buffer written to a file channel when full, and a new file is
+ * started when the current one exceeds a maximum size. Nothing is allocated per game or per move.
+ * <p>
+ * The journal must be closed to write the last batch. It listens to a single game, but can be flushed
+ * or closed from another thread.
+ */
+public class GameJournalWriter implements GameListener, Closeable {
+    /**
+     * The default size of a batch
+     */
+    public static final int DEFAULT_BATCH_BYTES = 1 << 20;
+    /**
+     * The default maximum size of a file
+     */
+    public static final long DEFAULT_MAX_FILE_BYTES = 256L << 20;
+    /**
+     * The position of the first shooter in a record
+     */
+    private static final int FIRST_SHOOTER_POSITION = 17;
+    /**
+     * The position of the winner in a record
+     */
+    private static final int WINNER_POSITION = 16;
+    /**
+     * The batch of records not written yet
+     */
+    private final ByteBuffer batch;
+    /**
+     * The number of bytes of a cell
+     */
+    private final int cellBytes;
+    /**
+     * The directory of the journal
+     */
+    private final Path directory;
+    /**
+     * The height of the board
+     */
+    private final int height;
+    /**
+     * The maximum size of a file
+     */
+    private final long maxFileBytes;
+    /**
+     * The seed written in every record
+     */
+    private final long seed;
+    /**
+     * The width of the board
+     */
+    private final int width;
+    /**
+     * The file being written
+     */
+    private FileChannel channel;
+    /**
+     * The index of the file being written
+     */
+    private int fileIndex;
+    /**
+     * The bytes of the file being written, including the batch
+     */
+    private long fileBytes;
+    /**
+     * The first player of the game being recorded
+     */
+    private Player firstPlayer;
+    /**
+     * The number of the next game
+     */
+    private int number;
+    /**
+     * The record of the game being played
+     */
+    private ByteBuffer record;
+    /**
+     * The position of the shot count in the record
+     */
+    private int shotCountPosition;
+    /**
+     * The number of shots of the game being played
+     */
+    private int shotCount;
+
+    /**
+     * Instantiates a new Game journal writer with the default batch and file sizes.
+     *
+     * @param directory the directory of the journal, created if needed
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param seed      the seed of the games, written in every record
+     * @throws IOException if the journal can't be opened
+     */
+    public GameJournalWriter(Path directory, int width, int height, long seed) throws IOException {
+        this(directory, width, height, seed, GameJournalWriter.DEFAULT_BATCH_BYTES, GameJournalWriter.DEFAULT_MAX_FILE_BYTES);
+    }
+
+    /**
+     * Instantiates a new Game journal writer. The files already in the directory are kept,
+     * the new games go to a new file.
+     *
+     * @param directory    the directory of the journal, created if needed
+     * @param width        the width of the board
+     * @param height       the height of the board
+     * @param seed         the seed of the games, written in every record
+     * @param batchBytes   the size of a batch
+     * @param maxFileBytes the size after which a new file is started
+     * @throws IOException if the journal can't be opened
+     */
+    public GameJournalWriter(Path directory, int width, int height, long seed, int batchBytes, long maxFileBytes) throws IOException {
+        // Check parameters
+        if (directory == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (width <= 0 || width > 0xFFFF || height <= 0 || height > 0xFFFF || width * height > 0x10000) {
+            throw new IllegalArgumentException("The board should have between 1 and 65536 squares.");
+        } else if (batchBytes < 1024) {
+            throw new IllegalArgumentException("The batchBytes parameter should be a number greater than 1023.");
+        } else if (maxFileBytes <= JournalFormat.HEADER_BYTES) {
+            throw new IllegalArgumentException("The maxFileBytes parameter should be a number greater than " + JournalFormat.HEADER_BYTES + ".");
+        }
+
+        this.directory = directory;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.maxFileBytes = maxFileBytes;
+        this.cellBytes = JournalFormat.cellBytes(width, height);
+        this.batch = ByteBuffer.allocateDirect(batchBytes);
+        this.record = ByteBuffer.allocate(1024);
+
+        Files.createDirectories(directory);
+        List<Path> files = JournalFormat.files(directory);
+        this.fileIndex = files.size();
+        this.openFile();
+    }
+
+    /**
+     * Start the record of a game with the placement of both fleets
+     *
+     * @param player1 the first player
+     * @param player2 the second player
+     */
+    @Override
+    public void gameStarted(Player player1, Player player2) {
+        this.firstPlayer = player1;
+        this.shotCount = 0;
+
+        this.record.clear();
+        this.record.putInt(0);                     // length, known at the end
+        this.record.putLong(this.seed);
+        this.record.putInt(this.number);
+        this.record.put((byte) 0);                 // winner, known at the end
+        this.record.put((byte) 0);                 // first shooter, known at the first move
+        this.putFleet(player1.getFleet());
+        this.putFleet(player2.getFleet());
+        this.shotCountPosition = this.record.position();
+        this.record.putInt(0);                     // shot count, known at the end
+    }
+
+    /**
+     * Add a shot to the record
+     *
+     * @param shooter    the player who shot
+     * @param shot       the shot position
+     * @param shotResult the result of the shot
+     * @param nanos      the time taken by the move
+     */
+    @Override
+    public void movePlayed(Player shooter, int[] shot, ShotResult shotResult, long nanos) {
+        if (this.shotCount == 0) {
+            this.record.put(GameJournalWriter.FIRST_SHOOTER_POSITION, (byte) (shooter == this.firstPlayer ? 0 : 1));
+        }
+        this.ensureRecordCapacity(this.cellBytes + 1);
+        this.putCell(shot[0], shot[1]);
+        this.record.put((byte) shotResult.ordinal());
+        this.shotCount++;
+    }
+
+    /**
+     * End the record of the game and add it to the batch
+     *
+     * @param winner    the winner of the game
+     * @param shotCount the number of shots fired by both players
+     */
+    @Override
+    public synchronized void gameEnded(Player winner, int shotCount) {
+        this.record.put(GameJournalWriter.WINNER_POSITION, (byte) (winner == this.firstPlayer ? 0 : 1));
+        this.record.putInt(this.shotCountPosition, this.shotCount);
+        this.record.putInt(0, this.record.position() - 4);
+        this.record.flip();
+        this.number++;
+
+        try {
+            if (this.fileBytes + this.record.remaining() > this.maxFileBytes && this.fileBytes > JournalFormat.HEADER_BYTES) {
+                this.rotate();
+            }
+            if (this.record.remaining() > this.batch.remaining()) {
+                this.flush();
+            }
+            this.fileBytes += this.record.remaining();
+            if (this.record.remaining() > this.batch.capacity()) {
+                while (this.record.hasRemaining()) {
+                    this.channel.write(this.record);
+                }
+            } else {
+                this.batch.put(this.record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write the game journal", e);
+        }
+    }
+
+    /**
+     * Write the batch to the file
+     *
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void flush() throws IOException {
+        this.batch.flip();
+        while (this.batch.hasRemaining()) {
+            this.channel.write(this.batch);
+        }
+        this.batch.clear();
+    }
+
+    /**
+     * Write the last batch and close the file
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.flush();
+        this.channel.close();
+    }
+
+    /**
+     * Gets the number of games recorded.
+     *
+     * @return the number of games
+     */
+    public int getGameCount() {
+        return this.number;
+    }
+
+    /**
+     * Close the file being written and start the next one
+     *
+     * @throws IOException if the files can't be written
+     */
+    private void rotate() throws IOException {
+        this.close();
+        this.fileIndex++;
+        this.openFile();
+    }
+
+    /**
+     * Open the file of the current index and write its header into the batch
+     *
+     * @throws IOException if the file can't be opened
+     */
+    private void openFile() throws IOException {
+        this.channel = FileChannel.open(this.directory.resolve(JournalFormat.fileName(this.fileIndex)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.batch.putInt(JournalFormat.MAGIC);
+        this.batch.putShort(JournalFormat.VERSION);
+        this.batch.putShort((short) this.width);
+        this.batch.putShort((short) this.height);
+        this.fileBytes = JournalFormat.HEADER_BYTES;
+    }
+
+    /**
+     * Add the placement of a fleet to the record
+     *
+     * @param fleet the fleet
+     */
+    private void putFleet(List<Ship> fleet) {
+        if (fleet.size() > 0xFF) {
+            throw new IllegalStateException("A journal can't hold a fleet of more than 255 ships.");
+        }
+
+        this.ensureRecordCapacity(1 + fleet.size() * (2 + this.cellBytes));
+        this.record.put((byte) fleet.size());
+        for (Ship ship : fleet) {
+            // A ship of 256 squares is written 0
+            this.record.put((byte) ship.getSize());
+            this.record.put((byte) (ship.getDirection() == Direction.VERTICAL ? 1 : 0));
+            this.putCell(ship.getLineOrigin(), ship.getColumnOrigin());
+        }
+    }
+
+    /**
+     * Add a cell to the record
+     *
+     * @param line   the line
+     * @param column the column
+     */
+    private void putCell(int line, int column) {
+        int cell = line * this.height + column;
+        if (this.cellBytes == 1) {
+            this.record.put((byte) cell);
+        } else {
+            this.record.putShort((short) cell);
+        }
+    }
+
+    /**
+     * Make sure the record can hold some more bytes, by growing it if needed
+     *
+     * @param bytes the number of bytes to add
+     */
+    private void ensureRecordCapacity(int bytes) {
+        if (this.record.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(this.record.capacity() * 2, this.record.position() + bytes));
+            this.record.flip();
+            larger.put(this.record);
+            this.record = larger;
+        }
+    }
+}
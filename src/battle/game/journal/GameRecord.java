@@ -0,0 +1,229 @@
+package battle.game.journal;
+
+import battle.game.ShotResult;
+import battle.game.ships.Direction;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A game read from a journal : the placement of the fleets and every shot with its result.
+ * The players are numbered 0 (the first player of the game) and 1, and a square is identified
+ * by its cell, i.e. line * height + column.
+ */
+public class GameRecord {
+    /**
+     * The height of the board
+     */
+    private final int height;
+    /**
+     * The number of the game in its journal
+     */
+    private final int number;
+    /**
+     * The placements of the fleet of each player
+     */
+    private final List<List<Placement>> placements;
+    /**
+     * The seed of the journal
+     */
+    private final long seed;
+    /**
+     * The cell of each shot
+     */
+    private final int[] shotCells;
+    /**
+     * The result of each shot
+     */
+    private final ShotResult[] shotResults;
+    /**
+     * The width of the board
+     */
+    private final int width;
+    /**
+     * The player who shot first
+     */
+    private final int firstShooter;
+    /**
+     * The player who won
+     */
+    private final int winner;
+
+    /**
+     * Instantiates a new Game record.
+     *
+     * @param seed         the seed of the journal
+     * @param number       the number of the game in its journal
+     * @param width        the width of the board
+     * @param height       the height of the board
+     * @param winner       the player who won
+     * @param firstShooter the player who shot first
+     * @param placements   the placements of the fleet of each player
+     * @param shotCells    the cell of each shot
+     * @param shotResults  the result of each shot
+     */
+    GameRecord(long seed, int number, int width, int height, int winner, int firstShooter,
+               List<List<Placement>> placements, int[] shotCells, ShotResult[] shotResults) {
+        this.seed = seed;
+        this.number = number;
+        this.width = width;
+        this.height = height;
+        this.winner = winner;
+        this.firstShooter = firstShooter;
+        this.placements = placements;
+        this.shotCells = shotCells;
+        this.shotResults = shotResults;
+    }
+
+    /**
+     * Gets the seed of the journal.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the number of the game in its journal.
+     *
+     * @return the number
+     */
+    public int getNumber() {
+        return this.number;
+    }
+
+    /**
+     * Gets the width of the board.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the board.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the player who won.
+     *
+     * @return 0 or 1
+     */
+    public int getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * Gets the placements of the fleet of a player.
+     *
+     * @param player 0 or 1
+     * @return the placements
+     */
+    public List<Placement> getPlacements(int player) {
+        return Collections.unmodifiableList(this.placements.get(player));
+    }
+
+    /**
+     * Gets the number of shots fired by both players.
+     *
+     * @return the shot count
+     */
+    public int getShotCount() {
+        return this.shotCells.length;
+    }
+
+    /**
+     * Gets the player who fired a shot, the players shooting in turn.
+     *
+     * @param shot the index of the shot
+     * @return 0 or 1
+     */
+    public int getShooter(int shot) {
+        return (this.firstShooter + shot) % 2;
+    }
+
+    /**
+     * Gets the cell of a shot.
+     *
+     * @param shot the index of the shot
+     * @return the cell, line * height + column
+     */
+    public int getShotCell(int shot) {
+        return this.shotCells[shot];
+    }
+
+    /**
+     * Gets the result of a shot.
+     *
+     * @param shot the index of the shot
+     * @return the result
+     */
+    public ShotResult getShotResult(int shot) {
+        return this.shotResults[shot];
+    }
+
+    /**
+     * The position of a ship.
+     */
+    public static final class Placement {
+        /**
+         * The cell of the origin of the ship
+         */
+        private final int cell;
+        /**
+         * The direction of the ship
+         */
+        private final Direction direction;
+        /**
+         * The size of the ship
+         */
+        private final int size;
+
+        /**
+         * Instantiates a new Placement.
+         *
+         * @param size      the size of the ship
+         * @param direction the direction of the ship
+         * @param cell      the cell of the origin of the ship
+         */
+        Placement(int size, Direction direction, int cell) {
+            this.size = size;
+            this.direction = direction;
+            this.cell = cell;
+        }
+
+        /**
+         * Gets the cell of the origin of the ship.
+         *
+         * @return the cell, line * height + column
+         */
+        public int getCell() {
+            return this.cell;
+        }
+
+        /**
+         * Gets the direction of the ship.
+         *
+         * @return the direction
+         */
+        public Direction getDirection() {
+            return this.direction;
+        }
+
+        /**
+         * Gets the size of the ship.
+         *
+         * @return the size
+         */
+        public int getSize() {
+            return this.size;
+        }
+    }
+}
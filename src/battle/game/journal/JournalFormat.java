@@ -0,0 +1,95 @@
+package battle.game.journal;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The binary format of the journal files (big endian).
+ * <p>
+ * A file starts with a header : the magic number "BSJ1" (int), the version (short), the width and the height
+ * of the board (unsigned shorts). Then come the games, each one being :
+ * <ul>
+ *     <li>the length of the rest of the record (int)</li>
+ *     <li>the seed of the journal (long) and the number of the game (int)</li>
+ *     <li>the winner and the first shooter (a byte each, 0 or 1)</li>
+ *     <li>for each of the two players, the number of ships (byte, at most 255), then for each ship
+ *     its size (byte, 0 standing for 256), its direction (byte, 0 horizontal, 1 vertical) and its origin cell</li>
+ *     <li>the number of shots (int), then for each shot its cell and the ordinal of its ShotResult (byte)</li>
+ * </ul>
+ * A cell is line * height + column, on one byte when the board has at most 256 squares, on two bytes otherwise.
+ */
+final class JournalFormat {
+    /**
+     * The extension of the journal files
+     */
+    static final String EXTENSION = ".bsj";
+    /**
+     * The size of the header of a file
+     */
+    static final int HEADER_BYTES = 10;
+    /**
+     * The magic number starting a file, "BSJ1"
+     */
+    static final int MAGIC = 0x42534A31;
+    /**
+     * The prefix of the journal files
+     */
+    static final String PREFIX = "journal-";
+    /**
+     * The version of the format
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private JournalFormat() {
+
+    }
+
+    /**
+     * Get the number of bytes of a cell
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @return 1 or 2
+     */
+    static int cellBytes(int width, int height) {
+        return width * height <= 256 ? 1 : 2;
+    }
+
+    /**
+     * Get the name of a journal file
+     *
+     * @param index the index of the file in the journal
+     * @return the name
+     */
+    static String fileName(int index) {
+        return String.format("%s%05d%s", JournalFormat.PREFIX, index, JournalFormat.EXTENSION);
+    }
+
+    /**
+     * List the files of a journal, in the order they were written
+     *
+     * @param directory the directory of the journal
+     * @return the files
+     * @throws IOException if the directory can't be read
+     */
+    static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, JournalFormat.PREFIX + "*" + JournalFormat.EXTENSION)) {
+                for (Path file : stream) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+}
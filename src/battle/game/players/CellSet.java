@@ -0,0 +1,136 @@
+package battle.game.players;
+
+import java.util.Arrays;
+
+/**
+ * A set of cells of a grid (a cell being line * height + column), kept in flat arrays so that removing a cell,
+ * picking the i-th cell and restoring all the initial cells take a constant time whatever the size of the grid.
+ * <p>
+ * The cells of the set are the first ones of a permutation of the initial cells : a removed cell is swapped
+ * with the last cell of the set, and the set shrinks by one.
+ */
+public class CellSet {
+    /**
+     * The initial cells, those of the set first
+     */
+    private final int[] cells;
+    /**
+     * The index of each cell of the grid in cells, -1 for the cells which are not initial
+     */
+    private final int[] indexes;
+    /**
+     * The number of cells of the set
+     */
+    private int size;
+
+    /**
+     * Instantiates a new Cell set of all the cells of a grid.
+     *
+     * @param capacity the number of cells of the grid
+     */
+    public CellSet(int capacity) {
+        this(capacity, CellSet.range(capacity));
+    }
+
+    /**
+     * Instantiates a new Cell set of some cells of a grid.
+     *
+     * @param capacity the number of cells of the grid
+     * @param cells    the initial cells, all different
+     */
+    public CellSet(int capacity, int[] cells) {
+        // Check parameters
+        if (cells == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity parameter should be a number greater than 0.");
+        }
+
+        this.cells = cells.clone();
+        this.indexes = new int[capacity];
+        Arrays.fill(this.indexes, -1);
+        for (int i = 0; i < this.cells.length; i++) {
+            if (this.cells[i] < 0 || this.cells[i] >= capacity || this.indexes[this.cells[i]] != -1) {
+                throw new IllegalArgumentException("The cells parameter should hold different cells of the grid.");
+            }
+            this.indexes[this.cells[i]] = i;
+        }
+        this.size = this.cells.length;
+    }
+
+    /**
+     * Get the cells from 0 to a number
+     *
+     * @param capacity the number of cells
+     * @return the cells
+     */
+    private static int[] range(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity parameter should be a number greater than 0.");
+        }
+
+        int[] cells = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            cells[i] = i;
+        }
+        return cells;
+    }
+
+    /**
+     * Check if a cell is in the set
+     *
+     * @param cell the cell
+     * @return true if the cell is in the set
+     */
+    public boolean contains(int cell) {
+        int index = this.indexes[cell];
+        return index >= 0 && index < this.size;
+    }
+
+    /**
+     * Get a cell of the set, the order of the cells changing with the removals
+     *
+     * @param index the index of the cell, between 0 and the size of the set excluded
+     * @return the cell
+     */
+    public int get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of the " + this.size + " cells of the set.");
+        }
+
+        return this.cells[index];
+    }
+
+    /**
+     * Remove a cell from the set, nothing being done if it is not in it
+     *
+     * @param cell the cell
+     */
+    public void remove(int cell) {
+        if (this.contains(cell)) {
+            int index = this.indexes[cell];
+            int last = this.cells[this.size - 1];
+            this.cells[index] = last;
+            this.indexes[last] = index;
+            this.cells[this.size - 1] = cell;
+            this.indexes[cell] = this.size - 1;
+            this.size--;
+        }
+    }
+
+    /**
+     * Put back all the initial cells in the set
+     */
+    public void reset() {
+        this.size = this.cells.length;
+    }
+
+    /**
+     * Gets the number of cells of the set.
+     *
+     * @return the number of cells
+     */
+    public int size() {
+        return this.size;
+    }
+}
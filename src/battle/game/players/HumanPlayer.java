@@ -1,5 +1,8 @@
 package battle.game.players;
 
+import battle.config.ConfigException;
+import battle.config.ConfigParser;
+import battle.config.ShipPlacement;
 import battle.game.ships.Direction;
 import battle.game.ships.Ship;
 import battle.text.AppText;
@@ -9,22 +12,18 @@ import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileFilter;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.function.Predicate;
 
 /**
  * A human player extending from the abstract class Player
  */
 public class HumanPlayer extends Player {
-    /**
-     * The line delimiter for the configuration file
-     */
-    private static final String DELIMITER = "\\s*:\\s*";
     /**
      * A JFrame used to display to the human player
      */
@@ -129,117 +128,110 @@ public class HumanPlayer extends Player {
         }
 
         // Load the file
-        try (Scanner scanner = new Scanner(new File(path)).useDelimiter(HumanPlayer.DELIMITER)) {
-            scanner.useDelimiter(HumanPlayer.DELIMITER);
+        List<ShipPlacement> placements = null;
+        try {
+            placements = ConfigParser.readPlacements(Path.of(path));
+        } catch (IOException e) {
+            System.err.println("No file found");
+            System.exit(1);
+        } catch (ConfigException e) {
+            System.err.println(e.getMessage() + ". Check this configuration example : \n" +
+                    "\tporte-avion : 0:4:HORIZONTAL:\n" +
+                    "\tfregate : 1:0:VERTICAL:\n" +
+                    "\tfregate : 2:2:HORIZONTAL:\n" +
+                    "\tpatrouilleur : 6:3:HORIZONTAL:\n" +
+                    "\tsous-marin : 7:7:VERTICAL:\n");
+            System.exit(1);
+        }
 
-            Square[][] grid = new Square[this.myGrid.length][this.myGrid[0].length];
+        Square[][] grid = new Square[this.myGrid.length][this.myGrid[0].length];
 
-            // Check and insert ships
-            HashMap<String, Integer> shipCompletion = new HashMap<>();
-            for (Ship ship : this.fleet) {
-                shipCompletion.put(ship.getName(), 0);
-            }
-            while (scanner.hasNext()) {
-                String shipName = scanner.next();
-                int shipLine = scanner.nextInt();
-                int shipColumn = scanner.nextInt();
-                String testOrientation = scanner.next();
-
-                // Check ship direction
-                if (Direction.contains(testOrientation)) {
-                    Direction direction = Direction.valueOf(testOrientation);
-
-                    // Check ship name
-                    if (this.fleetContainsShipName(shipName)) {
-                        // Check completion of ships requirements of the battle configuration file
-                        if (shipCompletion.get(shipName) < this.getShipSizeByName(shipName)) {
-
-                            int shipSize = this.getShipSizeByName(shipName);
-
-                            if (direction == Direction.HORIZONTAL) {
-                                // Check ship line position
-                                if (shipLine >= 0 && shipLine <= this.myGrid.length) {
-                                    // Check ship column position
-                                    if (shipColumn >= 0 && shipColumn + shipSize <= this.myGrid[0].length) {
-                                        Square[] squares = new Square[shipSize];
-                                        for (int i = shipColumn; i < shipColumn + shipSize; i++) {
-                                            squares[i - shipColumn] = new Square(shipLine, i);
-                                        }
-                                        // Last check on the ship (about free space around), insert it if valid
-                                        this.checkPositionAndInsertShipSquares(squares);
-                                        shipCompletion.replace(shipName, shipCompletion.get(shipName) + 1);
-                                        Ship ship = this.getNextShipToInitializeByName(shipName);
-                                        ship.setLineOrigin(shipLine);
-                                        ship.setColumnOrigin(shipColumn);
-                                        ship.setDirection(Direction.HORIZONTAL);
-                                    } else {
-                                        System.err.println("Ship column + ship size has to be bigger than 0 and inferior to grid length");
-                                        System.exit(1);
-                                    }
-                                } else {
-                                    System.err.println("Ship line has to be bigger than 0 and inferior to grid length");
-                                    System.exit(1);
+        // Check and insert ships
+        HashMap<String, Integer> shipCompletion = new HashMap<>();
+        for (Ship ship : this.fleet) {
+            shipCompletion.put(ship.getName(), 0);
+        }
+        for (ShipPlacement placement : placements) {
+            String shipName = placement.getName();
+            int shipLine = placement.getLine();
+            int shipColumn = placement.getColumn();
+            Direction direction = placement.getDirection();
+
+            // Check ship name
+            if (this.fleetContainsShipName(shipName)) {
+                // Check completion of ships requirements of the battle configuration file
+                if (shipCompletion.get(shipName) < this.getShipSizeByName(shipName)) {
+
+                    int shipSize = this.getShipSizeByName(shipName);
+
+                    if (direction == Direction.HORIZONTAL) {
+                        // Check ship line position
+                        if (shipLine >= 0 && shipLine <= this.myGrid.length) {
+                            // Check ship column position
+                            if (shipColumn >= 0 && shipColumn + shipSize <= this.myGrid[0].length) {
+                                Square[] squares = new Square[shipSize];
+                                for (int i = shipColumn; i < shipColumn + shipSize; i++) {
+                                    squares[i - shipColumn] = new Square(shipLine, i);
                                 }
-                            } else if (direction == Direction.VERTICAL) {
-                                // Check ship line position
-                                if (shipLine >= 0 && shipLine + shipSize <= this.myGrid.length) {
-                                    // Check ship column position
-                                    if (shipColumn >= 0 && shipColumn <= this.myGrid[0].length) {
-                                        Square[] squares = new Square[shipSize];
-                                        for (int i = shipLine; i < shipLine + shipSize; i++) {
-                                            squares[i - shipLine] = new Square(i, shipColumn);
-                                        }
-                                        // Last check on the ship (about free space around), insert it if valid
-                                        this.checkPositionAndInsertShipSquares(squares);
-                                        shipCompletion.replace(shipName, shipCompletion.get(shipName) + 1);
-                                        Ship ship = this.getNextShipToInitializeByName(shipName);
-                                        ship.setLineOrigin(shipLine);
-                                        ship.setColumnOrigin(shipColumn);
-                                        ship.setDirection(Direction.VERTICAL);
-                                    } else {
-                                        System.err.println("[" + shipName + "] Ship column has to be bigger than 0 and inferior to grid length");
-                                        System.exit(1);
-                                    }
-                                } else {
-                                    System.err.println("[" + shipName + "] Ship line + ship size has to be bigger than 0 and inferior to grid length");
-                                    System.exit(1);
+                                // Last check on the ship (about free space around), insert it if valid
+                                this.checkPositionAndInsertShipSquares(squares);
+                                shipCompletion.replace(shipName, shipCompletion.get(shipName) + 1);
+                                Ship ship = this.getNextShipToInitializeByName(shipName);
+                                ship.setLineOrigin(shipLine);
+                                ship.setColumnOrigin(shipColumn);
+                                ship.setDirection(Direction.HORIZONTAL);
+                            } else {
+                                System.err.println("Ship column + ship size has to be bigger than 0 and inferior to grid length");
+                                System.exit(1);
+                            }
+                        } else {
+                            System.err.println("Ship line has to be bigger than 0 and inferior to grid length");
+                            System.exit(1);
+                        }
+                    } else if (direction == Direction.VERTICAL) {
+                        // Check ship line position
+                        if (shipLine >= 0 && shipLine + shipSize <= this.myGrid.length) {
+                            // Check ship column position
+                            if (shipColumn >= 0 && shipColumn <= this.myGrid[0].length) {
+                                Square[] squares = new Square[shipSize];
+                                for (int i = shipLine; i < shipLine + shipSize; i++) {
+                                    squares[i - shipLine] = new Square(i, shipColumn);
                                 }
+                                // Last check on the ship (about free space around), insert it if valid
+                                this.checkPositionAndInsertShipSquares(squares);
+                                shipCompletion.replace(shipName, shipCompletion.get(shipName) + 1);
+                                Ship ship = this.getNextShipToInitializeByName(shipName);
+                                ship.setLineOrigin(shipLine);
+                                ship.setColumnOrigin(shipColumn);
+                                ship.setDirection(Direction.VERTICAL);
                             } else {
-                                System.err.println("[" + shipName + "] No valid direction specified");
+                                System.err.println("[" + shipName + "] Ship column has to be bigger than 0 and inferior to grid length");
                                 System.exit(1);
                             }
                         } else {
-                            System.err.println("[" + shipName + "] Too many ships of the same type, not valid regarding to battleship configuration file requirements");
+                            System.err.println("[" + shipName + "] Ship line + ship size has to be bigger than 0 and inferior to grid length");
                             System.exit(1);
                         }
                     } else {
-                        System.err.println("[" + shipName + "] this ship does not exist in battleship configuration file");
+                        System.err.println("[" + shipName + "] No valid direction specified");
                         System.exit(1);
                     }
                 } else {
-                    System.err.println("[" + shipName + "] No valid orientation specified");
+                    System.err.println("[" + shipName + "] Too many ships of the same type, not valid regarding to battleship configuration file requirements");
                     System.exit(1);
                 }
+            } else {
+                System.err.println("[" + shipName + "] this ship does not exist in battleship configuration file");
+                System.exit(1);
             }
+        }
 
-            for (Map.Entry<String, Integer> entry : shipCompletion.entrySet()) {
-                String shipKeyName = entry.getKey();
-                if (entry.getValue() != this.countOccurrenceShipNameInFleet(shipKeyName)) {
-                    System.err.println("Wrong number of occurrences for ship name : " + shipKeyName);
-                    System.exit(1);
-                }
+        for (Map.Entry<String, Integer> entry : shipCompletion.entrySet()) {
+            String shipKeyName = entry.getKey();
+            if (entry.getValue() != this.countOccurrenceShipNameInFleet(shipKeyName)) {
+                System.err.println("Wrong number of occurrences for ship name : " + shipKeyName);
+                System.exit(1);
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("No file found");
-            System.exit(1);
-        } catch (InputMismatchException e) {
-            System.err.println("The file is not valid. Check this configuration example : \n" +
-                    "\tporte-avion : 0:4:HORIZONTAL:\n" +
-                    "\tfregate : 1:0:VERTICAL:\n" +
-                    "\tfregate : 2:2:HORIZONTAL:\n" +
-                    "\tpatrouilleur : 6:3:HORIZONTAL:\n" +
-                    "\tsous-marin : 7:7:VERTICAL:\n");
-            System.exit(1);
         }
     }
 
@@ -1,18 +1,32 @@
 package battle.game.players;
 
 import battle.BattleShip;
+import battle.game.RandomSource;
 import battle.game.ShotResult;
+import battle.game.ships.Direction;
 import battle.game.ships.Ship;
 import battle.text.AppText;
+import battle.trace.AnalyzeShotEvent;
+import battle.trace.ShipPlacementEvent;
+import battle.trace.Tracing;
 import view.GridTableFrame;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * This abstract class contains everything common to all players.
  */
 public abstract class Player {
+    /**
+     * The number of placements of the whole fleet tried before rejecting it, see {@link #randomShipPlacement()}
+     */
+    private static final int FLEET_PLACEMENT_TRIES = 10;
+    /**
+     * The number of random positions tried for a ship before placing the fleet again, by square of the grid
+     */
+    private static final int SHIP_PLACEMENT_TRIES_BY_SQUARE = 20;
     /**
      * Number of players frames, this is used to not superpose them
      */
@@ -37,6 +51,10 @@ public abstract class Player {
      * The grid of the opponent of the player
      */
     protected Square[][] opponentGrid;
+    /**
+     * The source of the random decisions of the player
+     */
+    protected final RandomSource random;
     /**
      * The width of the player's grid
      */
@@ -45,10 +63,26 @@ public abstract class Player {
      * The view of my grid
      */
     private GridTableFrame myFrame;
+    /**
+     * The number of squares of my grid shot by the opponent
+     */
+    private int myShotCount;
+    /**
+     * The squares of my grid shot by the opponent (line * height + column), to reset them for the next game
+     */
+    private int[] myShots;
     /**
      * The view of the opponent's grid
      */
     private GridTableFrame opponentFrame;
+    /**
+     * The number of squares of the opponent's grid shot by the player
+     */
+    private int opponentShotCount;
+    /**
+     * The squares of the opponent's grid shot by the player (line * height + column), to reset them for the next game
+     */
+    private int[] opponentShots;
 
     /**
      * The constructor of the Player class, it copies the fleet passed as parameter and set others attributes.
@@ -59,16 +93,41 @@ public abstract class Player {
      * @param height The height of the player's grid
      */
     public Player(ArrayList<Ship> fleet, String name, int width, int height) {
+        this(fleet, name, width, height, RandomSource.withRandomSeed());
+    }
+
+    /**
+     * The constructor of the Player class, with the source of all the random decisions of the player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     * @param random the source of the random decisions of the player
+     */
+    public Player(ArrayList<Ship> fleet, String name, int width, int height, RandomSource random) {
         // Check parameters
-        if (fleet == null || name == null) {
+        if (fleet == null || name == null || random == null) {
             throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
         } else if (width < BattleShip.BOARD_MIN_WIDTH || width > BattleShip.BOARD_MAX_WIDTH) {
             throw new IllegalArgumentException("The width parameter should be a number between " + BattleShip.BOARD_MIN_WIDTH + " and " + BattleShip.BOARD_MAX_WIDTH + ".");
         } else if (height < BattleShip.BOARD_MIN_HEIGHT || height > BattleShip.BOARD_MAX_HEIGHT) {
             throw new IllegalArgumentException("The height parameter should be a number between " + BattleShip.BOARD_MIN_HEIGHT + " and " + BattleShip.BOARD_MAX_HEIGHT + ".");
         }
+        int fleetSquares = 0;
+        for (Ship ship : fleet) {
+            if (ship.getSize() > Math.max(width, height)) {
+                // The placement would never end
+                throw new IllegalArgumentException("The size of the ship " + ship.getName() + " should not be greater than the width or the height.");
+            }
+            fleetSquares += ship.getSize();
+        }
+        if (fleetSquares > width * height) {
+            throw new IllegalArgumentException("The ships of the fleet should not take more squares than the grid.");
+        }
 
         this.createCopy(fleet);
+        this.random = random;
         this.name = name;
         this.width = width;
         this.height = height;
@@ -133,6 +192,24 @@ public abstract class Player {
         }
     }
 
+    /**
+     * Reset the squares of a grid shot during the last game
+     *
+     * @param grid  the grid
+     * @param cells the squares shot (line * height + column)
+     * @param count the number of squares shot
+     */
+    private static void resetShots(Square[][] grid, int[] cells, int count) {
+        // Check parameters
+        if (grid == null || cells == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        for (int i = 0; i < count; i++) {
+            grid[cells[i] / grid[0].length][cells[i] % grid[0].length].reset();
+        }
+    }
+
     /**
      * Ask two positions to the player for where to shoot
      *
@@ -146,12 +223,16 @@ public abstract class Player {
     public abstract void shipPlacement();
 
     /**
-     * Initialize grids.
+     * Initialize grids. Only the squares of the ships and the squares shot during the last game are reset,
+     * so that the cost follows the ships and the shots rather than the size of the grids.
      */
     public void initializeGrids() {
-        Player.initializeGrid(this.myGrid);
-        this.shipPlacement();
-        Player.initializeGrid(this.opponentGrid);
+        this.removeShips();
+        Player.resetShots(this.myGrid, this.myShots, this.myShotCount);
+        this.myShotCount = 0;
+        this.placeShips();
+        Player.resetShots(this.opponentGrid, this.opponentShots, this.opponentShotCount);
+        this.opponentShotCount = 0;
     }
 
     /**
@@ -190,6 +271,7 @@ public abstract class Player {
             throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
         }
 
+        AnalyzeShotEvent event = Tracing.ENABLED ? Tracing.begin(new AnalyzeShotEvent()) : null;
         ShotResult shotResult = ShotResult.MISS;
 
         int line = shot[0];
@@ -205,11 +287,19 @@ public abstract class Player {
             }
         }
 
+        if (!this.myGrid[line][column].isHit()) {
+            this.myShots[this.myShotCount++] = line * this.myGrid[0].length + column;
+        }
         this.myGrid[line][column].setHit();
         if (this.myFrame != null) {
             this.myFrame.repaint();
         }
 
+        if (event != null) {
+            event.player = this.name;
+            event.result = shotResult.name();
+            event.commit();
+        }
         return shotResult;
     }
 
@@ -252,6 +342,9 @@ public abstract class Player {
 
         int line = shotPosition[0];
         int column = shotPosition[1];
+        if (!this.opponentGrid[line][column].isHit()) {
+            this.opponentShots[this.opponentShotCount++] = line * this.opponentGrid[0].length + column;
+        }
         this.opponentGrid[line][column].setHit();
         if (shotResult == ShotResult.HIT || shotResult == ShotResult.SUNK) {
             this.opponentGrid[line][column].setBusy();
@@ -310,8 +403,103 @@ public abstract class Player {
      */
     protected void initializeMyGrid() {
         this.myGrid = new Square[this.width][this.height];
+        this.myShots = new int[this.width * this.height];
+        this.myShotCount = 0;
         Player.initializeGrid(this.myGrid);
+        this.placeShips();
+    }
+
+    /**
+     * Place the ships with {@link #shipPlacement()}, traced when tracing is on
+     */
+    private void placeShips() {
+        ShipPlacementEvent event = Tracing.ENABLED ? Tracing.begin(new ShipPlacementEvent()) : null;
         this.shipPlacement();
+        if (event != null) {
+            event.player = this.name;
+            event.commit();
+        }
+    }
+
+    /**
+     * Free the squares of the ships placed on the grid of the player
+     */
+    private void removeShips() {
+        for (Ship ship : this.fleet) {
+            if (ship.isDirectionSet()) {
+                boolean horizontal = ship.getDirection() == Direction.HORIZONTAL;
+                for (int i = 0; i < ship.getSize(); i++) {
+                    this.myGrid[ship.getLineOrigin() + (horizontal ? 0 : i)][ship.getColumnOrigin() + (horizontal ? i : 0)].reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Place the ships of the fleet at random positions, not touching each other.
+     * When a ship finds no position after a number of tries proportional to the size of the grid, the ships
+     * already placed may be blocking it and the whole fleet is placed again. After a few such placements,
+     * the fleet is considered impossible to place on the grid instead of trying forever.
+     *
+     * @throws IllegalArgumentException if the fleet cannot be placed on the grid
+     */
+    protected void randomShipPlacement() {
+        int shipTries = Player.SHIP_PLACEMENT_TRIES_BY_SQUARE * this.width * this.height;
+        for (int fleetTry = 0; fleetTry < Player.FLEET_PLACEMENT_TRIES; fleetTry++) {
+            if (this.tryRandomShipPlacement(shipTries)) {
+                return;
+            }
+            this.removeShips();
+        }
+        throw new IllegalArgumentException("The fleet cannot be placed on a " + this.width + "x" + this.height + " grid.");
+    }
+
+    /**
+     * Try to place the ships of the fleet at random positions, not touching each other
+     *
+     * @param shipTries the number of random positions tried for each ship
+     * @return true if every ship was placed, false if a ship found no position
+     */
+    private boolean tryRandomShipPlacement(int shipTries) {
+        for (Ship ship : this.fleet) {
+            ship.resetHitNumber();
+            boolean shipAdded = false;
+
+            for (int tries = 0; !shipAdded && tries < shipTries; tries++) {
+                Direction direction;
+                int shipLine = this.random.nextInt(this.myGrid.length);
+                int shipColumn = this.random.nextInt(this.myGrid[0].length);
+                Square[] squares = new Square[ship.getSize()];
+                if (this.random.nextBoolean()) {
+                    direction = Direction.HORIZONTAL;
+                    for (int i = shipColumn; i < shipColumn + ship.getSize(); i++) {
+                        squares[i - shipColumn] = new Square(shipLine, i);
+                    }
+                } else {
+                    direction = Direction.VERTICAL;
+                    for (int i = shipLine; i < shipLine + ship.getSize(); i++) {
+                        squares[i - shipLine] = new Square(i, shipColumn);
+                    }
+                }
+
+                if (this.checkPosition(squares)) {
+                    // Insert squares of ship if allowed position is true
+                    for (Square square : squares) {
+                        this.myGrid[square.getLine()][square.getColumn()].setBusy();
+                    }
+                    ship.setLineOrigin(shipLine);
+                    ship.setColumnOrigin(shipColumn);
+                    ship.setDirection(direction);
+
+                    shipAdded = true;
+                }
+            }
+
+            if (!shipAdded) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -319,6 +507,8 @@ public abstract class Player {
      */
     protected void initializeOpponentGrid() {
         this.opponentGrid = new Square[this.width][this.height];
+        this.opponentShots = new int[this.width * this.height];
+        this.opponentShotCount = 0;
         Player.initializeGrid(this.opponentGrid);
     }
 
@@ -338,9 +528,9 @@ public abstract class Player {
 
         if (square.getLine() >= 0 && square.getLine() < this.myGrid.length) {
             if (square.getColumn() >= 0 && square.getColumn() < this.myGrid[0].length) {
-                // Check if the current and all squares around are free
+                // Check if the current and all squares around are free on the grid
 
-                ret = square.isFree();
+                ret = this.myGrid[square.getLine()][square.getColumn()].isFree();
 
                 if (ret) {
                     Square topSquare = this.getSquareOnGrid(square.getLine() - 1, square.getColumn());
@@ -467,6 +657,33 @@ public abstract class Player {
         return value;
     }
 
+    /**
+     * Gets the fleet of the player, with the position of each ship.
+     *
+     * @return the fleet, not modifiable
+     */
+    public List<Ship> getFleet() {
+        return Collections.unmodifiableList(this.fleet);
+    }
+
+    /**
+     * Gets the width of the board.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Gets the height of the board.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
     /**
      * Gets The name of the player.
      *
@@ -47,6 +47,14 @@ public class Square {
         this.free = false;
     }
 
+    /**
+     * Set free as true and hit as false, as a new square
+     */
+    public void reset() {
+        this.free = true;
+        this.hit = false;
+    }
+
     /**
      * Set hit as true
      */
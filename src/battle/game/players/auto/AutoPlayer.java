@@ -1,8 +1,9 @@
 package battle.game.players.auto;
 
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.CellSet;
 import battle.game.players.Player;
-import battle.game.players.Square;
-import battle.game.ships.Direction;
 import battle.game.ships.Ship;
 
 import java.util.ArrayList;
@@ -11,6 +12,11 @@ import java.util.ArrayList;
  * An auto player extending from the abstract class Player
  */
 public class AutoPlayer extends Player {
+    /**
+     * The squares of the opponent's grid not shot yet (line * height + column)
+     */
+    private final CellSet unshot;
+
     /**
      * The constructor of the AutoPlayer class, it copies the fleet passed as parameter and set others attributes.
      *
@@ -21,26 +27,58 @@ public class AutoPlayer extends Player {
      */
     public AutoPlayer(ArrayList<Ship> fleet, String name, int width, int height) {
         super(fleet, name, width, height);
+        this.unshot = new CellSet(width * height);
+    }
+
+    /**
+     * The constructor of the AutoPlayer class, with the source of all the random decisions of the player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     * @param random the source of the random decisions of the player
+     */
+    public AutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, RandomSource random) {
+        super(fleet, name, width, height, random);
+        this.unshot = new CellSet(width * height);
+    }
+
+    /**
+     * Initialize grids, and put back all the squares to shoot.
+     */
+    @Override
+    public void initializeGrids() {
+        super.initializeGrids();
+        this.unshot.reset();
     }
 
     /**
-     * Ask two positions to the player for where to shoot
+     * Ask two positions to the player for where to shoot : a random square not shot yet
      *
      * @return the two positions
+     * @throws IllegalStateException if every square of the opponent grid was already shot
      */
     @Override
     public int[] newShot() {
-        int line = 0;
-        int column = 0;
+        if (this.unshot.size() == 0) {
+            throw new IllegalStateException("Every square of the " + this.width + "x" + this.height + " opponent grid was already shot.");
+        }
 
-        boolean positionFound = false;
-        while (!positionFound) {
-            line = (int) (Math.random() * this.opponentGrid.length);
-            column = (int) (Math.random() * this.opponentGrid[0].length);
+        int cell = this.unshot.get(this.random.nextInt(this.unshot.size()));
+        return new int[]{cell / this.opponentGrid[0].length, cell % this.opponentGrid[0].length};
+    }
 
-            positionFound = !this.opponentGrid[line][column].isHit();
-        }
-        return new int[]{line, column};
+    /**
+     * Update the opponent grid using the result of the shot, and the squares left to shoot
+     *
+     * @param shotResult   the result of the shot
+     * @param shotPosition the position of the shot
+     */
+    @Override
+    public void sendLastShotResult(ShotResult shotResult, int[] shotPosition) {
+        super.sendLastShotResult(shotResult, shotPosition);
+        this.unshot.remove(shotPosition[0] * this.opponentGrid[0].length + shotPosition[1]);
     }
 
     /**
@@ -48,39 +86,6 @@ public class AutoPlayer extends Player {
      */
     @Override
     public void shipPlacement() {
-        for (Ship ship : this.fleet) {
-            ship.resetHitNumber();
-            boolean shipAdded = false;
-
-            while (!shipAdded) {
-                Direction direction;
-                int shipLine = (int) (Math.random() * this.myGrid.length);
-                int shipColumn = (int) (Math.random() * this.myGrid[0].length);
-                Square[] squares = new Square[ship.getSize()];
-                if (Math.random() > 0.5) {
-                    direction = Direction.HORIZONTAL;
-                    for (int i = shipColumn; i < shipColumn + ship.getSize(); i++) {
-                        squares[i - shipColumn] = new Square(shipLine, i);
-                    }
-                } else {
-                    direction = Direction.VERTICAL;
-                    for (int i = shipLine; i < shipLine + ship.getSize(); i++) {
-                        squares[i - shipLine] = new Square(i, shipColumn);
-                    }
-                }
-
-                if (this.checkPosition(squares)) {
-                    // Insert squares of ship if allowed position is true
-                    for (Square square : squares) {
-                        this.myGrid[square.getLine()][square.getColumn()].setBusy();
-                    }
-                    ship.setLineOrigin(shipLine);
-                    ship.setColumnOrigin(shipColumn);
-                    ship.setDirection(direction);
-
-                    shipAdded = true;
-                }
-            }
-        }
+        this.randomShipPlacement();
     }
 }
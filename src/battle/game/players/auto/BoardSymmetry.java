@@ -0,0 +1,184 @@
+package battle.game.players.auto;
+
+import battle.game.players.auto.neuralnet.math.Vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A symmetry of the board (a rotation or a reflection), as a permutation of the cells (cell = line * columns + column).
+ * A rectangular board has 4 symmetries (the identity, the half turn and the two reflections across the middle lines),
+ * a square board has 4 more (the quarter turns and the reflections across the diagonals).
+ * <p>
+ * The permutation tables are computed once, then applying a symmetry to a plane or to stacked planes
+ * (such as the hit and busy planes of the input of a network) is a single pass over the values.
+ */
+public final class BoardSymmetry {
+    /**
+     * The number of cells of the board
+     */
+    private final int cells;
+    /**
+     * The cell of the image of each cell
+     */
+    private final int[] image;
+    /**
+     * The name of the symmetry
+     */
+    private final String name;
+    /**
+     * The cell each cell is the image of
+     */
+    private final int[] preimage;
+
+    /**
+     * Instantiates a new Board symmetry.
+     *
+     * @param name  the name of the symmetry
+     * @param image the cell of the image of each cell
+     */
+    private BoardSymmetry(String name, int[] image) {
+        this.name = name;
+        this.image = image;
+        this.cells = image.length;
+        this.preimage = new int[this.cells];
+        for (int cell = 0; cell < this.cells; cell++) {
+            this.preimage[image[cell]] = cell;
+        }
+    }
+
+    /**
+     * Get the symmetries of a board, the identity first
+     *
+     * @param lines   the number of lines of the board
+     * @param columns the number of columns of the board
+     * @return the symmetries (4 for a rectangular board, 8 for a square one)
+     */
+    public static List<BoardSymmetry> group(int lines, int columns) {
+        if (lines <= 0) {
+            throw new IllegalArgumentException("The lines parameter should be a number greater than 0.");
+        } else if (columns <= 0) {
+            throw new IllegalArgumentException("The columns parameter should be a number greater than 0.");
+        }
+
+        int l = lines - 1;
+        int c = columns - 1;
+        List<BoardSymmetry> group = new ArrayList<>();
+        group.add(BoardSymmetry.of("identity", lines, columns, new int[]{1, 0, 0, 0, 1, 0}));
+        group.add(BoardSymmetry.of("half turn", lines, columns, new int[]{-1, 0, l, 0, -1, c}));
+        group.add(BoardSymmetry.of("line reflection", lines, columns, new int[]{-1, 0, l, 0, 1, 0}));
+        group.add(BoardSymmetry.of("column reflection", lines, columns, new int[]{1, 0, 0, 0, -1, c}));
+        if (lines == columns) {
+            group.add(BoardSymmetry.of("diagonal reflection", lines, columns, new int[]{0, 1, 0, 1, 0, 0}));
+            group.add(BoardSymmetry.of("anti-diagonal reflection", lines, columns, new int[]{0, -1, c, -1, 0, l}));
+            group.add(BoardSymmetry.of("quarter turn", lines, columns, new int[]{0, 1, 0, -1, 0, l}));
+            group.add(BoardSymmetry.of("three quarter turn", lines, columns, new int[]{0, -1, c, 1, 0, 0}));
+        }
+        return Collections.unmodifiableList(group);
+    }
+
+    /**
+     * Build the permutation of an affine map of the squares :
+     * line' = a * line + b * column + e and column' = c * line + d * column + f
+     *
+     * @param name    the name of the symmetry
+     * @param lines   the number of lines of the board
+     * @param columns the number of columns of the board
+     * @param map     the coefficients {a, b, e, c, d, f}
+     * @return the symmetry
+     */
+    private static BoardSymmetry of(String name, int lines, int columns, int[] map) {
+        int[] image = new int[lines * columns];
+        for (int line = 0; line < lines; line++) {
+            for (int column = 0; column < columns; column++) {
+                int imageLine = map[0] * line + map[1] * column + map[2];
+                int imageColumn = map[3] * line + map[4] * column + map[5];
+                image[line * columns + column] = imageLine * columns + imageColumn;
+            }
+        }
+        return new BoardSymmetry(name, image);
+    }
+
+    /**
+     * Get the image of a cell
+     *
+     * @param cell the cell
+     * @return the cell of its image
+     */
+    public int map(int cell) {
+        return this.image[cell];
+    }
+
+    /**
+     * Get the cell a cell is the image of
+     *
+     * @param cell the cell of the image
+     * @return the cell
+     */
+    public int unmap(int cell) {
+        return this.preimage[cell];
+    }
+
+    /**
+     * Apply the symmetry to stacked planes of the board
+     *
+     * @param planes the values of one or more planes, each one stored cell after cell
+     * @return the values of the images of the planes
+     */
+    public double[] apply(double[] planes) {
+        // Check parameters
+        if (planes == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (planes.length % this.cells != 0) {
+            throw new IllegalArgumentException("The planes parameter should hold a multiple of " + this.cells + " values.");
+        }
+
+        double[] images = new double[planes.length];
+        for (int offset = 0; offset < planes.length; offset += this.cells) {
+            for (int cell = 0; cell < this.cells; cell++) {
+                images[offset + this.image[cell]] = planes[offset + cell];
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Apply the symmetry to stacked planes of the board
+     *
+     * @param planes the values of one or more planes, each one stored cell after cell
+     * @return the values of the images of the planes
+     */
+    public Vector apply(Vector planes) {
+        // Check parameters
+        if (planes == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        return new Vector(this.apply(planes.getData()));
+    }
+
+    /**
+     * Test if the symmetry leaves every cell in place
+     *
+     * @return true for the identity
+     */
+    public boolean isIdentity() {
+        for (int cell = 0; cell < this.cells; cell++) {
+            if (this.image[cell] != cell) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the name of the symmetry.
+     *
+     * @return the name
+     */
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,274 @@
+package battle.game.players.auto;
+
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Square;
+import battle.game.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A scripted auto player shooting where a ship is the most likely to be : for each square not shot yet,
+ * it counts the placements of the ships still afloat going through it, that neither cross a miss nor a sunk ship.
+ * The placements going through the squares hit but not sunk yet are favoured, so that once a ship is hit
+ * the player keeps shooting around it until it sinks (hunt and target).
+ * <p>
+ * It is used as the expert imitated by the network of a SmartAutoPlayer before its training by reinforcement.
+ */
+public class DensityAutoPlayer extends AutoPlayer {
+    /**
+     * The weight of a placement, multiplied for each square hit but not sunk it goes through
+     */
+    private static final double TARGET_WEIGHT = 100.0d;
+    /**
+     * The sizes of the ships not sunk yet
+     */
+    private final List<Integer> afloat = new ArrayList<>();
+    /**
+     * The density of the squares, by cell (cell = line * height + column), summing to 1
+     */
+    private double[] density;
+    /**
+     * The squares hit that do not belong to a sunk ship yet, by cell
+     */
+    private boolean[] open;
+
+    /**
+     * Instantiates a new Density auto player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     */
+    public DensityAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height) {
+        this(fleet, name, width, height, RandomSource.withRandomSeed());
+    }
+
+    /**
+     * Instantiates a new Density auto player, with the source of all the random decisions of the player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     * @param random the source of the random decisions of the player
+     */
+    public DensityAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, RandomSource random) {
+        super(fleet, name, width, height, random);
+        this.resetTracking();
+    }
+
+    /**
+     * Initialize grids, and forget the shots of the previous game.
+     */
+    @Override
+    public void initializeGrids() {
+        super.initializeGrids();
+        this.resetTracking();
+    }
+
+    /**
+     * Ask two positions to the player for where to shoot : the square of highest density
+     *
+     * @return the two positions
+     */
+    @Override
+    public int[] newShot() {
+        this.computeDensity();
+
+        int best = -1;
+        for (int cell = 0; cell < this.density.length; cell++) {
+            if (best < 0 || this.density[cell] > this.density[best]) {
+                int line = cell / this.opponentGrid[0].length;
+                int column = cell % this.opponentGrid[0].length;
+                if (!this.opponentGrid[line][column].isHit()) {
+                    best = cell;
+                }
+            }
+        }
+        return new int[]{best / this.opponentGrid[0].length, best % this.opponentGrid[0].length};
+    }
+
+    /**
+     * Update the opponent grid using the result of the shot, and the ships known to be afloat
+     *
+     * @param shotResult   the result of the shot
+     * @param shotPosition the position of the shot
+     */
+    @Override
+    public void sendLastShotResult(ShotResult shotResult, int[] shotPosition) {
+        super.sendLastShotResult(shotResult, shotPosition);
+
+        if (shotResult == ShotResult.HIT || shotResult == ShotResult.SUNK) {
+            this.open[shotPosition[0] * this.opponentGrid[0].length + shotPosition[1]] = true;
+        }
+        if (shotResult == ShotResult.SUNK) {
+            this.closeSunkShip(shotPosition[0], shotPosition[1]);
+        }
+    }
+
+    /**
+     * Gets the density of the squares for the next shot : for each cell (cell = line * height + column),
+     * the weight of the placements going through it, normalized to sum to 1 (0 for the squares shot at).
+     *
+     * @return the density
+     */
+    public double[] getDensity() {
+        this.computeDensity();
+        return this.density.clone();
+    }
+
+    /**
+     * Compute the density of every square not shot yet, normalized to sum to 1
+     */
+    private void computeDensity() {
+        int lines = this.opponentGrid.length;
+        int columns = this.opponentGrid[0].length;
+        Arrays.fill(this.density, 0);
+
+        double total = 0;
+        for (int size : this.afloat) {
+            for (int line = 0; line < lines; line++) {
+                for (int column = 0; column < columns; column++) {
+                    total += this.addPlacement(line, column, 0, 1, size);
+                    if (size > 1) {
+                        total += this.addPlacement(line, column, 1, 0, size);
+                    }
+                }
+            }
+        }
+
+        if (total > 0) {
+            for (int cell = 0; cell < this.density.length; cell++) {
+                this.density[cell] /= total;
+            }
+        } else {
+            // No placement left (it should not happen), every square not shot yet is as good as another
+            int left = 0;
+            for (int cell = 0; cell < this.density.length; cell++) {
+                left += this.isShot(cell) ? 0 : 1;
+            }
+            for (int cell = 0; cell < this.density.length; cell++) {
+                this.density[cell] = this.isShot(cell) ? 0 : 1.0d / left;
+            }
+        }
+    }
+
+    /**
+     * Add the weight of a placement to the density of the squares not shot yet it goes through
+     *
+     * @param line       the line of the origin of the ship
+     * @param column     the column of the origin of the ship
+     * @param lineStep   1 for a vertical ship, 0 otherwise
+     * @param columnStep 1 for a horizontal ship, 0 otherwise
+     * @param size       the size of the ship
+     * @return the weight added to each square not shot yet, times their number
+     */
+    private double addPlacement(int line, int column, int lineStep, int columnStep, int size) {
+        int lastLine = line + lineStep * (size - 1);
+        int lastColumn = column + columnStep * (size - 1);
+        if (lastLine >= this.opponentGrid.length || lastColumn >= this.opponentGrid[0].length) {
+            return 0;
+        }
+
+        int openCount = 0;
+        int unshotCount = 0;
+        for (int i = 0; i < size; i++) {
+            Square square = this.opponentGrid[line + lineStep * i][column + columnStep * i];
+            int cell = square.getLine() * this.opponentGrid[0].length + square.getColumn();
+            if (!square.isHit()) {
+                unshotCount++;
+            } else if (square.isFree() || !this.open[cell]) {
+                // A miss, or a square of a ship already sunk
+                return 0;
+            } else {
+                openCount++;
+            }
+        }
+
+        double weight = Math.pow(DensityAutoPlayer.TARGET_WEIGHT, openCount);
+        for (int i = 0; i < size; i++) {
+            int cell = (line + lineStep * i) * this.opponentGrid[0].length + column + columnStep * i;
+            if (!this.isShot(cell)) {
+                this.density[cell] += weight;
+            }
+        }
+        return weight * unshotCount;
+    }
+
+    /**
+     * Find the ship just sunk at a square among the open hits around it, and remove it from the ships afloat.
+     * The sunk ship is the longest line of open hits through the square matching the size of a ship afloat.
+     *
+     * @param line   the line of the square
+     * @param column the column of the square
+     */
+    private void closeSunkShip(int line, int column) {
+        int bestSize = 1;
+        int[] bestRun = {line, column, 0, 1};
+
+        for (int[] step : new int[][]{{0, 1}, {1, 0}}) {
+            // Every run of open hits through the square in this direction
+            int before = 0;
+            while (this.isOpen(line - step[0] * (before + 1), column - step[1] * (before + 1))) {
+                before++;
+            }
+            int after = 0;
+            while (this.isOpen(line + step[0] * (after + 1), column + step[1] * (after + 1))) {
+                after++;
+            }
+
+            for (int start = -before; start <= 0; start++) {
+                for (int size = bestSize + 1; start + size - 1 <= after; size++) {
+                    if (this.afloat.contains(size)) {
+                        bestSize = size;
+                        bestRun = new int[]{line + step[0] * start, column + step[1] * start, step[0], step[1]};
+                    }
+                }
+            }
+        }
+
+        this.afloat.remove(Integer.valueOf(this.afloat.contains(bestSize) ? bestSize : this.afloat.get(0)));
+        for (int i = 0; i < bestSize; i++) {
+            this.open[(bestRun[0] + bestRun[2] * i) * this.opponentGrid[0].length + bestRun[1] + bestRun[3] * i] = false;
+        }
+    }
+
+    /**
+     * Test if a square is hit and does not belong to a sunk ship yet
+     *
+     * @param line   the line of the square
+     * @param column the column of the square
+     * @return false if the square is out of the grid or not an open hit
+     */
+    private boolean isOpen(int line, int column) {
+        return line >= 0 && column >= 0 && line < this.opponentGrid.length && column < this.opponentGrid[0].length
+                && this.open[line * this.opponentGrid[0].length + column];
+    }
+
+    /**
+     * Test if a cell has been shot at
+     *
+     * @param cell the cell (cell = line * height + column)
+     * @return true if the cell has been shot at
+     */
+    private boolean isShot(int cell) {
+        return this.opponentGrid[cell / this.opponentGrid[0].length][cell % this.opponentGrid[0].length].isHit();
+    }
+
+    /**
+     * Forget the shots : every ship is afloat and no square is hit
+     */
+    private void resetTracking() {
+        int cells = this.opponentGrid.length * this.opponentGrid[0].length;
+        this.density = new double[cells];
+        this.open = new boolean[cells];
+        this.afloat.clear();
+        for (Ship ship : this.fleet) {
+            this.afloat.add(ship.getSize());
+        }
+    }
+}
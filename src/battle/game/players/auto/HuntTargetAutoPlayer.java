@@ -0,0 +1,134 @@
+package battle.game.players.auto;
+
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.CellSet;
+import battle.game.ships.Ship;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A scripted auto player which hunts at random on the squares of one colour of a checkerboard
+ * (every ship of at least two squares covers one of them), and once a ship is hit
+ * targets the squares around the hits until it sinks.
+ * <p>
+ * It stands between AutoPlayer and DensityAutoPlayer as a reference opponent of the tournaments.
+ */
+public class HuntTargetAutoPlayer extends AutoPlayer {
+    /**
+     * The squares of the checkerboard not shot yet (line * height + column)
+     */
+    private final CellSet hunted;
+    /**
+     * The squares next to a hit, not shot yet when they were added, the last added first
+     */
+    private final Deque<int[]> targets = new ArrayDeque<>();
+
+    /**
+     * Instantiates a new Hunt target auto player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     */
+    public HuntTargetAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height) {
+        super(fleet, name, width, height);
+        this.hunted = HuntTargetAutoPlayer.checkerboard(width, height);
+    }
+
+    /**
+     * Instantiates a new Hunt target auto player, with the source of all the random decisions of the player.
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     * @param random the source of the random decisions of the player
+     */
+    public HuntTargetAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, RandomSource random) {
+        super(fleet, name, width, height, random);
+        this.hunted = HuntTargetAutoPlayer.checkerboard(width, height);
+    }
+
+    /**
+     * Get the squares of one colour of the checkerboard
+     *
+     * @param width  the width of the grid
+     * @param height the height of the grid
+     * @return the squares (line * height + column)
+     */
+    private static CellSet checkerboard(int width, int height) {
+        int[] cells = new int[(width * height + 1) / 2];
+        int count = 0;
+        for (int line = 0; line < width; line++) {
+            for (int column = line % 2; column < height; column += 2) {
+                cells[count++] = line * height + column;
+            }
+        }
+        return new CellSet(width * height, Arrays.copyOf(cells, count));
+    }
+
+    /**
+     * Initialize grids, and forget the targets of the previous game.
+     */
+    @Override
+    public void initializeGrids() {
+        super.initializeGrids();
+        this.hunted.reset();
+        this.targets.clear();
+    }
+
+    /**
+     * Ask two positions to the player for where to shoot : the last square added around a hit,
+     * or else a random square of the checkerboard
+     *
+     * @return the two positions
+     */
+    @Override
+    public int[] newShot() {
+        while (!this.targets.isEmpty()) {
+            int[] target = this.targets.pop();
+            if (!this.opponentGrid[target[0]][target[1]].isHit()) {
+                return target;
+            }
+        }
+
+        if (this.hunted.size() == 0) {
+            // Only the other colour is left, when the smallest ships are of a single square
+            return super.newShot();
+        }
+
+        int cell = this.hunted.get(this.random.nextInt(this.hunted.size()));
+        return new int[]{cell / this.opponentGrid[0].length, cell % this.opponentGrid[0].length};
+    }
+
+    /**
+     * Update the opponent grid using the result of the shot, and the squares to target
+     *
+     * @param shotResult   the result of the shot
+     * @param shotPosition the position of the shot
+     */
+    @Override
+    public void sendLastShotResult(ShotResult shotResult, int[] shotPosition) {
+        super.sendLastShotResult(shotResult, shotPosition);
+        this.hunted.remove(shotPosition[0] * this.opponentGrid[0].length + shotPosition[1]);
+
+        if (shotResult == ShotResult.SUNK) {
+            // The squares around the sunk ship are most likely misses
+            this.targets.clear();
+        } else if (shotResult == ShotResult.HIT) {
+            for (int[] step : new int[][]{{0, 1}, {1, 0}, {0, -1}, {-1, 0}}) {
+                int line = shotPosition[0] + step[0];
+                int column = shotPosition[1] + step[1];
+                if (line >= 0 && column >= 0 && line < this.opponentGrid.length && column < this.opponentGrid[0].length
+                        && !this.opponentGrid[line][column].isHit()) {
+                    this.targets.push(new int[]{line, column});
+                }
+            }
+        }
+    }
+}
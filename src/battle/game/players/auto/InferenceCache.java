@@ -0,0 +1,180 @@
+package battle.game.players.auto;
+
+import battle.metrics.Counter;
+import battle.metrics.MetricsRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the shots chosen by a network which does not learn any more, by position of the opponent grid.
+ * <p>
+ * A position is identified by its Zobrist hash (see {@link PositionHash}).
+ * <p>
+ * When the cache is full, the entry to replace is chosen by the CLOCK algorithm : the entries are scanned in turn,
+ * those read since the last scan get a second chance, the first one not read is replaced.
+ * The methods are synchronized, so a cache can be shared by the players of a same network.
+ */
+public class InferenceCache {
+    /**
+     * The default number of positions of a cache
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /**
+     * The maximum number of positions
+     */
+    private final int capacity;
+    /**
+     * The shot cell of each entry
+     */
+    private final int[] cells;
+    /**
+     * The hash of each entry
+     */
+    private final long[] hashes;
+    /**
+     * Has each entry been read since the last scan of the clock hand
+     */
+    private final boolean[] referenced;
+    /**
+     * The entry of each hash
+     */
+    private final Map<Long, Integer> slots = new HashMap<>();
+    /**
+     * The number of positions replaced, recorded when metrics are on
+     */
+    private Counter evictionCounter;
+    /**
+     * The next entry examined by the clock hand
+     */
+    private int hand;
+    /**
+     * The number of positions found, recorded when metrics are on
+     */
+    private Counter hitCounter;
+    /**
+     * The number of positions found
+     */
+    private long hits;
+    /**
+     * The number of positions not found, recorded when metrics are on
+     */
+    private Counter missCounter;
+    /**
+     * The number of positions not found
+     */
+    private long misses;
+    /**
+     * The number of entries
+     */
+    private int size;
+
+    /**
+     * Instantiates a new Inference cache.
+     *
+     * @param capacity the maximum number of positions
+     */
+    public InferenceCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity parameter should be a number greater than 0.");
+        }
+
+        this.capacity = capacity;
+        this.cells = new int[capacity];
+        this.hashes = new long[capacity];
+        this.referenced = new boolean[capacity];
+    }
+
+    /**
+     * Get the cell shot at a position
+     *
+     * @param hash the hash of the position
+     * @return the cell, or -1 if the position is not in the cache
+     */
+    public synchronized int get(long hash) {
+        Integer slot = this.slots.get(hash);
+        if (slot == null) {
+            this.misses++;
+            if (this.missCounter != null) {
+                this.missCounter.increment();
+            }
+            return -1;
+        }
+
+        this.referenced[slot] = true;
+        this.hits++;
+        if (this.hitCounter != null) {
+            this.hitCounter.increment();
+        }
+        return this.cells[slot];
+    }
+
+    /**
+     * Store the cell shot at a position, replacing an entry not read recently if the cache is full
+     *
+     * @param hash the hash of the position
+     * @param cell the cell
+     */
+    public synchronized void put(long hash, int cell) {
+        Integer slot = this.slots.get(hash);
+        if (slot == null) {
+            if (this.size < this.capacity) {
+                slot = this.size++;
+            } else {
+                while (this.referenced[this.hand]) {
+                    this.referenced[this.hand] = false;
+                    this.hand = (this.hand + 1) % this.capacity;
+                }
+                slot = this.hand;
+                this.hand = (this.hand + 1) % this.capacity;
+                this.slots.remove(this.hashes[slot]);
+                if (this.evictionCounter != null) {
+                    this.evictionCounter.increment();
+                }
+            }
+            this.hashes[slot] = hash;
+            this.slots.put(hash, slot);
+        }
+
+        this.cells[slot] = cell;
+    }
+
+    /**
+     * Gets the share of the positions found in the cache.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0 : (double) this.hits / lookups;
+    }
+
+    /**
+     * Gets the number of positions in the cache.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Record the hits, misses and evictions of the cache, and its hit rate, in a registry under a prefix
+     * (prefix.hits, prefix.misses, prefix.evictions and prefix.hitRate).
+     *
+     * @param registry the registry, or null to stop recording
+     * @param prefix   the prefix of the names of the metrics
+     */
+    public synchronized void recordMetrics(MetricsRegistry registry, String prefix) {
+        if (registry == null) {
+            this.hitCounter = null;
+            this.missCounter = null;
+            this.evictionCounter = null;
+        } else {
+            this.hitCounter = registry.counter(prefix + ".hits");
+            this.missCounter = registry.counter(prefix + ".misses");
+            this.evictionCounter = registry.counter(prefix + ".evictions");
+            registry.gauge(prefix + ".hitRate", this::getHitRate);
+        }
+    }
+}
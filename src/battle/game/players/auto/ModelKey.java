@@ -0,0 +1,166 @@
+package battle.game.players.auto;
+
+import battle.game.ships.Ship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The key of a model of a {@link ModelRegistry} : the board, the fleet and the version of the network.
+ * The fleet is identified by its signature, the sizes of its ships from the largest (such as 5-4-3-3-2).
+ */
+public final class ModelKey {
+    /**
+     * The signature of the fleet
+     */
+    private final String fleet;
+    /**
+     * The height of the board
+     */
+    private final int height;
+    /**
+     * The version of the network
+     */
+    private final String version;
+    /**
+     * The width of the board
+     */
+    private final int width;
+
+    /**
+     * Instantiates a new Model key.
+     *
+     * @param width   the width of the board
+     * @param height  the height of the board
+     * @param fleet   the signature of the fleet (see {@link #signature(List)})
+     * @param version the version of the network
+     */
+    public ModelKey(int width, int height, String fleet, String version) {
+        // Check parameters
+        if (fleet == null || version == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (width <= 0) {
+            throw new IllegalArgumentException("The width parameter should be a number greater than 0.");
+        } else if (height <= 0) {
+            throw new IllegalArgumentException("The height parameter should be a number greater than 0.");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.fleet = fleet;
+        this.version = version;
+    }
+
+    /**
+     * Get the key of a board and a fleet
+     *
+     * @param width   the width of the board
+     * @param height  the height of the board
+     * @param fleet   the fleet
+     * @param version the version of the network
+     * @return the key
+     */
+    public static ModelKey of(int width, int height, List<Ship> fleet, String version) {
+        return new ModelKey(width, height, ModelKey.signature(fleet), version);
+    }
+
+    /**
+     * Get the signature of a fleet : the sizes of its ships from the largest, separated by dashes
+     *
+     * @param fleet the fleet
+     * @return the signature
+     */
+    public static String signature(List<Ship> fleet) {
+        // Check parameters
+        if (fleet == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        int[] sizes = new int[fleet.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = -fleet.get(i).getSize();
+        }
+        Arrays.sort(sizes);
+
+        StringJoiner signature = new StringJoiner("-");
+        for (int size : sizes) {
+            signature.add(String.valueOf(-size));
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Gets the signature of the fleet.
+     *
+     * @return the signature
+     */
+    public String getFleet() {
+        return this.fleet;
+    }
+
+    /**
+     * Gets the height of the board.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the version of the network.
+     *
+     * @return the version
+     */
+    public String getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the width of the board.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Is the other object a key of the same board, fleet and version
+     *
+     * @param o the other object
+     * @return the answer
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ModelKey)) {
+            return false;
+        }
+        ModelKey key = (ModelKey) o;
+        return this.width == key.width && this.height == key.height && this.fleet.equals(key.fleet) && this.version.equals(key.version);
+    }
+
+    /**
+     * Get the hash code of the key
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return ((this.width * 31 + this.height) * 31 + this.fleet.hashCode()) * 31 + this.version.hashCode();
+    }
+
+    /**
+     * Return the key, such as 10x10-5-4-3-3-2@bundled
+     *
+     * @return the formatted string
+     */
+    @Override
+    public String toString() {
+        return this.width + "x" + this.height + "-" + this.fleet + "@" + this.version;
+    }
+}
@@ -0,0 +1,321 @@
+package battle.game.players.auto;
+
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The networks of the neural network players which do not learn any more, by board, fleet and version
+ * (see {@link ModelKey}).
+ * <p>
+ * A model is loaded on its first use, then shared by all the players of its key : they only evaluate it with
+ * {@link NeuralNetwork#predict(battle.game.players.auto.neuralnet.math.Vector)}, so a single copy serves every thread.
+ * The models stay resident within a memory budget (8 bytes by weight or bias), the least recently used ones being
+ * evicted first. An evicted model is loaded again on its next use, the players holding it keeping it meanwhile.
+ * <p>
+ * A model is registered for a key, or for every board and fleet of a version, such as a convolutional network
+ * reshaped to each board (see {@link SmartAutoPlayer#fitNetwork(NeuralNetwork, int, int)}).
+ * The methods are synchronized, a model being loaded by the first thread asking for it while the others wait.
+ */
+public class ModelRegistry {
+    /**
+     * The version of the network bundled with the game
+     */
+    public static final String BUNDLED_VERSION = "bundled";
+    /**
+     * The default memory budget of the resident models, in bytes
+     */
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+    /**
+     * The registry shared by the players which are not given a network, the bundled network being registered
+     * for every board and fleet
+     */
+    private static final ModelRegistry SHARED = ModelRegistry.createShared();
+    /**
+     * The memory budget of the resident models, in bytes
+     */
+    private final long budgetBytes;
+    /**
+     * The loaders of the models, by key
+     */
+    private final Map<ModelKey, Loader> loaders = new HashMap<>();
+    /**
+     * The resident models, from the least recently used
+     */
+    private final LinkedHashMap<ModelKey, NeuralNetwork> resident = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The loaders of the models of every board and fleet, by version
+     */
+    private final Map<String, Loader> versionLoaders = new HashMap<>();
+    /**
+     * The number of models evicted
+     */
+    private long evictions;
+    /**
+     * The number of models found resident
+     */
+    private long hits;
+    /**
+     * The number of models loaded
+     */
+    private long loads;
+    /**
+     * The memory taken by the resident models, in bytes
+     */
+    private long residentBytes;
+
+    /**
+     * Instantiates a new Model registry.
+     *
+     * @param budgetBytes the memory budget of the resident models, in bytes, the last model used staying resident
+     *                    even when it is larger
+     */
+    public ModelRegistry(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("The budgetBytes parameter should be a number greater than 0.");
+        }
+
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Create the shared registry
+     *
+     * @return the registry
+     */
+    private static ModelRegistry createShared() {
+        ModelRegistry registry = new ModelRegistry(ModelRegistry.DEFAULT_BUDGET_BYTES);
+        registry.registerVersion(ModelRegistry.BUNDLED_VERSION, NeuralNetwork::loadNN);
+        return registry;
+    }
+
+    /**
+     * Gets the registry shared by the players which are not given a network.
+     *
+     * @return the shared registry
+     */
+    public static ModelRegistry getShared() {
+        return ModelRegistry.SHARED;
+    }
+
+    /**
+     * Get the memory taken by a network, 8 bytes by weight or bias
+     *
+     * @param neuralNetwork the network
+     * @return the size in bytes
+     */
+    private static long bytes(NeuralNetwork neuralNetwork) {
+        return neuralNetwork.getParameterCount() * Double.BYTES;
+    }
+
+    /**
+     * Register the network saved in a file (see {@link NeuralNetwork#saveNN()}) for a key.
+     * The file is read on the first use of the key.
+     *
+     * @param key        the key
+     * @param checkpoint the file of the network
+     */
+    public void register(ModelKey key, Path checkpoint) {
+        // Check parameters
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.register(key, () -> {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(checkpoint))) {
+                return NeuralNetwork.loadNN(input);
+            }
+        });
+    }
+
+    /**
+     * Register the loader of the model of a key, the resident model of the key being dropped
+     *
+     * @param key    the key
+     * @param loader the loader of the model
+     */
+    public synchronized void register(ModelKey key, Loader loader) {
+        // Check parameters
+        if (key == null || loader == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.loaders.put(key, loader);
+        this.drop(key);
+    }
+
+    /**
+     * Register the loader of the models of a version for every board and fleet not registered on their own,
+     * the resident models of the version being dropped. The model is loaded once for each key asking for it,
+     * and reshaped to its board when convolutional.
+     *
+     * @param version the version
+     * @param loader  the loader of the model
+     */
+    public synchronized void registerVersion(String version, Loader loader) {
+        // Check parameters
+        if (version == null || loader == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.versionLoaders.put(version, loader);
+        this.resident.entrySet().removeIf(entry -> {
+            if (entry.getKey().getVersion().equals(version) && !this.loaders.containsKey(entry.getKey())) {
+                this.residentBytes -= ModelRegistry.bytes(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Get the model of a key, loading it if it is not resident. The model must not learn, as it is shared.
+     *
+     * @param key the key
+     * @return the network, fitted to the board of the key
+     * @throws IOException if the model cannot be loaded
+     */
+    public synchronized NeuralNetwork get(ModelKey key) throws IOException {
+        // Check parameters
+        if (key == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        NeuralNetwork neuralNetwork = this.resident.get(key);
+        if (neuralNetwork != null) {
+            this.hits++;
+            return neuralNetwork;
+        }
+
+        Loader loader = this.loaders.containsKey(key) ? this.loaders.get(key) : this.versionLoaders.get(key.getVersion());
+        if (loader == null) {
+            throw new IllegalArgumentException("No model is registered for " + key + ".");
+        }
+        neuralNetwork = loader.load();
+        if (neuralNetwork == null) {
+            throw new IOException("The model " + key + " cannot be loaded.");
+        }
+        neuralNetwork = SmartAutoPlayer.fitNetwork(neuralNetwork, key.getWidth(), key.getHeight());
+        this.loads++;
+
+        this.resident.put(key, neuralNetwork);
+        this.residentBytes += ModelRegistry.bytes(neuralNetwork);
+        this.evict(key);
+        return neuralNetwork;
+    }
+
+    /**
+     * Is a model registered for a key, on its own or for its version
+     *
+     * @param key the key
+     * @return the answer
+     */
+    public synchronized boolean contains(ModelKey key) {
+        return key != null && (this.loaders.containsKey(key) || this.versionLoaders.containsKey(key.getVersion()));
+    }
+
+    /**
+     * Evict the least recently used models until the resident models fit in the budget
+     *
+     * @param kept the key of the model just used, which is never evicted
+     */
+    private void evict(ModelKey kept) {
+        Iterator<Map.Entry<ModelKey, NeuralNetwork>> entries = this.resident.entrySet().iterator();
+        while (this.residentBytes > this.budgetBytes && entries.hasNext()) {
+            Map.Entry<ModelKey, NeuralNetwork> entry = entries.next();
+            if (!entry.getKey().equals(kept)) {
+                this.residentBytes -= ModelRegistry.bytes(entry.getValue());
+                entries.remove();
+                this.evictions++;
+            }
+        }
+    }
+
+    /**
+     * Drop the resident model of a key, if any
+     *
+     * @param key the key
+     */
+    private void drop(ModelKey key) {
+        NeuralNetwork neuralNetwork = this.resident.remove(key);
+        if (neuralNetwork != null) {
+            this.residentBytes -= ModelRegistry.bytes(neuralNetwork);
+        }
+    }
+
+    /**
+     * Gets the memory budget of the resident models.
+     *
+     * @return the budget in bytes
+     */
+    public long getBudgetBytes() {
+        return this.budgetBytes;
+    }
+
+    /**
+     * Gets the number of models evicted.
+     *
+     * @return the evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Gets the number of models found resident.
+     *
+     * @return the hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of models loaded.
+     *
+     * @return the loads
+     */
+    public synchronized long getLoads() {
+        return this.loads;
+    }
+
+    /**
+     * Gets the memory taken by the resident models.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getResidentBytes() {
+        return this.residentBytes;
+    }
+
+    /**
+     * Gets the number of resident models.
+     *
+     * @return the number of models
+     */
+    public synchronized int getResidentCount() {
+        return this.resident.size();
+    }
+
+    /**
+     * The way to load a model
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Load the model
+         *
+         * @return the network, or null if it cannot be loaded
+         * @throws IOException if the model cannot be read
+         */
+        NeuralNetwork load() throws IOException;
+    }
+}
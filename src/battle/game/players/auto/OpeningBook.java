@@ -0,0 +1,465 @@
+package battle.game.players.auto;
+
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.ships.Ship;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * The first shots of a game, computed once for a configuration (width, height and fleet) instead of every game.
+ * <p>
+ * The book is a tree of positions : from the empty grid, the best candidate squares are kept, and for each one
+ * the positions after a miss and after a hit are explored in turn, up to a depth. The candidates are scored by
+ * the density of {@link DensityAutoPlayer}, which depends on the fleet (unlike the network).
+ * Each position is stored by its hash (see {@link PositionHash}) with its candidates and their weights.
+ * In a canonical book, the positions are stored in their canonical form (see {@link PositionHash#canonical(long[])}),
+ * so a single entry serves all the positions equivalent by a symmetry of the board.
+ * <p>
+ * The book is stored in a compact binary file named after its configuration (see {@link #fileName(int, int, List)}).
+ * <p>
+ * Usage : OpeningBook width height sizes [depth] [candidates] [directory], the sizes of the ships being separated by commas
+ */
+public class OpeningBook {
+    /**
+     * The default number of shots of the book
+     */
+    public static final int DEFAULT_DEPTH = 6;
+    /**
+     * The default number of candidates of a position
+     */
+    public static final int DEFAULT_CANDIDATES = 3;
+    /**
+     * The magic number of the files ("BSOB")
+     */
+    private static final int MAGIC = 0x42534F42;
+    /**
+     * The version of the format of the files
+     */
+    private static final byte VERSION = 2;
+    /**
+     * Are the positions stored in their canonical form
+     */
+    private final boolean canonical;
+    /**
+     * The number of shots of the book
+     */
+    private final int depth;
+    /**
+     * The candidates of each position, by hash
+     */
+    private final Map<Long, Entry> entries = new HashMap<>();
+    /**
+     * The height of the board
+     */
+    private final int height;
+    /**
+     * The sizes of the ships, from the largest
+     */
+    private final int[] sizes;
+    /**
+     * The width of the board
+     */
+    private final int width;
+
+    /**
+     * Instantiates a new empty Opening book.
+     *
+     * @param width     the width of the board
+     * @param height    the height of the board
+     * @param sizes     the sizes of the ships
+     * @param depth     the number of shots of the book
+     * @param canonical are the positions stored in their canonical form
+     */
+    private OpeningBook(int width, int height, int[] sizes, int depth, boolean canonical) {
+        this.canonical = canonical;
+        this.width = width;
+        this.height = height;
+        this.sizes = sizes;
+        this.depth = depth;
+    }
+
+    /**
+     * Generate the canonical book of a configuration and save it
+     *
+     * @param args the width, the height, the sizes of the ships, the depth, the number of candidates and the directory (the last three optional)
+     * @throws IOException if the book can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage : OpeningBook width height sizes [depth] [candidates] [directory]");
+            System.exit(1);
+        }
+
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        ArrayList<Ship> fleet = new ArrayList<>();
+        for (String size : args[2].split(",")) {
+            fleet.add(new Ship("ship", Integer.parseInt(size.trim())));
+        }
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : OpeningBook.DEFAULT_DEPTH;
+        int candidates = args.length > 4 ? Integer.parseInt(args[4]) : OpeningBook.DEFAULT_CANDIDATES;
+        Path directory = Paths.get(args.length > 5 ? args[5] : ".");
+
+        long start = System.nanoTime();
+        OpeningBook book = OpeningBook.generate(fleet, width, height, depth, candidates, true);
+        Path file = directory.resolve(OpeningBook.fileName(width, height, fleet));
+        book.save(file);
+        System.out.printf("%d positions written to %s in %.1f s (%d bytes)%n",
+                book.size(), file, (System.nanoTime() - start) / 1e9, Files.size(file));
+    }
+
+    /**
+     * Generate the book of a configuration
+     *
+     * @param fleet      the fleet
+     * @param width      the width of the board
+     * @param height     the height of the board
+     * @param depth      the number of shots of the book
+     * @param candidates the number of candidates kept for each position
+     * @param canonical  are the positions stored in their canonical form
+     * @return the book
+     */
+    public static OpeningBook generate(ArrayList<Ship> fleet, int width, int height, int depth, int candidates, boolean canonical) {
+        // Check parameters
+        if (fleet == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (depth <= 0 || depth > 0xFF) {
+            throw new IllegalArgumentException("The depth parameter should be a number between 1 and 255.");
+        } else if (candidates <= 0 || candidates > 0xFF) {
+            throw new IllegalArgumentException("The candidates parameter should be a number between 1 and 255.");
+        } else if (fleet.size() > 0xFF) {
+            throw new IllegalArgumentException("A book can't hold a fleet of more than 255 ships.");
+        }
+
+        OpeningBook book = new OpeningBook(width, height, OpeningBook.sizes(fleet), depth, canonical);
+        DensityAutoPlayer expert = new DensityAutoPlayer(fleet, "Opening book", width, height, new RandomSource(0));
+        List<BoardSymmetry> group = BoardSymmetry.group(width, height);
+        if (!canonical) {
+            group = group.subList(0, 1);
+        }
+        book.explore(expert, new PositionHash(width * height), group, new ArrayList<>(), new long[group.size()], candidates);
+        return book;
+    }
+
+    /**
+     * Load a book
+     *
+     * @param file the file of the book
+     * @return the book
+     * @throws IOException if the file can't be read or is not a book
+     */
+    public static OpeningBook load(Path file) throws IOException {
+        // Check parameters
+        if (file == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != OpeningBook.MAGIC || in.readByte() != OpeningBook.VERSION) {
+                throw new IOException(file + " is not an opening book");
+            }
+
+            int width = in.readUnsignedShort();
+            int height = in.readUnsignedShort();
+            int[] sizes = new int[in.readUnsignedByte()];
+            for (int i = 0; i < sizes.length; i++) {
+                // A ship of 256 squares is written 0
+                int size = in.readUnsignedByte();
+                sizes[i] = size == 0 ? Ship.MAX_SIZE : size;
+            }
+            int depth = in.readUnsignedByte();
+            OpeningBook book = new OpeningBook(width, height, sizes, depth, in.readBoolean());
+
+            int count = in.readInt();
+            for (int e = 0; e < count; e++) {
+                long hash = in.readLong();
+                int[] cells = new int[in.readUnsignedByte()];
+                float[] weights = new float[cells.length];
+                for (int c = 0; c < cells.length; c++) {
+                    cells[c] = in.readUnsignedShort();
+                    weights[c] = in.readFloat();
+                }
+                book.entries.put(hash, new Entry(cells, weights));
+            }
+            return book;
+        }
+    }
+
+    /**
+     * Get the name of the file of the book of a configuration, such as opening-10x10-5-4-3-3-2.book
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @param fleet  the fleet
+     * @return the name of the file
+     */
+    public static String fileName(int width, int height, List<Ship> fleet) {
+        // Check parameters
+        if (fleet == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        StringJoiner name = new StringJoiner("-", "opening-" + width + "x" + height + "-", ".book");
+        for (int size : OpeningBook.sizes(fleet)) {
+            name.add(String.valueOf(size));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Get the sizes of the ships of a fleet, from the largest
+     *
+     * @param fleet the fleet
+     * @return the sizes
+     */
+    private static int[] sizes(List<Ship> fleet) {
+        int[] sizes = new int[fleet.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = -fleet.get(i).getSize();
+        }
+        Arrays.sort(sizes);
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = -sizes[i];
+        }
+        return sizes;
+    }
+
+    /**
+     * Save the book
+     *
+     * @param file the file of the book
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path file) throws IOException {
+        // Check parameters
+        if (file == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeByte(OpeningBook.VERSION);
+            out.writeShort(this.width);
+            out.writeShort(this.height);
+            out.writeByte(this.sizes.length);
+            for (int size : this.sizes) {
+                // A ship of 256 squares is written 0
+                out.writeByte(size);
+            }
+            out.writeByte(this.depth);
+            out.writeBoolean(this.canonical);
+
+            out.writeInt(this.entries.size());
+            for (Map.Entry<Long, Entry> entry : this.entries.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeByte(entry.getValue().cells.length);
+                for (int c = 0; c < entry.getValue().cells.length; c++) {
+                    out.writeShort(entry.getValue().cells[c]);
+                    out.writeFloat(entry.getValue().weights[c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Choose the shot of a position
+     *
+     * @param hash   the hash of the position
+     * @param random the random source to draw among the candidates according to their weights, or null for the best one
+     * @return the cell of the shot (cell = line * height + column), or -1 if the position is not in the book
+     */
+    public int choose(long hash, RandomSource random) {
+        Entry entry = this.entries.get(hash);
+        if (entry == null) {
+            return -1;
+        } else if (random == null) {
+            return entry.cells[0];
+        }
+
+        double draw = random.nextDouble();
+        for (int c = 0; c < entry.cells.length - 1; c++) {
+            draw -= entry.weights[c];
+            if (draw < 0) {
+                return entry.cells[c];
+            }
+        }
+        return entry.cells[entry.cells.length - 1];
+    }
+
+    /**
+     * Test if the book is the one of a configuration
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @param fleet  the fleet
+     * @return true if the book has been generated for this configuration
+     */
+    public boolean matches(int width, int height, List<Ship> fleet) {
+        return this.width == width && this.height == height && fleet != null && Arrays.equals(this.sizes, OpeningBook.sizes(fleet));
+    }
+
+    /**
+     * Test if the positions are stored in their canonical form : the hash given to {@link #choose(long, RandomSource)}
+     * must then be the one of the canonical form, and the cell chosen is in the canonical form.
+     *
+     * @return true for a canonical book
+     */
+    public boolean isCanonical() {
+        return this.canonical;
+    }
+
+    /**
+     * Gets the number of shots of the book.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Gets the number of positions of the book.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Store the candidates of a position, then explore the positions after each candidate, missed or hit
+     *
+     * @param expert     the player scoring the candidates
+     * @param keys       the keys of the hashes
+     * @param group      the symmetries of the board for a canonical book, only the identity otherwise
+     * @param shots      the shots leading to the position, as {cell, 1 if hit else 0}
+     * @param hashes     the hashes of the images of the position through the symmetries
+     * @param candidates the number of candidates kept for each position
+     */
+    private void explore(DensityAutoPlayer expert, PositionHash keys, List<BoardSymmetry> group, List<int[]> shots, long[] hashes, int candidates) {
+        int form = PositionHash.canonical(hashes);
+        if (shots.size() >= this.depth || this.entries.containsKey(hashes[form])) {
+            return;
+        }
+
+        expert.initializeGrids();
+        for (int[] shot : shots) {
+            expert.sendLastShotResult(shot[1] == 1 ? ShotResult.HIT : ShotResult.MISS, new int[]{shot[0] / this.height, shot[0] % this.height});
+        }
+        Entry entry = Entry.best(expert.getDensity(), candidates);
+        if (entry.cells.length == 0) {
+            return;
+        }
+        this.entries.put(hashes[form], entry.map(group.get(form)));
+
+        for (int cell : entry.cells) {
+            for (int hit = 0; hit <= 1; hit++) {
+                long[] next = hashes.clone();
+                for (int g = 0; g < next.length; g++) {
+                    next[g] ^= keys.key(group.get(g).map(cell), hit == 1);
+                }
+
+                shots.add(new int[]{cell, hit});
+                this.explore(expert, keys, group, shots, next, candidates);
+                shots.remove(shots.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * The candidates of a position.
+     */
+    private static final class Entry {
+        /**
+         * The cells of the candidates, from the best
+         */
+        final int[] cells;
+        /**
+         * The weights of the candidates, summing to 1
+         */
+        final float[] weights;
+
+        /**
+         * Instantiates a new Entry.
+         *
+         * @param cells   the cells of the candidates, from the best
+         * @param weights the weights of the candidates
+         */
+        Entry(int[] cells, float[] weights) {
+            this.cells = cells;
+            this.weights = weights;
+        }
+
+        /**
+         * Get the entry of the image of the position through a symmetry
+         *
+         * @param symmetry the symmetry
+         * @return the entry, with the images of the cells
+         */
+        Entry map(BoardSymmetry symmetry) {
+            int[] images = new int[this.cells.length];
+            for (int c = 0; c < images.length; c++) {
+                images[c] = symmetry.map(this.cells[c]);
+            }
+            return new Entry(images, this.weights);
+        }
+
+        /**
+         * Keep the best candidates of a density, their weights being normalized to sum to 1
+         *
+         * @param density    the density of each cell
+         * @param candidates the maximum number of candidates
+         * @return the entry
+         */
+        static Entry best(double[] density, int candidates) {
+            int[] cells = new int[Math.min(candidates, density.length)];
+            Arrays.fill(cells, -1);
+            int count = 0;
+            for (int cell = 0; cell < density.length; cell++) {
+                if (density[cell] <= 0) {
+                    continue;
+                }
+
+                // Insert the cell among the best ones, if it is one of them
+                int rank = count;
+                while (rank > 0 && density[cells[rank - 1]] < density[cell]) {
+                    rank--;
+                }
+                if (rank < cells.length) {
+                    System.arraycopy(cells, rank, cells, rank + 1, Math.min(count, cells.length - 1) - rank);
+                    cells[rank] = cell;
+                    count = Math.min(count + 1, cells.length);
+                }
+            }
+
+            cells = Arrays.copyOf(cells, count);
+            float[] weights = new float[count];
+            double total = 0;
+            for (int cell : cells) {
+                total += density[cell];
+            }
+            for (int c = 0; c < count; c++) {
+                weights[c] = (float) (density[cells[c]] / total);
+            }
+            return new Entry(cells, weights);
+        }
+    }
+}
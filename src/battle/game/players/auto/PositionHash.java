@@ -0,0 +1,110 @@
+package battle.game.players.auto;
+
+import battle.game.RandomSource;
+import battle.game.players.Square;
+
+/**
+ * The Zobrist hash of a position of an opponent grid : a random 64 bits key is drawn for each square and state
+ * (missed or hit), and the hash of a grid is the XOR of the keys of its squares shot at, so that it can be updated
+ * with a single XOR after each shot (see {@link #key(int, boolean)}).
+ * <p>
+ * The keys only depend on the seed and the number of squares, so the hashes of the default keys can be stored
+ * (see {@link OpeningBook}) and compared between runs.
+ */
+public class PositionHash {
+    /**
+     * The default seed of the keys
+     */
+    private static final long DEFAULT_SEED = 0x5EABA771EL;
+    /**
+     * The keys, two (missed and hit) for each cell
+     */
+    private final long[] keys;
+
+    /**
+     * Instantiates a new Position hash, with the default keys.
+     *
+     * @param cells the number of squares of the grid
+     */
+    public PositionHash(int cells) {
+        this(cells, PositionHash.DEFAULT_SEED);
+    }
+
+    /**
+     * Instantiates a new Position hash.
+     *
+     * @param cells the number of squares of the grid
+     * @param seed  the seed of the keys
+     */
+    public PositionHash(int cells, long seed) {
+        if (cells <= 0) {
+            throw new IllegalArgumentException("The cells parameter should be a number greater than 0.");
+        }
+
+        RandomSource random = new RandomSource(seed);
+        this.keys = new long[cells * 2];
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Get the canonical form of a position among its images through the symmetries of the board :
+     * the one of lowest hash, the first one in case of a tie.
+     * Equivalent positions have the same images, and so the same canonical hash.
+     *
+     * @param hashes the hashes of the images of the position
+     * @return the index of the canonical form
+     */
+    public static int canonical(long[] hashes) {
+        // Check parameters
+        if (hashes == null || hashes.length == 0) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        int canonical = 0;
+        for (int i = 1; i < hashes.length; i++) {
+            if (hashes[i] < hashes[canonical]) {
+                canonical = i;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Get the key of a square shot at, to XOR with the hash of the grid.
+     * The grids are Square[width][height] arrays indexed by line then column : the line runs along the width
+     * (0 to width - 1) and the column along the height (0 to height - 1), so the cell of grid[line][column]
+     * is line * height + column.
+     *
+     * @param cell the cell of the square (cell = line * height + column)
+     * @param hit  was a ship hit
+     * @return the key
+     */
+    public long key(int cell, boolean hit) {
+        return this.keys[cell * 2 + (hit ? 1 : 0)];
+    }
+
+    /**
+     * Compute the hash of a whole grid
+     *
+     * @param grid the grid, a Square[width][height] array
+     * @return the hash
+     */
+    public long hash(Square[][] grid) {
+        // Check parameters
+        if (grid == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        long hash = 0;
+        for (int line = 0; line < grid.length; line++) {
+            for (int column = 0; column < grid[0].length; column++) {
+                if (grid[line][column].isHit()) {
+                    hash ^= this.key(line * grid[0].length + column, !grid[line][column].isFree());
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -1,24 +1,32 @@
 package battle.game.players.auto;
 
+import battle.game.RandomSource;
 import battle.game.ShotResult;
 import battle.game.players.Player;
-import battle.game.players.Square;
 import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.Conv2D;
 import battle.game.players.auto.neuralnet.CostFunction;
 import battle.game.players.auto.neuralnet.Initializer;
 import battle.game.players.auto.neuralnet.Layer;
 import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.players.auto.neuralnet.Shape;
 import battle.game.players.auto.neuralnet.math.Vector;
 import battle.game.players.auto.neuralnet.optimizer.GradientDescent;
-import battle.game.ships.Direction;
 import battle.game.ships.Ship;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The type Smart auto player.
  */
 public class SmartAutoPlayer extends Player {
+    /**
+     * The number of channels of the hidden convolutional layers.
+     */
+    private static final int CONVOLUTION_CHANNELS = 16;
     /**
      * The Neural network.
      */
@@ -31,6 +39,55 @@ public class SmartAutoPlayer extends Player {
      * The Input layer size.
      */
     private final int inputLayerSize = this.totalGridSize * 2;
+    /**
+     * The symmetries of the board, the identity first.
+     */
+    private final List<BoardSymmetry> group = BoardSymmetry.group(this.opponentGrid.length, this.opponentGrid[0].length);
+    /**
+     * The Zobrist hashes of the images of the opponent grid through each symmetry of the board,
+     * the first one being the hash of the grid itself.
+     */
+    private final long[] positionHashes = new long[this.group.size()];
+    /**
+     * The keys of the hash of the opponent grid.
+     */
+    private final PositionHash positionKeys = new PositionHash(this.totalGridSize);
+    /**
+     * The cache of the shots chosen by the network when not training, or null.
+     */
+    private InferenceCache inferenceCache;
+    /**
+     * Was the last shot taken from the book, without evaluating the network.
+     */
+    private boolean bookShot;
+    /**
+     * The first shots of the games, or null.
+     */
+    private OpeningBook openingBook;
+    /**
+     * Are the shots of the book drawn among its candidates, instead of always the best one.
+     */
+    private boolean openingRandomised;
+    /**
+     * The last input of the network, used to learn from the images of the position.
+     */
+    private Vector lastInput;
+    /**
+     * The last output of the network, used to build training targets.
+     */
+    private Vector lastOutput;
+    /**
+     * The number of shots fired in the current game.
+     */
+    private int shotNumber;
+    /**
+     * The symmetries of the board but the identity, when learning from the images of each position, or null.
+     */
+    private List<BoardSymmetry> symmetries;
+    /**
+     * Are the positions looked at in their canonical form and the outputs of the network averaged over the symmetries.
+     */
+    private boolean symmetric;
     /**
      * The Training.
      */
@@ -46,23 +103,79 @@ public class SmartAutoPlayer extends Player {
      * @param training the training
      */
     public SmartAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, boolean training) {
-        super(fleet, name, width, height);
+        this(fleet, name, width, height, training, RandomSource.withRandomSeed());
+    }
+
+    /**
+     * Instantiates a new Smart auto player, with the source of all the random decisions of the player
+     * (including the initialization of the network when training).
+     *
+     * @param fleet    the fleet
+     * @param name     the name
+     * @param width    the width
+     * @param height   the height
+     * @param training the training
+     * @param random   the source of the random decisions of the player
+     * @throws IllegalStateException if not training and the bundled network cannot play on the board
+     */
+    public SmartAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, boolean training, RandomSource random) {
+        super(fleet, name, width, height, random);
         this.training = training;
 
         if (this.training) {
-            this.neuralNetwork =
-                    new NeuralNetwork.Builder(this.inputLayerSize)
-                            .addLayer(new Layer(this.totalGridSize, Activation.Leaky_ReLU))
-                            .addLayer(new Layer(this.totalGridSize, Activation.Softmax))
-                            .setCostFunction(new CostFunction.MSE())
-                            .setOptimizer(new GradientDescent(0.03))
-                            .initWeights(new Initializer.Random(0, 0.000001))
-                            .create();
+            this.neuralNetwork = SmartAutoPlayer.createNetwork(this.totalGridSize, Activation.Softmax, new CostFunction.MSE(), this.random.nextLong());
         } else {
-            this.neuralNetwork = NeuralNetwork.loadNN();
+            // The bundled network is loaded once and shared by all the players of the board and the fleet
+            try {
+                this.neuralNetwork = ModelRegistry.getShared().get(ModelKey.of(width, height, this.fleet, ModelRegistry.BUNDLED_VERSION));
+            } catch (IOException | IllegalArgumentException e) {
+                // Not readable, or a dense network of another board
+                throw new IllegalStateException("The bundled network cannot play on a " + width + "x" + height + " board : " + e.getMessage(), e);
+            }
+            this.setInferenceCache(new InferenceCache(InferenceCache.DEFAULT_CAPACITY));
         }
     }
 
+    /**
+     * Instantiates a new Smart auto player using a network created elsewhere.
+     * Training targets are built according to the cost function of the network.
+     *
+     * @param fleet         the fleet
+     * @param name          the name
+     * @param width         the width
+     * @param height        the height
+     * @param neuralNetwork the neural network
+     * @param training      the training
+     */
+    public SmartAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, NeuralNetwork neuralNetwork, boolean training) {
+        this(fleet, name, width, height, neuralNetwork, training, RandomSource.withRandomSeed());
+    }
+
+    /**
+     * Instantiates a new Smart auto player using a network created elsewhere,
+     * with the source of all the random decisions of the player.
+     * A convolutional network of another board is reshaped to the grid (see {@link #fitNetwork(NeuralNetwork, int, int)}).
+     *
+     * @param fleet         the fleet
+     * @param name          the name
+     * @param width         the width
+     * @param height        the height
+     * @param neuralNetwork the neural network
+     * @param training      the training
+     * @param random        the source of the random decisions of the player
+     */
+    public SmartAutoPlayer(ArrayList<Ship> fleet, String name, int width, int height, NeuralNetwork neuralNetwork, boolean training, RandomSource random) {
+        super(fleet, name, width, height, random);
+
+        // Check parameters
+        if (neuralNetwork == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.neuralNetwork = SmartAutoPlayer.fitNetwork(neuralNetwork, width, height);
+        this.training = training;
+    }
+
     /**
      * Instantiates a new Smart auto player.
      *
@@ -75,6 +188,91 @@ public class SmartAutoPlayer extends Player {
         this(fleet, name, width, height, true);
     }
 
+    /**
+     * Create a network to train, with an input for each square of the two planes of the opponent grid
+     * (hit and busy) and an output for each square.
+     *
+     * @param totalGridSize    the number of squares of the grid
+     * @param outputActivation the activation of the output layer
+     * @param costFunction     the cost function
+     * @param seed             the seed of the initialization of the weights
+     * @return the neural network
+     */
+    public static NeuralNetwork createNetwork(int totalGridSize, Activation outputActivation, CostFunction costFunction, long seed) {
+        return new NeuralNetwork.Builder(totalGridSize * 2)
+                .addLayer(new Layer(totalGridSize, Activation.Leaky_ReLU))
+                .addLayer(new Layer(totalGridSize, outputActivation))
+                .setCostFunction(costFunction)
+                .setOptimizer(new GradientDescent(0.03))
+                .initWeights(new Initializer.Xavier(seed))
+                .create();
+    }
+
+    /**
+     * Create a convolutional network to train. The input is the same as for {@link #createNetwork(int, Activation, CostFunction, long)},
+     * looked at as two planes (hit and busy) of the opponent grid, see {@link #getInputShape(int, int)}.
+     * The last convolution has a single channel giving a score for each square, turned into probabilities by a softmax.
+     * The number of weights does not depend on the size of the grid.
+     *
+     * @param lines        the number of lines of the grid
+     * @param columns      the number of columns of the grid
+     * @param costFunction the cost function
+     * @param seed         the seed of the initialization of the weights
+     * @return the neural network
+     */
+    public static NeuralNetwork createConvolutionalNetwork(int lines, int columns, CostFunction costFunction, long seed) {
+        Shape input = SmartAutoPlayer.getInputShape(lines, columns);
+        Shape hidden = new Shape(SmartAutoPlayer.CONVOLUTION_CHANNELS, lines, columns);
+
+        return new NeuralNetwork.Builder(input.size())
+                .addLayer(new Conv2D(input, SmartAutoPlayer.CONVOLUTION_CHANNELS, 3, Activation.Leaky_ReLU))
+                .addLayer(new Conv2D(hidden, SmartAutoPlayer.CONVOLUTION_CHANNELS, 3, Activation.Leaky_ReLU))
+                .addLayer(new Conv2D(hidden, 1, 3, Activation.Softmax))
+                .setCostFunction(costFunction)
+                .setOptimizer(new GradientDescent(0.03))
+                .initWeights(new Initializer.Xavier(seed))
+                .create();
+    }
+
+    /**
+     * Get a network playing on a grid : the network itself if it was created for the grid, or else a copy of the
+     * convolutional network working on the planes of the grid (see {@link NeuralNetwork#reshape(int, int)}),
+     * so that a single trained network plays on every board. The copy learns apart from the network.
+     *
+     * @param neuralNetwork the network
+     * @param lines         the number of lines of the grid
+     * @param columns       the number of columns of the grid
+     * @return the network playing on the grid
+     */
+    public static NeuralNetwork fitNetwork(NeuralNetwork neuralNetwork, int lines, int columns) {
+        // Check parameters
+        if (neuralNetwork == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        if (neuralNetwork.isConvolutional()) {
+            Shape input = ((Conv2D) neuralNetwork.getLayers().get(1)).getInputShape();
+            if (input.getHeight() != lines || input.getWidth() != columns) {
+                return neuralNetwork.reshape(lines, columns);
+            }
+        } else if (neuralNetwork.getLayers().get(0).size() != SmartAutoPlayer.getInputShape(lines, columns).size()) {
+            throw new IllegalArgumentException("The network was not created for a " + lines + "x" + columns + " grid and is not convolutional.");
+        }
+        return neuralNetwork;
+    }
+
+    /**
+     * Get the shape of the input of the network : the hit plane followed by the busy plane of the opponent grid,
+     * each plane being stored line after line.
+     *
+     * @param lines   the number of lines of the grid
+     * @param columns the number of columns of the grid
+     * @return the input shape
+     */
+    public static Shape getInputShape(int lines, int columns) {
+        return new Shape(2, lines, columns);
+    }
+
     /**
      * Stop training.
      */
@@ -82,6 +280,79 @@ public class SmartAutoPlayer extends Player {
         this.training = false;
     }
 
+    /**
+     * Sets the cache of the shots chosen by the network, only used when not training.
+     * The network must not learn any more while the cache is used, and a cache can only be shared
+     * by players of the same network.
+     *
+     * @param inferenceCache the cache, or null to always evaluate the network
+     */
+    public void setInferenceCache(InferenceCache inferenceCache) {
+        this.inferenceCache = inferenceCache;
+    }
+
+    /**
+     * Gets the cache of the shots chosen by the network.
+     *
+     * @return the cache, or null
+     */
+    public InferenceCache getInferenceCache() {
+        return this.inferenceCache;
+    }
+
+    /**
+     * Learn from each position and from its images through the symmetries of the board (see {@link BoardSymmetry}),
+     * in a single update of the network : 4 times (8 times on a square board) more training for each shot.
+     *
+     * @param augmented does the player learn from the images of the positions
+     */
+    public void setAugmented(boolean augmented) {
+        if (augmented) {
+            this.symmetries = this.group.subList(1, this.group.size());
+        } else {
+            this.symmetries = null;
+        }
+    }
+
+    /**
+     * When not training, look at the positions in their canonical form : among the images of the position through
+     * the symmetries of the board, the one of lowest hash (see {@link PositionHash#canonical(long[])}).
+     * The positions of a same class then share a single entry of the inference cache, and the output of the network
+     * is averaged over the images of the position, so that equivalent positions get equivalent shots.
+     * The shot chosen in the canonical form is mapped back to the grid.
+     *
+     * @param symmetric are the positions canonicalized
+     */
+    public void setSymmetric(boolean symmetric) {
+        this.symmetric = symmetric;
+    }
+
+    /**
+     * Sets the book giving the first shots of the games, the network choosing the next ones.
+     * A training network does not learn from the shots of the book, which it did not choose.
+     *
+     * @param openingBook the book, or null to always use the network
+     * @param randomised  are the shots drawn among the candidates of the book, instead of always the best one
+     */
+    public void setOpeningBook(OpeningBook openingBook, boolean randomised) {
+        // Check parameters
+        if (openingBook != null && !openingBook.matches(this.width, this.height, this.fleet)) {
+            throw new IllegalArgumentException("The opening book does not match the board and the fleet of the player.");
+        }
+
+        this.openingBook = openingBook;
+        this.openingRandomised = randomised;
+    }
+
+    /**
+     * Gets the neural network.
+     *
+     * @return the neural network
+     */
+    public NeuralNetwork getNeuralNetwork() {
+        return this.neuralNetwork;
+    }
+
     /**
      * Save nn.
      */
@@ -96,6 +367,39 @@ public class SmartAutoPlayer extends Player {
      */
     @Override
     public int[] newShot() {
+        int canonicalIndex = PositionHash.canonical(this.positionHashes);
+        BoardSymmetry canonical = this.group.get(canonicalIndex);
+        long canonicalHash = this.positionHashes[canonicalIndex];
+
+        // Play the first shots from the book
+        if (this.openingBook != null && this.shotNumber < this.openingBook.getDepth()) {
+            int cell = this.openingBook.isCanonical()
+                    ? this.openingBook.choose(canonicalHash, this.openingRandomised ? this.random : null)
+                    : this.openingBook.choose(this.positionHashes[0], this.openingRandomised ? this.random : null);
+            if (cell >= 0 && this.openingBook.isCanonical()) {
+                cell = canonical.unmap(cell);
+            }
+            if (cell >= 0 && !this.opponentGrid[cell / this.opponentGrid[0].length][cell % this.opponentGrid[0].length].isHit()) {
+                this.bookShot = true;
+                return new int[]{cell / this.opponentGrid[0].length, cell % this.opponentGrid[0].length};
+            }
+        }
+
+        this.bookShot = false;
+
+        // Answer the positions already seen from the cache, in the frame of the canonical form if symmetric
+        boolean symmetric = this.symmetric && !this.training;
+        BoardSymmetry frame = symmetric ? canonical : this.group.get(0);
+        long hash = symmetric ? canonicalHash : this.positionHashes[0];
+        boolean cached = !this.training && this.inferenceCache != null;
+        if (cached) {
+            int cell = this.inferenceCache.get(hash);
+            if (cell >= 0) {
+                cell = frame.unmap(cell);
+                return new int[]{cell / this.opponentGrid[0].length, cell % this.opponentGrid[0].length};
+            }
+        }
+
         // Create an input and feed it to the network
         double[] input = new double[this.inputLayerSize];
         for (int rows = 0; rows < this.opponentGrid.length; rows++) {
@@ -109,63 +413,73 @@ public class SmartAutoPlayer extends Player {
         }
 
         // Get the output of the network
-        double[] output = this.neuralNetwork.evaluate(new Vector(input)).getOutput().getData();
+        this.lastInput = new Vector(input);
+        // A network which does not learn may be shared between threads (see ModelRegistry), nothing is stored in its layers
+        this.lastOutput = this.training ? this.neuralNetwork.evaluate(this.lastInput).getOutput() : this.neuralNetwork.predict(this.lastInput);
+        double[] output = this.lastOutput.getData();
+        if (symmetric) {
+            output = this.averageOverSymmetries(output);
+        }
 
-        // Get the maximum output of the softmax, this will be the position of the hit
-        double max = 0;
+        // Get the maximum output of the softmax, this will be the position of the hit.
+        // Once trained, the squares already shot are skipped, the network would otherwise shoot them forever
+        double max = Double.NEGATIVE_INFINITY;
         int[] maxIndex = new int[2];
         for (int rows = 0; rows < this.opponentGrid.length; rows++) {
             for (int columns = 0; columns < this.opponentGrid[0].length; columns++) {
                 int index = rows * this.opponentGrid[0].length + columns;
-                if (output[index] > max) {
+                if (output[index] > max && (this.training || !this.opponentGrid[rows][columns].isHit())) {
                     max = output[index];
                     maxIndex[0] = rows;
                     maxIndex[1] = columns;
                 }
             }
         }
+
+        if (cached) {
+            this.inferenceCache.put(hash, frame.map(maxIndex[0] * this.opponentGrid[0].length + maxIndex[1]));
+        }
         return maxIndex;
     }
 
+    /**
+     * Average the output of the network for the last input with its outputs for the images of the input
+     * through the other symmetries of the board, each one mapped back to the grid
+     *
+     * @param output the output of the network for the last input
+     * @return the averaged output
+     */
+    private double[] averageOverSymmetries(double[] output) {
+        double[] average = output.clone();
+        for (int g = 1; g < this.group.size(); g++) {
+            BoardSymmetry symmetry = this.group.get(g);
+            double[] image = this.neuralNetwork.predict(symmetry.apply(this.lastInput)).getData();
+            for (int cell = 0; cell < average.length; cell++) {
+                average[cell] += image[symmetry.map(cell)];
+            }
+        }
+        for (int cell = 0; cell < average.length; cell++) {
+            average[cell] /= this.group.size();
+        }
+        return average;
+    }
+
+    /**
+     * Initialize grids, the opponent grid being empty again.
+     */
+    @Override
+    public void initializeGrids() {
+        super.initializeGrids();
+        Arrays.fill(this.positionHashes, 0);
+        this.shotNumber = 0;
+    }
+
     /**
      * Initialize positions of ships in fleet
      */
     @Override
     public void shipPlacement() {
-        for (Ship ship : this.fleet) {
-            ship.resetHitNumber();
-            boolean shipAdded = false;
-
-            while (!shipAdded) {
-                Direction direction;
-                int shipLine = (int) (Math.random() * this.myGrid.length);
-                int shipColumn = (int) (Math.random() * this.myGrid[0].length);
-                Square[] squares = new Square[ship.getSize()];
-                if (Math.random() > 0.5) {
-                    direction = Direction.HORIZONTAL;
-                    for (int i = shipColumn; i < shipColumn + ship.getSize(); i++) {
-                        squares[i - shipColumn] = new Square(shipLine, i);
-                    }
-                } else {
-                    direction = Direction.VERTICAL;
-                    for (int i = shipLine; i < shipLine + ship.getSize(); i++) {
-                        squares[i - shipLine] = new Square(i, shipColumn);
-                    }
-                }
-
-                if (this.checkPosition(squares)) {
-                    // Insert squares of ship if allowed position is true
-                    for (Square square : squares) {
-                        this.myGrid[square.getLine()][square.getColumn()].setBusy();
-                    }
-                    ship.setLineOrigin(shipLine);
-                    ship.setColumnOrigin(shipColumn);
-                    ship.setDirection(direction);
-
-                    shipAdded = true;
-                }
-            }
-        }
+        this.randomShipPlacement();
     }
 
     /**
@@ -176,18 +490,77 @@ public class SmartAutoPlayer extends Player {
      */
     @Override
     public void sendLastShotResult(ShotResult shotResult, int[] shotPosition) {
+        // Check parameters
+        if (shotResult == null || shotPosition == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        boolean alreadyShot = this.opponentGrid[shotPosition[0]][shotPosition[1]].isHit();
         super.sendLastShotResult(shotResult, shotPosition);
 
-        if (this.training) {
-            double[] expected = new double[this.totalGridSize];
-            if (shotResult == ShotResult.HIT || shotResult == ShotResult.SUNK) {
-                expected[shotPosition[0] * this.opponentGrid[0].length + shotPosition[1]] = 1.0d;
-            } else {
-                expected[shotPosition[0] * this.opponentGrid[0].length + shotPosition[1]] = -1.0d;
+        boolean hit = shotResult == ShotResult.HIT || shotResult == ShotResult.SUNK;
+        int index = shotPosition[0] * this.opponentGrid[0].length + shotPosition[1];
+        if (!alreadyShot) {
+            for (int g = 0; g < this.positionHashes.length; g++) {
+                this.positionHashes[g] ^= this.positionKeys.key(this.group.get(g).map(index), hit);
             }
+        }
+        this.shotNumber++;
 
-            this.neuralNetwork.learnFrom(new Vector(expected));
+        // The network was not evaluated for a shot of the book, there is nothing to learn from
+        if (this.training && !this.bookShot) {
+            Vector expected = this.expectedOutput(index, hit);
+            this.neuralNetwork.learnFrom(expected);
+
+            if (this.symmetries != null) {
+                // The same shot, seen through each symmetry of the board
+                for (BoardSymmetry symmetry : this.symmetries) {
+                    this.neuralNetwork.evaluate(symmetry.apply(this.lastInput));
+                    this.neuralNetwork.learnFrom(symmetry.apply(expected));
+                }
+            }
             this.neuralNetwork.updateFromLearning();
         }
     }
+
+    /**
+     * Build the output the network should have given for the last shot, depending on its cost function :
+     * <ul>
+     *     <li>cross entropy : a probability distribution, all on the shot square if it was a hit, or
+     *     the last output with the shot square removed (and normalized again) if it was a miss</li>
+     *     <li>Huber : the last output as Q values, with the value of the shot square replaced by 1 or -1</li>
+     *     <li>otherwise : 1 or -1 on the shot square and 0 elsewhere</li>
+     * </ul>
+     *
+     * @param index the index of the shot square in the output
+     * @param hit   was the shot a hit
+     * @return the expected output
+     */
+    private Vector expectedOutput(int index, boolean hit) {
+        CostFunction costFunction = this.neuralNetwork.getCostFunction();
+        double[] expected;
+
+        if (costFunction instanceof CostFunction.CrossEntropy) {
+            expected = new double[this.totalGridSize];
+            if (hit) {
+                expected[index] = 1.0d;
+            } else {
+                double[] output = this.lastOutput.getData();
+                double remaining = 1 - output[index];
+                if (remaining > 0) {
+                    for (int i = 0; i < expected.length; i++)
+                        expected[i] = output[i] / remaining;
+                }
+                expected[index] = 0;
+            }
+        } else if (costFunction instanceof CostFunction.Huber) {
+            expected = this.lastOutput.getData().clone();
+            expected[index] = hit ? 1.0d : -1.0d;
+        } else {
+            expected = new double[this.totalGridSize];
+            expected[index] = hit ? 1.0d : -1.0d;
+        }
+
+        return new Vector(expected);
+    }
 }
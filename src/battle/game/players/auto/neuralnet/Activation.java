@@ -1,88 +1,137 @@
 package battle.game.players.auto.neuralnet;
 
-import battle.game.players.auto.neuralnet.math.Function;
+import battle.game.players.auto.neuralnet.math.FastMath;
 import battle.game.players.auto.neuralnet.math.Vector;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The type Activation.
+ * Each activation is a final class working in place on a range of a double array, so that the element loops
+ * have no call per element and can be inlined and vectorised by the JIT. The call to {@link #apply(double[], int, int)}
+ * of a layer is itself virtual : it stays inlined as long as the layers of the networks running use at most two
+ * activations (e.g. {@link #Leaky_ReLU} and {@link #Softmax}).
+ * Activations are registered by name, see {@link #forName(String)}. The networks saved when the activations
+ * were functions are still read, see {@link NetworkInputStream}.
  */
-public class Activation implements Serializable {
+public abstract class Activation implements Serializable {
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = -2004499189519211846L;
+    /**
+     * The registered activations, by name.
+     */
+    private static final Map<String, Activation> REGISTRY = new ConcurrentHashMap<>();
     /**
      * The constant Identity.
      */
-    public static final Activation Identity = new Activation(
-            "Identity",
-            x -> x,                             // fn
-            x -> 1                              // dFn
-    );
+    public static final Activation Identity = Activation.register(new IdentityActivation("Identity"));
+    /**
+     * The constant ReLU.
+     */
+    public static final Activation ReLU = Activation.register(new LeakyReLUActivation("ReLU", 0));
     /**
      * The constant Leaky_ReLU.
      */
-    public static final Activation Leaky_ReLU = new Activation(
-            "Leaky_ReLU",
-            x -> x <= 0 ? 0.01 * x : x,         // fn
-            x -> x <= 0 ? 0.01 : 1              // dFn
-    );
+    public static final Activation Leaky_ReLU = Activation.register(new LeakyReLUActivation("Leaky_ReLU", 0.01));
     /**
-     * The constant Softmax.
+     * The constant ELU.
      */
-    public static final Activation Softmax = new Activation("Softmax") {
-        @Override
-        public Vector fn(Vector in) {
-            double[] data = in.getData();
-            double sum = 0;
-            double max = in.max();
-            for (double a : data)
-                sum += StrictMath.exp(a - max);
-
-            double finalSum = sum;
-            return in.map(a -> StrictMath.exp(a - max) / finalSum);
-        }
-
-        @Override
-        public Vector dCdI(Vector out, Vector dCdO) {
-            double x = out.elementProduct(dCdO).sumElements();
-            Vector sub = dCdO.sub(x);
-            return out.elementProduct(sub);
-        }
-    };
+    public static final Activation ELU = Activation.register(new ELUActivation("ELU", 1));
     /**
-     * The Name.
+     * The constant Tanh.
      */
-    private final String name;
+    public static final Activation Tanh = Activation.register(new TanhActivation("Tanh"));
     /**
-     * The D fn.
+     * The constant Sigmoid.
      */
-    private Function dFn;
+    public static final Activation Sigmoid = Activation.register(new SigmoidActivation("Sigmoid"));
     /**
-     * The Fn.
+     * The constant Softmax.
      */
-    private Function fn;
+    public static final Activation Softmax = Activation.register(new SoftmaxActivation("Softmax", false));
+    /**
+     * The constant Fast_Softmax, a softmax using {@link FastMath#exp(double)} instead of {@link Math#exp(double)}.
+     */
+    public static final Activation Fast_Softmax = Activation.register(new SoftmaxActivation("Fast_Softmax", true));
+    /**
+     * The Name.
+     */
+    private final String name;
 
     /**
      * Instantiates a new Activation.
      *
      * @param name the name
      */
-    public Activation(String name) {
+    protected Activation(String name) {
+        // Check parameters
+        if (name == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
         this.name = name;
     }
 
     /**
-     * Instantiates a new Activation.
+     * Register an activation, so it can be found by its name.
+     *
+     * @param activation the activation
+     * @param <A>        the type of the activation
+     * @return the activation
+     */
+    public static <A extends Activation> A register(A activation) {
+        // Check parameters
+        if (activation == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        Activation.REGISTRY.put(activation.getName(), activation);
+        return activation;
+    }
+
+    /**
+     * Get a registered activation by its name.
      *
      * @param name the name
-     * @param fn   the fn
-     * @param dFn  the d fn
+     * @return the activation
      */
-    public Activation(String name, Function fn, Function dFn) {
-        this.name = name;
-        this.fn = fn;
-        this.dFn = dFn;
+    public static Activation forName(String name) {
+        // Check parameters
+        if (name == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        Activation activation = Activation.REGISTRY.get(name);
+        if (activation == null) {
+            throw new IllegalArgumentException("No activation registered with the name " + name + ".");
+        }
+        return activation;
     }
 
+    /**
+     * Apply the activation, in place, on data[from, to).
+     *
+     * @param data the weighted inputs, replaced by the outputs
+     * @param from the first index (inclusive)
+     * @param to   the last index (exclusive)
+     */
+    public abstract void apply(double[] data, int from, int to);
+
+    /**
+     * Multiply, in place, the derivative of the cost with respect to the outputs
+     * by the derivative of the activation, on [from, to).
+     *
+     * @param out  the outputs of the activation
+     * @param dCdO the derivative of the cost with respect to the outputs, replaced by the one with respect to the inputs
+     * @param from the first index (inclusive)
+     * @param to   the last index (exclusive)
+     */
+    public abstract void derivative(double[] out, double[] dCdO, int from, int to);
+
     /**
      * Fn vector.
      *
@@ -90,28 +139,38 @@ public class Activation implements Serializable {
      * @return the vector
      */
     public Vector fn(Vector in) {
-        return in.map(this.fn);
+        double[] result = in.getData().clone();
+        this.apply(result, 0, result.length);
+        return new Vector(result);
     }
 
     /**
-     * D fn vector.
+     * D cd i vector.
      *
-     * @param out the out
+     * @param out  the out
+     * @param dCdO the d cd o
      * @return the vector
      */
-    public Vector dFn(Vector out) {
-        return out.map(this.dFn);
+    public Vector dCdI(Vector out, Vector dCdO) {
+        double[] result = dCdO.getData().clone();
+        this.derivative(out.getData(), result, 0, result.length);
+        return new Vector(result);
     }
 
     /**
-     * D cd i vector.
+     * D cd i vector of an output layer, computed directly from the expected vector.
+     * Activations able to fuse their derivative with the one of the cost function override it.
      *
-     * @param out  the out
-     * @param dCdO the d cd o
+     * @param out          the out
+     * @param expected     the expected
+     * @param costFunction the cost function
      * @return the vector
      */
-    public Vector dCdI(Vector out, Vector dCdO) {
-        return dCdO.elementProduct(this.dFn(out));
+    public Vector dCdI(Vector out, Vector expected, CostFunction costFunction) {
+        double[] result = new double[out.dimension()];
+        costFunction.getDerivative(expected, out, result);
+        this.derivative(out.getData(), result, 0, result.length);
+        return new Vector(result);
     }
 
     /**
@@ -122,4 +181,372 @@ public class Activation implements Serializable {
     public String getName() {
         return this.name;
     }
+
+    /**
+     * Keep a single instance of each registered activation when a network is deserialized.
+     *
+     * @return the registered activation with the same name, or this one
+     */
+    protected Object readResolve() {
+        Activation activation = Activation.REGISTRY.get(this.name);
+        return activation != null && activation.getClass() == this.getClass() ? activation : this;
+    }
+
+    /**
+     * The type Identity activation, f(x) = x.
+     */
+    public static final class IdentityActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = -2578232134017124217L;
+        /**
+         * Instantiates a new Identity activation.
+         *
+         * @param name the name
+         */
+        public IdentityActivation(String name) {
+            super(name);
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            // Nothing to do
+        }
+
+        /**
+         * Multiply, in place, dCdO by the derivative of the activation on [from, to).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            // Nothing to do, the derivative is 1
+        }
+    }
+
+    /**
+     * The type Leaky ReLU activation, f(x) = x if x &gt; 0, slope * x otherwise (a slope of 0 gives the ReLU).
+     */
+    public static final class LeakyReLUActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 7241779916503874803L;
+        /**
+         * The slope for negative inputs.
+         */
+        private final double slope;
+
+        /**
+         * Instantiates a new Leaky ReLU activation.
+         *
+         * @param name  the name
+         * @param slope the slope for negative inputs
+         */
+        public LeakyReLUActivation(String name, double slope) {
+            super(name);
+            this.slope = slope;
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            double slope = this.slope;
+            for (int i = from; i < to; i++) {
+                double x = data[i];
+                data[i] = x <= 0 ? slope * x : x;
+            }
+        }
+
+        /**
+         * Multiply, in place, dCdO by the derivative of the activation on [from, to).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            double slope = this.slope;
+            for (int i = from; i < to; i++)
+                dCdO[i] *= out[i] <= 0 ? slope : 1;
+        }
+    }
+
+    /**
+     * The type ELU activation, f(x) = x if x &gt; 0, alpha * (e^x - 1) otherwise.
+     */
+    public static final class ELUActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = -4934983679704390626L;
+        /**
+         * The Alpha.
+         */
+        private final double alpha;
+
+        /**
+         * Instantiates a new ELU activation.
+         *
+         * @param name  the name
+         * @param alpha the alpha
+         */
+        public ELUActivation(String name, double alpha) {
+            super(name);
+            this.alpha = alpha;
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            double alpha = this.alpha;
+            for (int i = from; i < to; i++) {
+                double x = data[i];
+                data[i] = x > 0 ? x : alpha * Math.expm1(x);
+            }
+        }
+
+        /**
+         * Multiply, in place, dCdO by the derivative of the activation on [from, to).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            // f'(x) = f(x) + alpha for negative inputs
+            double alpha = this.alpha;
+            for (int i = from; i < to; i++)
+                dCdO[i] *= out[i] > 0 ? 1 : out[i] + alpha;
+        }
+    }
+
+    /**
+     * The type Tanh activation.
+     */
+    public static final class TanhActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = -9151777949311542661L;
+        /**
+         * Instantiates a new Tanh activation.
+         *
+         * @param name the name
+         */
+        public TanhActivation(String name) {
+            super(name);
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            for (int i = from; i < to; i++)
+                data[i] = Math.tanh(data[i]);
+        }
+
+        /**
+         * Multiply, in place, dCdO by the derivative of the activation on [from, to).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            for (int i = from; i < to; i++)
+                dCdO[i] *= 1 - out[i] * out[i];
+        }
+    }
+
+    /**
+     * The type Sigmoid activation, f(x) = 1 / (1 + e^-x).
+     */
+    public static final class SigmoidActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = -1078222712471950168L;
+        /**
+         * Instantiates a new Sigmoid activation.
+         *
+         * @param name the name
+         */
+        public SigmoidActivation(String name) {
+            super(name);
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            for (int i = from; i < to; i++)
+                data[i] = 1 / (1 + Math.exp(-data[i]));
+        }
+
+        /**
+         * Multiply, in place, dCdO by the derivative of the activation on [from, to).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            for (int i = from; i < to; i++)
+                dCdO[i] *= out[i] * (1 - out[i]);
+        }
+    }
+
+    /**
+     * The type Softmax activation, applied over the whole range.
+     * The exponentials are computed once, directly into the output array.
+     */
+    public static final class SoftmaxActivation extends Activation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = -5066296765273301623L;
+        /**
+         * Use the polynomial approximation of exp.
+         */
+        private final boolean fastExp;
+
+        /**
+         * Instantiates a new Softmax activation.
+         *
+         * @param name    the name
+         * @param fastExp use the polynomial approximation of exp
+         */
+        public SoftmaxActivation(String name, boolean fastExp) {
+            super(name);
+            this.fastExp = fastExp;
+        }
+
+        /**
+         * Apply the activation, in place, on data[from, to).
+         *
+         * @param data the weighted inputs, replaced by the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void apply(double[] data, int from, int to) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++)
+                if (data[i] > max) max = data[i];
+
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                data[i] = this.fastExp ? FastMath.exp(data[i] - max) : Math.exp(data[i] - max);
+                sum += data[i];
+            }
+
+            double inverseSum = 1 / sum;
+            for (int i = from; i < to; i++)
+                data[i] *= inverseSum;
+        }
+
+        /**
+         * Multiply, in place, dCdO by the softmax jacobian on [from, to), i.e. out * (dCdO - out.dCdO).
+         *
+         * @param out  the outputs of the activation
+         * @param dCdO the derivative of the cost with respect to the outputs
+         * @param from the first index (inclusive)
+         * @param to   the last index (exclusive)
+         */
+        @Override
+        public void derivative(double[] out, double[] dCdO, int from, int to) {
+            double x = 0;
+            for (int i = from; i < to; i++)
+                x += out[i] * dCdO[i];
+
+            for (int i = from; i < to; i++)
+                dCdO[i] = out[i] * (dCdO[i] - x);
+        }
+
+        /**
+         * D cd i vector of an output layer.
+         * The error and the softmax jacobian are computed together without intermediate vectors:
+         * <ul>
+         *     <li>with MSE, dCdO = k * (out - expected) with k = 2 / n</li>
+         *     <li>with cross entropy, dCdI = out * ∑expected - expected</li>
+         * </ul>
+         *
+         * @param out          the out
+         * @param expected     the expected
+         * @param costFunction the cost function
+         * @return the vector
+         */
+        @Override
+        public Vector dCdI(Vector out, Vector expected, CostFunction costFunction) {
+            double[] o = out.getData();
+            double[] y = expected.getData();
+            double[] result = new double[o.length];
+
+            if (costFunction instanceof CostFunction.MSE) {
+                double k = 2.0 / o.length;
+
+                double x = 0;
+                for (int i = 0; i < o.length; i++)
+                    x += o[i] * (o[i] - y[i]);
+                x *= k;
+
+                for (int i = 0; i < o.length; i++)
+                    result[i] = o[i] * (k * (o[i] - y[i]) - x);
+            } else if (costFunction instanceof CostFunction.CrossEntropy) {
+                double sum = 0;
+                for (double a : y)
+                    sum += a;
+
+                for (int i = 0; i < o.length; i++)
+                    result[i] = o[i] * sum - y[i];
+            } else {
+                costFunction.getDerivative(expected, out, result);
+                this.derivative(o, result, 0, result.length);
+            }
+
+            return new Vector(result);
+        }
+    }
 }
@@ -0,0 +1,282 @@
+package battle.game.players.auto.neuralnet;
+
+import battle.game.players.auto.neuralnet.math.Matrix;
+import battle.game.players.auto.neuralnet.math.Vector;
+
+/**
+ * A 2D convolutional layer, with a stride of 1 and a zero padding keeping the planes size ("same" padding).
+ * Its input is looked at as a C×H×W tensor (see {@link Shape}) and its output is a C'×H×W tensor.
+ * <p>
+ * The weights are a matrix of C' rows (one per output channel) of C×K×K kernel values,
+ * the element (c, ky, kx) of the kernel being at the index (c * K + ky) * K + kx.
+ * There is one bias per output channel. The number of weights does not depend on the planes size,
+ * and the same kernel is used on every position of the board.
+ * <p>
+ * The convolution is computed with direct loops over the flat arrays : for each kernel value,
+ * a whole line of the input plane is multiplied and added to a line of the output plane.
+ */
+public class Conv2D extends Layer {
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 4198342361382804296L;
+    /**
+     * The shape of the input.
+     */
+    private final Shape inputShape;
+    /**
+     * The size of the (square) kernel.
+     */
+    private final int kernelSize;
+    /**
+     * The shape of the output.
+     */
+    private final Shape outputShape;
+
+    /**
+     * Instantiates a new Conv2D layer.
+     *
+     * @param inputShape     the shape of the input
+     * @param outputChannels the number of output channels
+     * @param kernelSize     the size of the kernel, an odd number
+     * @param activation     the activation
+     */
+    public Conv2D(Shape inputShape, int outputChannels, int kernelSize, Activation activation) {
+        this(inputShape, outputChannels, kernelSize, activation, new Vector(outputChannels));
+    }
+
+    /**
+     * Instantiates a new Conv2D layer with its bias.
+     *
+     * @param inputShape     the shape of the input
+     * @param outputChannels the number of output channels
+     * @param kernelSize     the size of the kernel, an odd number
+     * @param activation     the activation
+     * @param bias           the bias, one per output channel
+     */
+    private Conv2D(Shape inputShape, int outputChannels, int kernelSize, Activation activation, Vector bias) {
+        super(outputChannels * inputShape.planeSize(), activation, bias);
+
+        if (kernelSize <= 0 || kernelSize % 2 == 0) {
+            throw new IllegalArgumentException("The kernelSize parameter should be an odd number greater than 0.");
+        }
+
+        this.inputShape = inputShape;
+        this.kernelSize = kernelSize;
+        this.outputShape = new Shape(outputChannels, inputShape.getHeight(), inputShape.getWidth());
+    }
+
+    /**
+     * Create the (empty) kernels of the layer.
+     *
+     * @param inputSize the size of the preceding layer
+     * @return the weights
+     */
+    @Override
+    protected Matrix newWeights(int inputSize) {
+        if (inputSize != this.inputShape.size()) {
+            throw new IllegalArgumentException(String.format("The preceding layer has a size of %d, the input shape %s needs %d", inputSize, this.inputShape, this.inputShape.size()));
+        }
+
+        return new Matrix(this.outputShape.getChannels(), this.inputShape.getChannels() * this.kernelSize * this.kernelSize);
+    }
+
+    /**
+     * Get the number of inputs each output is connected to, i.e. C×K×K.
+     *
+     * @return the fan in
+     */
+    @Override
+    public int getFanIn() {
+        return this.inputShape.getChannels() * this.kernelSize * this.kernelSize;
+    }
+
+    /**
+     * Get the number of outputs each input is connected to, i.e. C'×K×K.
+     *
+     * @return the fan out
+     */
+    @Override
+    public int getFanOut() {
+        return this.outputShape.getChannels() * this.kernelSize * this.kernelSize;
+    }
+
+    /**
+     * Compute the weighted input of the layer, i.e. the convolution of the input plus the bias.
+     *
+     * @param i The input vector
+     * @return the weighted input
+     */
+    @Override
+    protected Vector weightedInput(Vector i) {
+        double[] in = i.getData();
+        double[] out = new double[this.outputShape.size()];
+        double[][] kernels = this.getWeights().getData();
+        double[] bias = this.getBias().getData();
+
+        int planeSize = this.outputShape.planeSize();
+        for (int oc = 0; oc < this.outputShape.getChannels(); oc++) {
+            int outBase = oc * planeSize;
+            for (int k = outBase; k < outBase + planeSize; k++)
+                out[k] = bias[oc];
+
+            this.convolve(kernels[oc], in, 0, out, outBase, false);
+        }
+
+        return new Vector(out);
+    }
+
+    /**
+     * Add the gradient of one sample to some deltas.
+     *
+     * @param i    the input of the layer (output of the preceding layer)
+     * @param dCdI the derivative of the cost with respect to the weighted input of the layer
+     * @param dW   the delta weights to add to
+     * @param dB   the delta bias to add to
+     */
+    @Override
+    public void accumulateGradient(Vector i, Vector dCdI, Matrix dW, double[] dB) {
+        double[] in = i.getData();
+        double[] gradient = dCdI.getData();
+        double[][] deltaKernels = dW.getData();
+
+        int planeSize = this.outputShape.planeSize();
+        int kernelArea = this.kernelSize * this.kernelSize;
+        for (int oc = 0; oc < this.outputShape.getChannels(); oc++) {
+            int outBase = oc * planeSize;
+            for (int k = outBase; k < outBase + planeSize; k++)
+                dB[oc] += gradient[k];
+
+            double[] deltaKernel = deltaKernels[oc];
+            for (int ic = 0; ic < this.inputShape.getChannels(); ic++) {
+                for (int ky = 0; ky < this.kernelSize; ky++) {
+                    for (int kx = 0; kx < this.kernelSize; kx++) {
+                        double sum = 0;
+                        int dy = ky - this.kernelSize / 2;
+                        int dx = kx - this.kernelSize / 2;
+                        int xFrom = Math.max(0, -dx);
+                        int xTo = Math.min(this.inputShape.getWidth(), this.inputShape.getWidth() - dx);
+
+                        for (int y = Math.max(0, -dy); y < Math.min(this.inputShape.getHeight(), this.inputShape.getHeight() - dy); y++) {
+                            int inRow = this.inputShape.index(ic, y + dy, dx);
+                            int outRow = outBase + y * this.inputShape.getWidth();
+                            for (int x = xFrom; x < xTo; x++)
+                                sum += gradient[outRow + x] * in[inRow + x];
+                        }
+                        deltaKernel[ic * kernelArea + ky * this.kernelSize + kx] += sum;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagate the error to the preceding layer (a convolution with the flipped kernels).
+     *
+     * @param dCdI the derivative of the cost with respect to the weighted input of the layer
+     * @return the derivative of the cost with respect to the output of the preceding layer
+     */
+    @Override
+    public Vector propagateError(Vector dCdI) {
+        double[] gradient = dCdI.getData();
+        double[] dCdIn = new double[this.inputShape.size()];
+        double[][] kernels = this.getWeights().getData();
+
+        int planeSize = this.outputShape.planeSize();
+        for (int oc = 0; oc < this.outputShape.getChannels(); oc++) {
+            int outBase = oc * planeSize;
+            this.convolve(kernels[oc], gradient, outBase, dCdIn, 0, true);
+        }
+
+        return new Vector(dCdIn);
+    }
+
+    /**
+     * Convolve the input planes with the kernel of one output channel.
+     * For each non zero kernel value, a whole line of an input plane is multiplied
+     * and added to the matching line of the output plane (or the other way round when transposed).
+     *
+     * @param kernel     the kernel of the output channel
+     * @param source     the data read
+     * @param sourceBase the index of the output plane in source when transposed, unused otherwise
+     * @param target     the data written
+     * @param targetBase the index of the output plane in target when not transposed, unused otherwise
+     * @param transposed false to go from the input planes to the output plane, true to go back
+     */
+    private void convolve(double[] kernel, double[] source, int sourceBase, double[] target, int targetBase, boolean transposed) {
+        int height = this.inputShape.getHeight();
+        int width = this.inputShape.getWidth();
+        int kernelArea = this.kernelSize * this.kernelSize;
+
+        for (int ic = 0; ic < this.inputShape.getChannels(); ic++) {
+            for (int ky = 0; ky < this.kernelSize; ky++) {
+                int dy = ky - this.kernelSize / 2;
+                for (int kx = 0; kx < this.kernelSize; kx++) {
+                    double w = kernel[ic * kernelArea + ky * this.kernelSize + kx];
+                    if (w != 0) {
+                        int dx = kx - this.kernelSize / 2;
+                        int xFrom = Math.max(0, -dx);
+                        int xTo = Math.min(width, width - dx);
+
+                        for (int y = Math.max(0, -dy); y < Math.min(height, height - dy); y++) {
+                            int inRow = this.inputShape.index(ic, y + dy, dx);
+                            int outRow = y * width;
+                            if (transposed) {
+                                for (int x = xFrom; x < xTo; x++)
+                                    target[inRow + x] += w * source[sourceBase + outRow + x];
+                            } else {
+                                for (int x = xFrom; x < xTo; x++)
+                                    target[targetBase + outRow + x] += w * source[inRow + x];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a copy of the layer working on planes of another size. The kernels and the bias do not depend
+     * on the planes size, so the copy gives the same scores to the same neighbourhoods.
+     *
+     * @param height the height of the planes
+     * @param width  the width of the planes
+     * @return the copy, not linked to a preceding layer yet
+     */
+    public Conv2D reshape(int height, int width) {
+        Conv2D layer = new Conv2D(new Shape(this.inputShape.getChannels(), height, width), this.outputShape.getChannels(),
+                this.kernelSize, this.getActivation(), new Vector(this.getBias().getData().clone()));
+        layer.setWeights(this.getWeights().copy());
+        if (this.getOptimizer() != null) {
+            layer.setOptimizer(this.getOptimizer().copy());
+        }
+        return layer;
+    }
+
+    /**
+     * Gets the shape of the input.
+     *
+     * @return the input shape
+     */
+    public Shape getInputShape() {
+        return this.inputShape;
+    }
+
+    /**
+     * Gets the size of the kernel.
+     *
+     * @return the kernel size
+     */
+    public int getKernelSize() {
+        return this.kernelSize;
+    }
+
+    /**
+     * Gets the shape of the output.
+     *
+     * @return the output shape
+     */
+    public Shape getOutputShape() {
+        return this.outputShape;
+    }
+}
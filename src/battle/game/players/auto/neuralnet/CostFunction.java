@@ -22,6 +22,15 @@ public interface CostFunction {
      */
     double getTotal(Vector expected, Vector actual);
 
+    /**
+     * Gets derivative, written into an output buffer so nothing is allocated.
+     *
+     * @param expected   the expected
+     * @param actual     the actual
+     * @param derivative the output buffer, of the same dimension as actual
+     */
+    void getDerivative(Vector expected, Vector actual, double[] derivative);
+
     /**
      * Gets derivative.
      *
@@ -29,7 +38,11 @@ public interface CostFunction {
      * @param actual   the actual
      * @return the derivative
      */
-    Vector getDerivative(Vector expected, Vector actual);
+    default Vector getDerivative(Vector expected, Vector actual) {
+        double[] derivative = new double[actual.dimension()];
+        this.getDerivative(expected, actual, derivative);
+        return new Vector(derivative);
+    }
 
     /**
      * Mean square error, C = 1/n * ∑(y−exp)^2
@@ -54,20 +67,168 @@ public interface CostFunction {
          */
         @Override
         public double getTotal(Vector expected, Vector actual) {
-            Vector diff = expected.sub(actual);
-            return diff.dot(diff) / actual.dimension();
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+
+            double sum = 0;
+            for (int i = 0; i < a.length; i++)
+                sum += (y[i] - a[i]) * (y[i] - a[i]);
+
+            return sum / a.length;
+        }
+
+        /**
+         * Gets derivative.
+         *
+         * @param expected   the expected
+         * @param actual     the actual
+         * @param derivative the output buffer
+         */
+        @Override
+        public void getDerivative(Vector expected, Vector actual, double[] derivative) {
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+            double k = 2.0 / a.length;
+
+            for (int i = 0; i < a.length; i++)
+                derivative[i] = k * (a[i] - y[i]);
+        }
+    }
+
+    /**
+     * Cross entropy, C = −∑exp * ln(y).
+     * Meant to be used after a softmax, in which case the gradient with respect to the
+     * weighted input is simply y * ∑exp − exp (see {@link Activation.SoftmaxActivation}).
+     */
+    class CrossEntropy implements CostFunction {
+        /**
+         * Avoid ln(0) and divisions by 0.
+         */
+        private static final double EPSILON = 1e-12;
+
+        /**
+         * Gets name.
+         *
+         * @return the name
+         */
+        @Override
+        public String getName() {
+            return "CrossEntropy";
+        }
+
+        /**
+         * Gets total.
+         *
+         * @param expected the expected
+         * @param actual   the actual
+         * @return the total
+         */
+        @Override
+        public double getTotal(Vector expected, Vector actual) {
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+
+            double sum = 0;
+            for (int i = 0; i < a.length; i++)
+                if (y[i] != 0) sum -= y[i] * Math.log(a[i] + CrossEntropy.EPSILON);
+
+            return sum;
         }
 
         /**
          * Gets derivative.
          *
+         * @param expected   the expected
+         * @param actual     the actual
+         * @param derivative the output buffer
+         */
+        @Override
+        public void getDerivative(Vector expected, Vector actual, double[] derivative) {
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+
+            for (int i = 0; i < a.length; i++)
+                derivative[i] = -y[i] / (a[i] + CrossEntropy.EPSILON);
+        }
+    }
+
+    /**
+     * Huber loss, C = 1/n * ∑h(y−exp) with h(d) = d^2 / 2 if |d| &lt;= δ, δ * (|d| − δ / 2) otherwise.
+     * Quadratic near the target and linear far from it, so it suits the regression of Q values
+     * where a few large errors should not dominate the gradient.
+     */
+    class Huber implements CostFunction {
+        /**
+         * The Delta, where the loss goes from quadratic to linear.
+         */
+        private final double delta;
+
+        /**
+         * Instantiates a new Huber loss with a delta of 1.
+         */
+        public Huber() {
+            this(1);
+        }
+
+        /**
+         * Instantiates a new Huber loss.
+         *
+         * @param delta the delta
+         */
+        public Huber(double delta) {
+            if (delta <= 0) {
+                throw new IllegalArgumentException("The delta parameter should be a number greater than 0.");
+            }
+
+            this.delta = delta;
+        }
+
+        /**
+         * Gets name.
+         *
+         * @return the name
+         */
+        @Override
+        public String getName() {
+            return "Huber";
+        }
+
+        /**
+         * Gets total.
+         *
          * @param expected the expected
          * @param actual   the actual
-         * @return the derivative
+         * @return the total
          */
         @Override
-        public Vector getDerivative(Vector expected, Vector actual) {
-            return actual.sub(expected).mul(2.0 / actual.dimension());
+        public double getTotal(Vector expected, Vector actual) {
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+
+            double sum = 0;
+            for (int i = 0; i < a.length; i++) {
+                double d = Math.abs(a[i] - y[i]);
+                sum += d <= this.delta ? d * d / 2 : this.delta * (d - this.delta / 2);
+            }
+
+            return sum / a.length;
+        }
+
+        /**
+         * Gets derivative.
+         *
+         * @param expected   the expected
+         * @param actual     the actual
+         * @param derivative the output buffer
+         */
+        @Override
+        public void getDerivative(Vector expected, Vector actual, double[] derivative) {
+            double[] y = expected.getData();
+            double[] a = actual.getData();
+            double k = 1.0 / a.length;
+
+            for (int i = 0; i < a.length; i++)
+                derivative[i] = k * Math.max(-this.delta, Math.min(this.delta, a[i] - y[i]));
         }
     }
 }
@@ -0,0 +1,118 @@
+package battle.game.players.auto.neuralnet;
+
+import battle.game.players.auto.neuralnet.math.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * A private gradient buffer owned by a single training worker.
+ * It holds the not yet realized changes to the weights and biases of every layer of a network,
+ * so several workers can learn at the same time without contending on the layers.
+ * Accumulators are merged together by {@link NeuralNetwork#updateFromLearning(java.util.List)}.
+ */
+public class GradientAccumulator {
+    /**
+     * The Delta bias, indexed by layer (null for the input layer).
+     */
+    private final double[][] deltaBias;
+    /**
+     * The Delta weights, indexed by layer (null for the input layer).
+     */
+    private final Matrix[] deltaWeights;
+    /**
+     * The number of samples added since the last clear.
+     */
+    private int count;
+
+    /**
+     * Instantiates a new Gradient accumulator shaped after the layers of a network.
+     *
+     * @param neuralNetwork the neural network
+     */
+    GradientAccumulator(NeuralNetwork neuralNetwork) {
+        // Check parameters
+        if (neuralNetwork == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        int layerCount = neuralNetwork.getLayers().size();
+        this.deltaWeights = new Matrix[layerCount];
+        this.deltaBias = new double[layerCount][];
+
+        for (int l = 0; l < layerCount; l++) {
+            Layer layer = neuralNetwork.getLayers().get(l);
+            if (layer.hasPrecedingLayer()) {
+                this.deltaWeights[l] = new Matrix(layer.getWeights().rows(), layer.getWeights().cols());
+                this.deltaBias[l] = new double[layer.getBias().dimension()];
+            }
+        }
+    }
+
+    /**
+     * Mark that one more sample has been accumulated.
+     */
+    void countSample() {
+        this.count++;
+    }
+
+    /**
+     * Merge the content of another accumulator into this one.
+     *
+     * @param other the other accumulator
+     */
+    void add(GradientAccumulator other) {
+        for (int l = 0; l < this.deltaWeights.length; l++) {
+            if (this.deltaWeights[l] != null) {
+                this.deltaWeights[l].add(other.deltaWeights[l]);
+
+                double[] dB = this.deltaBias[l];
+                double[] otherDB = other.deltaBias[l];
+                for (int i = 0; i < dB.length; i++)
+                    dB[i] += otherDB[i];
+            }
+        }
+        this.count += other.count;
+    }
+
+    /**
+     * Reset every delta to zero.
+     */
+    void clear() {
+        for (int l = 0; l < this.deltaWeights.length; l++) {
+            if (this.deltaWeights[l] != null) {
+                this.deltaWeights[l].map(a -> 0);
+                Arrays.fill(this.deltaBias[l], 0);
+            }
+        }
+        this.count = 0;
+    }
+
+    /**
+     * Gets the number of samples added since the last clear.
+     *
+     * @return the count
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the delta bias of a layer.
+     *
+     * @param layer the index of the layer
+     * @return the delta bias
+     */
+    double[] getDeltaBias(int layer) {
+        return this.deltaBias[layer];
+    }
+
+    /**
+     * Gets the delta weights of a layer.
+     *
+     * @param layer the index of the layer
+     * @return the delta weights
+     */
+    Matrix getDeltaWeights(int layer) {
+        return this.deltaWeights[layer];
+    }
+}
@@ -2,6 +2,9 @@ package battle.game.players.auto.neuralnet;
 
 import battle.game.players.auto.neuralnet.math.Matrix;
 
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
 /**
  * The interface Initializer.
  */
@@ -15,9 +18,22 @@ public interface Initializer {
     void initWeights(Matrix weights, int layer);
 
     /**
-     * The type Random.
+     * Init weights, knowing the number of inputs and outputs each weight is connected to.
+     * Initializers scaling the weights with the size of the layers override it.
+     *
+     * @param weights the weights
+     * @param fanIn   the number of inputs of each neuron
+     * @param fanOut  the number of outputs of each input
+     * @param layer   the layer
+     */
+    default void initWeights(Matrix weights, int fanIn, int fanOut, int layer) {
+        this.initWeights(weights, layer);
+    }
+
+    /**
+     * The type Random, W ~ U(min, max).
      */
-    class Random implements Initializer {
+    class Random extends Seeded {
         /**
          * The Max.
          */
@@ -28,26 +44,215 @@ public interface Initializer {
         private final double min;
 
         /**
-         * Instantiates a new Random.
+         * Instantiates a new Random, with an unpredictable seed.
          *
          * @param min the min
          * @param max the max
          */
         public Random(double min, double max) {
+            this(min, max, new SplittableRandom().nextLong());
+        }
+
+        /**
+         * Instantiates a new Random.
+         *
+         * @param min  the min
+         * @param max  the max
+         * @param seed the master seed
+         */
+        public Random(double min, double max, long seed) {
+            super(seed);
             this.min = min;
             this.max = max;
         }
 
         /**
-         * Init weights.
+         * Scale of the distribution, the same for every layer.
+         *
+         * @param fanIn  the number of inputs of each neuron
+         * @param fanOut the number of outputs of each input
+         * @return the scale
+         */
+        @Override
+        protected double scale(int fanIn, int fanOut) {
+            return this.max - this.min;
+        }
+
+        /**
+         * Draw a weight.
+         *
+         * @param random the random generator of the chunk
+         * @param scale  the scale of the distribution
+         * @return the weight
+         */
+        @Override
+        protected double sample(SplittableRandom random, double scale) {
+            return this.min + random.nextDouble() * scale;
+        }
+    }
+
+    /**
+     * An initializer filling the weights from a master seed, so that a network is always initialized the same way.
+     * The rows of the weights are split in chunks of a fixed size, each chunk getting its own
+     * {@link SplittableRandom} split from the master one in a fixed order. The chunks are then filled in parallel,
+     * and the result does not depend on the number of threads.
+     */
+    abstract class Seeded implements Initializer {
+        /**
+         * The number of rows filled by each task.
+         */
+        private static final int CHUNK_ROWS = 16;
+        /**
+         * The master seed.
+         */
+        private final long seed;
+
+        /**
+         * Instantiates a new Seeded initializer.
+         *
+         * @param seed the master seed
+         */
+        protected Seeded(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * Init weights, using the rows and columns of the weights as fan in and fan out.
          *
          * @param weights the weights
          * @param layer   the layer
          */
         @Override
         public void initWeights(Matrix weights, int layer) {
-            double delta = this.max - this.min;
-            weights.map(value -> this.min + Math.random() * delta);
+            this.initWeights(weights, weights.rows(), weights.cols(), layer);
+        }
+
+        /**
+         * Init weights.
+         *
+         * @param weights the weights
+         * @param fanIn   the number of inputs of each neuron
+         * @param fanOut  the number of outputs of each input
+         * @param layer   the layer
+         */
+        @Override
+        public void initWeights(Matrix weights, int fanIn, int fanOut, int layer) {
+            double scale = this.scale(fanIn, fanOut);
+            double[][] data = weights.getData();
+
+            // Each layer has its own stream, the layer-th split of the root, and each chunk its own split of it.
+            // The streams of the layers are all split from the root : a layer never gets the stream of a chunk of another
+            SplittableRandom root = new SplittableRandom(this.seed);
+            SplittableRandom master = root.split();
+            for (int l = 0; l < layer; l++)
+                master = root.split();
+
+            SplittableRandom[] randoms = new SplittableRandom[(data.length + Seeded.CHUNK_ROWS - 1) / Seeded.CHUNK_ROWS];
+            for (int c = 0; c < randoms.length; c++)
+                randoms[c] = master.split();
+
+            IntStream.range(0, randoms.length).parallel().forEach(c -> {
+                SplittableRandom random = randoms[c];
+                for (int row = c * Seeded.CHUNK_ROWS; row < Math.min(data.length, (c + 1) * Seeded.CHUNK_ROWS); row++)
+                    for (int col = 0; col < data[row].length; col++)
+                        data[row][col] = this.sample(random, scale);
+            });
+        }
+
+        /**
+         * Compute the scale of the distribution of the weights of a layer.
+         *
+         * @param fanIn  the number of inputs of each neuron
+         * @param fanOut the number of outputs of each input
+         * @return the scale
+         */
+        protected abstract double scale(int fanIn, int fanOut);
+
+        /**
+         * Draw a weight.
+         *
+         * @param random the random generator of the chunk
+         * @param scale  the scale of the distribution
+         * @return the weight
+         */
+        protected abstract double sample(SplittableRandom random, double scale);
+    }
+
+    /**
+     * Xavier / Glorot initialization, W ~ U(-√(6 / (fanIn + fanOut)), √(6 / (fanIn + fanOut))).
+     * Suited to symmetric activations (tanh, sigmoid, softmax).
+     */
+    class Xavier extends Seeded {
+        /**
+         * Instantiates a new Xavier initializer.
+         *
+         * @param seed the master seed
+         */
+        public Xavier(long seed) {
+            super(seed);
+        }
+
+        /**
+         * Scale of the distribution.
+         *
+         * @param fanIn  the number of inputs of each neuron
+         * @param fanOut the number of outputs of each input
+         * @return the scale
+         */
+        @Override
+        protected double scale(int fanIn, int fanOut) {
+            return Math.sqrt(6.0 / (fanIn + fanOut));
+        }
+
+        /**
+         * Draw a weight.
+         *
+         * @param random the random generator of the chunk
+         * @param scale  the scale of the distribution
+         * @return the weight
+         */
+        @Override
+        protected double sample(SplittableRandom random, double scale) {
+            return (2 * random.nextDouble() - 1) * scale;
+        }
+    }
+
+    /**
+     * He initialization, W ~ N(0, 2 / fanIn).
+     * Suited to the ReLU family of activations.
+     */
+    class He extends Seeded {
+        /**
+         * Instantiates a new He initializer.
+         *
+         * @param seed the master seed
+         */
+        public He(long seed) {
+            super(seed);
+        }
+
+        /**
+         * Scale of the distribution.
+         *
+         * @param fanIn  the number of inputs of each neuron
+         * @param fanOut the number of outputs of each input
+         * @return the scale
+         */
+        @Override
+        protected double scale(int fanIn, int fanOut) {
+            return Math.sqrt(2.0 / fanIn);
+        }
+
+        /**
+         * Draw a weight.
+         *
+         * @param random the random generator of the chunk
+         * @param scale  the scale of the distribution
+         * @return the weight
+         */
+        @Override
+        protected double sample(SplittableRandom random, double scale) {
+            return random.nextGaussian() * scale;
         }
     }
 }
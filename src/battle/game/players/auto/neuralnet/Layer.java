@@ -3,6 +3,8 @@ package battle.game.players.auto.neuralnet;
 import battle.game.players.auto.neuralnet.math.Matrix;
 import battle.game.players.auto.neuralnet.math.Vector;
 import battle.game.players.auto.neuralnet.optimizer.Optimizer;
+import battle.trace.LayerEvaluateEvent;
+import battle.trace.Tracing;
 
 import java.io.Serializable;
 
@@ -11,6 +13,10 @@ import java.io.Serializable;
  * Contains the weights and biases coming into this layer.
  */
 public class Layer implements Serializable {
+    /**
+     * The version of the serialized form, the one the bundled network was saved with.
+     */
+    private static final long serialVersionUID = -480569120528775133L;
     /**
      * The Activation.
      */
@@ -91,7 +97,7 @@ public class Layer implements Serializable {
     public Layer(int size, Activation activation, Vector bias) {
         this.size = size;
         this.bias = bias;
-        this.deltaBias = new Vector(size);
+        this.deltaBias = new Vector(bias.dimension());
         this.activation = activation;
     }
 
@@ -112,12 +118,115 @@ public class Layer implements Serializable {
      * @return The out vector o (i.e. the result of o = iW + b)
      */
     public Vector evaluate(Vector i) {
+        this.out = this.forward(i);
+        return this.out;
+    }
+
+    /**
+     * Feed the in-vector, i, through this layer without storing anything.
+     * Safe to call from several threads as long as the weights are not updated meanwhile.
+     * Both the evaluation of a learning network and the prediction of a shared one come here, and are traced.
+     *
+     * @param i The input vector
+     * @return The out vector o (i.e. the result of o = iW + b)
+     */
+    public Vector forward(Vector i) {
+        LayerEvaluateEvent event = Tracing.ENABLED ? Tracing.begin(new LayerEvaluateEvent()) : null;
+        Vector o;
         if (!this.hasPrecedingLayer()) {
-            this.out = i;    // No calculation i input layer, just store data
+            o = i;    // No calculation i input layer
         } else {
-            this.out = this.activation.fn(i.mul(this.weights).add(this.bias));
+            // The weighted input is a fresh vector, the activation is applied on it in place
+            o = this.weightedInput(i);
+            this.activation.apply(o.getData(), 0, o.dimension());
         }
-        return this.out;
+        if (event != null) {
+            event.type = this.getClass().getSimpleName();
+            event.size = this.size;
+            event.commit();
+        }
+        return o;
+    }
+
+    /**
+     * Compute the weighted input of the layer, i.e. iW + b, in a new vector.
+     *
+     * @param i The input vector
+     * @return the weighted input
+     */
+    protected Vector weightedInput(Vector i) {
+        Vector z = i.mul(this.weights);
+        double[] data = z.getData();
+        double[] bias = this.bias.getData();
+        for (int k = 0; k < data.length; k++)
+            data[k] += bias[k];
+
+        return z;
+    }
+
+    /**
+     * Create the (empty) weights between the preceding layer and this one.
+     *
+     * @param inputSize the size of the preceding layer
+     * @return the weights
+     */
+    protected Matrix newWeights(int inputSize) {
+        return new Matrix(inputSize, this.size);
+    }
+
+    /**
+     * Get the number of inputs each neuron of the layer is connected to.
+     *
+     * @return the fan in
+     */
+    public int getFanIn() {
+        return this.weights.rows();
+    }
+
+    /**
+     * Get the number of neurons of the layer each input is connected to.
+     *
+     * @return the fan out
+     */
+    public int getFanOut() {
+        return this.weights.cols();
+    }
+
+    /**
+     * Add the gradient of one sample to some deltas, i.e. dC/dW = i ⊗ dC/dI and dC/dB = dC/dI.
+     * The outer product is accumulated in place, so no matrix is allocated.
+     *
+     * @param i    the input of the layer (output of the preceding layer)
+     * @param dCdI the derivative of the cost with respect to the weighted input of the layer
+     * @param dW   the delta weights to add to
+     * @param dB   the delta bias to add to
+     */
+    public void accumulateGradient(Vector i, Vector dCdI, Matrix dW, double[] dB) {
+        double[][] deltaWeights = dW.getData();
+        double[] gradient = dCdI.getData();
+        double[] input = i.getData();
+
+        for (int j = 0; j < input.length; j++) {
+            double a = input[j];
+            if (a != 0) {
+                double[] row = deltaWeights[j];
+                for (int k = 0; k < gradient.length; k++)
+                    row[k] += a * gradient[k];
+            }
+        }
+
+        for (int k = 0; k < gradient.length; k++)
+            dB[k] += gradient[k];
+    }
+
+    /**
+     * Propagate the error to the preceding layer.
+     *
+     * @param dCdI the derivative of the cost with respect to the weighted input of the layer
+     * @return the derivative of the cost with respect to the output of the preceding layer
+     */
+    public Vector propagateError(Vector dCdI) {
+        return this.weights.multiply(dCdI);
     }
 
     /**
@@ -143,6 +252,20 @@ public class Layer implements Serializable {
         this.deltaBiasAdded++;
     }
 
+    /**
+     * Add upcoming changes to the Weights and Biases, computed from the
+     * input of the layer and the derivative of the cost with respect to its weighted input.
+     * This does not mean that the network is updated.
+     *
+     * @param i    the input of the layer
+     * @param dCdI the derivative of the cost with respect to the weighted input of the layer
+     */
+    public synchronized void addGradient(Vector i, Vector dCdI) {
+        this.accumulateGradient(i, dCdI, this.deltaWeights, this.deltaBias.getData());
+        this.deltaWeightsAdded++;
+        this.deltaBiasAdded++;
+    }
+
     /**
      * Takes an average of all added Weights and Biases and tell the
      * optimizer to apply them to the current weights and biases.
@@ -165,6 +288,30 @@ public class Layer implements Serializable {
         }
     }
 
+    /**
+     * Takes an average of externally gathered Weights and Biases deltas
+     * (see {@link GradientAccumulator}) and tell the optimizer to apply them.
+     *
+     * @param dW    the summed delta weights
+     * @param dB    the summed delta bias
+     * @param count the number of samples summed in the deltas
+     */
+    public synchronized void updateWeightsAndBias(Matrix dW, double[] dB, int count) {
+        if (count > 0) {
+            this.optimizer.updateWeights(this.weights, dW.mul(1.0 / count));
+            this.bias = this.optimizer.updateBias(this.bias, new Vector(dB).mul(1.0 / count));
+        }
+    }
+
+    /**
+     * Gets optimizer.
+     *
+     * @return the optimizer
+     */
+    Optimizer getOptimizer() {
+        return this.optimizer;
+    }
+
     /**
      * Sets optimizer.
      *
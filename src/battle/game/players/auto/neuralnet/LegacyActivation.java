@@ -0,0 +1,112 @@
+package battle.game.players.auto.neuralnet;
+
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+
+/**
+ * An activation of a network saved when the activations were functions (a name and two serialized lambdas).
+ * It is read in place of the saved activation by {@link NetworkInputStream}, then replaced by the registered
+ * activation of the same name (see {@link Activation#forName(String)}).
+ */
+class LegacyActivation implements Serializable {
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 2106683051080407756L;
+    /**
+     * The saved derivative, dropped.
+     */
+    private Object dFn;
+    /**
+     * The saved function, dropped.
+     */
+    private Object fn;
+    /**
+     * The Name.
+     */
+    private String name;
+
+    /**
+     * Replace the saved activation by the registered activation of the same name.
+     *
+     * @return the registered activation
+     * @throws InvalidObjectException if no activation is registered with the name
+     */
+    protected Object readResolve() throws InvalidObjectException {
+        try {
+            return Activation.forName(this.name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException("No activation registered with the name " + this.name + ".");
+        }
+    }
+
+    /**
+     * A saved activation overriding the functions, such as the softmax.
+     */
+    static class Subclass extends LegacyActivation {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 2387105085191457087L;
+    }
+
+    /**
+     * A saved function of an activation, read in place of its serialized lambda which cannot be resolved any more.
+     * The fields are those of {@link java.lang.invoke.SerializedLambda}.
+     */
+    static final class Function implements Serializable {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 8025925345765570181L;
+        /**
+         * The Implementation method kind.
+         */
+        private int implMethodKind;
+        /**
+         * The Captured arguments.
+         */
+        private Object[] capturedArgs;
+        /**
+         * The Capturing class.
+         */
+        private Class<?> capturingClass;
+        /**
+         * The Functional interface class.
+         */
+        private String functionalInterfaceClass;
+        /**
+         * The Functional interface method name.
+         */
+        private String functionalInterfaceMethodName;
+        /**
+         * The Functional interface method signature.
+         */
+        private String functionalInterfaceMethodSignature;
+        /**
+         * The Implementation class.
+         */
+        private String implClass;
+        /**
+         * The Implementation method name.
+         */
+        private String implMethodName;
+        /**
+         * The Implementation method signature.
+         */
+        private String implMethodSignature;
+        /**
+         * The Instantiated method type.
+         */
+        private String instantiatedMethodType;
+
+        /**
+         * Drop the saved function, the activation being found by its name.
+         *
+         * @return null
+         */
+        private Object readResolve() {
+            return null;
+        }
+    }
+}
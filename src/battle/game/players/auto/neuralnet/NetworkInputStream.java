@@ -0,0 +1,65 @@
+package battle.game.players.auto.neuralnet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.lang.invoke.SerializedLambda;
+
+/**
+ * The stream reading the saved networks (see {@link NeuralNetwork#loadNN(InputStream)}).
+ * The activations of the networks saved when they were functions, such as the bundled network, are read
+ * as {@link LegacyActivation}, which are replaced by the registered activations of the same names.
+ */
+final class NetworkInputStream extends ObjectInputStream {
+    /**
+     * The version of the serialized form of the activations when they were functions.
+     */
+    private static final long LEGACY_ACTIVATION_UID = 2106683051080407756L;
+    /**
+     * The name of the class of the softmax when the activations were functions.
+     */
+    private static final String LEGACY_SUBCLASS_NAME = Activation.class.getName() + "$1";
+    /**
+     * The version of the serialized form of the softmax when the activations were functions.
+     */
+    private static final long LEGACY_SUBCLASS_UID = 2387105085191457087L;
+    /**
+     * The version of the serialized form of the lambdas.
+     */
+    private static final long SERIALIZED_LAMBDA_UID = 8025925345765570181L;
+
+    /**
+     * Instantiates a new Network input stream.
+     *
+     * @param input the serialized network
+     * @throws IOException if the header of the stream cannot be read
+     */
+    NetworkInputStream(InputStream input) throws IOException {
+        super(input);
+    }
+
+    /**
+     * Read a class descriptor, the ones of the activations saved as functions being replaced by
+     * the ones of {@link LegacyActivation}, which have the same fields.
+     *
+     * @return the class descriptor
+     * @throws IOException            if the descriptor cannot be read
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        ObjectStreamClass descriptor = super.readClassDescriptor();
+        String name = descriptor.getName();
+        long uid = descriptor.getSerialVersionUID();
+
+        if (name.equals(Activation.class.getName()) && uid == NetworkInputStream.LEGACY_ACTIVATION_UID) {
+            return ObjectStreamClass.lookup(LegacyActivation.class);
+        } else if (name.equals(NetworkInputStream.LEGACY_SUBCLASS_NAME) && uid == NetworkInputStream.LEGACY_SUBCLASS_UID) {
+            return ObjectStreamClass.lookup(LegacyActivation.Subclass.class);
+        } else if (name.equals(SerializedLambda.class.getName()) && uid == NetworkInputStream.SERIALIZED_LAMBDA_UID) {
+            return ObjectStreamClass.lookup(LegacyActivation.Function.class);
+        }
+        return descriptor;
+    }
+}
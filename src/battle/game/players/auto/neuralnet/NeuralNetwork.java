@@ -4,21 +4,38 @@ import battle.game.players.auto.neuralnet.math.Matrix;
 import battle.game.players.auto.neuralnet.math.Vector;
 import battle.game.players.auto.neuralnet.optimizer.GradientDescent;
 import battle.game.players.auto.neuralnet.optimizer.Optimizer;
+import battle.metrics.Gauge;
+import battle.metrics.LatencyHistogram;
+import battle.metrics.MetricsRegistry;
+import battle.trace.LearnFromEvent;
+import battle.trace.Tracing;
+import battle.trace.UpdateFromLearningEvent;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * The type Neural network.
  */
 public final class NeuralNetwork implements Serializable {
+    /**
+     * The version of the serialized form, the one the bundled network was saved with, fixed so that it and the
+     * networks saved since (see {@link #saveNN()}) can still be loaded when methods are added.
+     */
+    private static final long serialVersionUID = -8293357829420023615L;
+    /**
+     * The weight of a new cost in the moving average of the cost metric.
+     */
+    private static final double COST_SMOOTHING = 0.01;
     /**
      * The Cost function.
      */
@@ -35,6 +52,26 @@ public final class NeuralNetwork implements Serializable {
      * The Optimizer.
      */
     private transient final Optimizer optimizer;
+    /**
+     * The time spent in the last reduction of the gradient accumulators, in nanoseconds.
+     */
+    private transient long lastReductionNanos;
+    /**
+     * The latency of the backpropagations, null when the metrics are not recorded.
+     */
+    private transient LatencyHistogram backpropLatency;
+    /**
+     * The moving average of the cost, null when the metrics are not recorded.
+     */
+    private transient Gauge cost;
+    /**
+     * The latency of the evaluations, null when the metrics are not recorded.
+     */
+    private transient LatencyHistogram inferenceLatency;
+    /**
+     * The latency of the updates of the weights, null when the metrics are not recorded.
+     */
+    private transient LatencyHistogram updateLatency;
 
     /**
      * Creates a neural network given the configuration set in the builder
@@ -55,9 +92,9 @@ public final class NeuralNetwork implements Serializable {
 
         for (int i = 0; i < nb.layers.size(); i++) {
             Layer layer = nb.layers.get(i);
-            Matrix w = new Matrix(precedingLayer.size(), layer.size());
-            nb.initializer.initWeights(w, i);
+            Matrix w = layer.newWeights(precedingLayer.size());
             layer.setWeights(w);    // Each layer contains the weights between preceding layer and itself
+            nb.initializer.initWeights(w, layer.getFanIn(), layer.getFanOut(), i);
             layer.setOptimizer(this.optimizer.copy());
             layer.setPrecedingLayer(precedingLayer);
             this.layers.add(layer);
@@ -66,6 +103,33 @@ public final class NeuralNetwork implements Serializable {
         }
     }
 
+    /**
+     * Creates a copy of a fully convolutional network working on planes of another size
+     *
+     * @param network the network
+     * @param height  the height of the planes
+     * @param width   the width of the planes
+     */
+    private NeuralNetwork(NeuralNetwork network, int height, int width) {
+        if (!network.isConvolutional()) {
+            throw new IllegalStateException("Only a fully convolutional network can work on planes of another size.");
+        }
+
+        this.costFunction = network.costFunction;
+        this.optimizer = network.optimizer;
+        this.networkInputSize = ((Conv2D) network.layers.get(1)).getInputShape().getChannels() * height * width;
+
+        Layer precedingLayer = new Layer(this.networkInputSize, Activation.Identity);
+        this.layers.add(precedingLayer);
+        for (int l = 1; l < network.layers.size(); l++) {
+            Layer layer = ((Conv2D) network.layers.get(l)).reshape(height, width);
+            layer.setPrecedingLayer(precedingLayer);
+            this.layers.add(layer);
+
+            precedingLayer = layer;
+        }
+    }
+
     /**
      * Load nn neural network.
      *
@@ -73,7 +137,7 @@ public final class NeuralNetwork implements Serializable {
      */
     public static NeuralNetwork loadNN() {
         NeuralNetwork neuralNetwork = null;
-        try (ObjectInputStream o = new ObjectInputStream(NeuralNetwork.class.getResourceAsStream("/battle/game/players/auto/neuralnet/trained_nn.ser"))) {
+        try (ObjectInputStream o = new NetworkInputStream(NeuralNetwork.class.getResourceAsStream("/battle/game/players/auto/neuralnet/trained_nn.ser"))) {
             neuralNetwork = (NeuralNetwork) o.readObject();
         } catch (IOException | ClassNotFoundException ioException) {
             ioException.printStackTrace();
@@ -82,6 +146,28 @@ public final class NeuralNetwork implements Serializable {
         return neuralNetwork;
     }
 
+    /**
+     * Load a neural network saved with {@link #saveNN()}, such as a checkpoint of a training.
+     * The networks saved when the activations were functions are read too (see {@link NetworkInputStream}).
+     *
+     * @param input the serialized network, not closed
+     * @return the neural network
+     * @throws IOException if the network cannot be read
+     */
+    public static NeuralNetwork loadNN(InputStream input) throws IOException {
+        // Check parameters
+        if (input == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        ObjectInputStream o = new NetworkInputStream(input);
+        try {
+            return (NeuralNetwork) o.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("The input does not hold a neural network.", e);
+        }
+    }
+
     /**
      * Save nn.
      */
@@ -95,6 +181,34 @@ public final class NeuralNetwork implements Serializable {
         }
     }
 
+    /**
+     * Create a copy of the network working on planes of another size, e.g. the grid of another board.
+     * Only a fully convolutional network (see {@link #isConvolutional()}) can be reshaped : its weights
+     * do not depend on the planes size, so one trained network plays on every board.
+     * The copy learns apart from the network.
+     *
+     * @param height the height of the planes
+     * @param width  the width of the planes
+     * @return the copy
+     */
+    public NeuralNetwork reshape(int height, int width) {
+        return new NeuralNetwork(this, height, width);
+    }
+
+    /**
+     * Is every layer but the input one a {@link Conv2D}, the network then working on planes of any size
+     * (see {@link #reshape(int, int)}).
+     *
+     * @return the answer
+     */
+    public boolean isConvolutional() {
+        boolean convolutional = this.layers.size() > 1;
+        for (int l = 1; l < this.layers.size(); l++) {
+            convolutional &= this.layers.get(l) instanceof Conv2D;
+        }
+        return convolutional;
+    }
+
     /**
      * Evaluates an input vector, returning the networks output,
      * without cost or learning anything from it.
@@ -106,6 +220,29 @@ public final class NeuralNetwork implements Serializable {
         return this.evaluate(input, null);
     }
 
+    /**
+     * Evaluates an input vector without storing anything in the layers.
+     * Several threads can therefore share a network, as long as it does not learn meanwhile.
+     *
+     * @param input the input
+     * @return the output
+     */
+    public Vector predict(Vector input) {
+        // Check parameters
+        if (input == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        long start = this.inferenceLatency != null ? System.nanoTime() : 0;
+        Vector signal = input;
+        for (Layer layer : this.layers)
+            signal = layer.forward(signal);
+        if (this.inferenceLatency != null)
+            this.inferenceLatency.record(System.nanoTime() - start);
+
+        return signal;
+    }
+
     /**
      * Evaluates an input vector, returning the networks output.
      * If <code>expected</code> is specified the result will contain
@@ -117,9 +254,12 @@ public final class NeuralNetwork implements Serializable {
      * @return the result
      */
     public Result evaluate(Vector input, Vector expected) {
+        long start = this.inferenceLatency != null ? System.nanoTime() : 0;
         Vector signal = input;
         for (Layer layer : this.layers)
             signal = layer.evaluate(signal);
+        if (this.inferenceLatency != null)
+            this.inferenceLatency.record(System.nanoTime() - start);
 
         if (expected != null) {
             this.learnFrom(expected);
@@ -141,25 +281,89 @@ public final class NeuralNetwork implements Serializable {
      * @param expected the expected
      */
     public void learnFrom(Vector expected) {
-        Layer layer = this.getLastLayer();
+        LearnFromEvent event = Tracing.ENABLED ? Tracing.begin(new LearnFromEvent()) : null;
+        long start = this.backpropLatency != null ? System.nanoTime() : 0;
+        Vector[] outs = new Vector[this.layers.size()];
+        for (int l = 0; l < outs.length; l++)
+            outs[l] = this.layers.get(l).getOut();
+
+        this.backpropagate(outs, expected, null);
+
+        if (this.backpropLatency != null) {
+            this.backpropLatency.record(System.nanoTime() - start);
+            this.cost.smooth(this.costFunction.getTotal(expected, outs[outs.length - 1]), NeuralNetwork.COST_SMOOTHING);
+        }
+        Tracing.commit(event);
+    }
+
+    /**
+     * Same as <code>learnFrom(expected)</code> but for a worker owning a private
+     * {@link GradientAccumulator}: the input is fed through the net without touching
+     * the state of the layers and the deltas are stored in the accumulator only.
+     * Several workers can therefore learn at the same time, as long as the weights
+     * are not updated meanwhile.
+     *
+     * @param input       the input
+     * @param expected    the expected
+     * @param accumulator the private gradient buffer of the worker
+     * @return the cost of the evaluation
+     */
+    public double learnFrom(Vector input, Vector expected, GradientAccumulator accumulator) {
+        // Check parameters
+        if (input == null || expected == null || accumulator == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
 
-        // The error is initially the derivative of the cost-function.
-        Vector dCdO = this.costFunction.getDerivative(expected, layer.getOut());
+        Vector[] outs = new Vector[this.layers.size()];
+        Vector signal = input;
+        for (int l = 0; l < outs.length; l++) {
+            signal = this.layers.get(l).forward(signal);
+            outs[l] = signal;
+        }
 
-        // iterate backwards through the layers
-        do {
-            Vector dCdI = layer.getActivation().dCdI(layer.getOut(), dCdO);
-            Matrix dCdW = dCdI.outerProduct(layer.getPrecedingLayer().getOut());
+        this.backpropagate(outs, expected, accumulator);
+        accumulator.countSample();
+
+        return this.costFunction.getTotal(expected, signal);
+    }
+
+    /**
+     * Backpropagate the error between the expected vector and the output of the net.
+     *
+     * @param outs        the outputs of each layer
+     * @param expected    the expected
+     * @param accumulator where to store the deltas, or null to store them in the layers
+     */
+    private void backpropagate(Vector[] outs, Vector expected, GradientAccumulator accumulator) {
+        int last = outs.length - 1;
+        Vector dCdO = null;
+
+        // iterate backwards through the layers, stop when we are at input layer
+        for (int l = last; l > 0; l--) {
+            Layer layer = this.layers.get(l);
+
+            // The error is initially the derivative of the cost-function, fused with the activation when possible
+            Vector dCdI;
+            if (l == last) {
+                dCdI = layer.getActivation().dCdI(outs[l], expected, this.costFunction);
+            } else {
+                // dCdO is a fresh vector, it becomes dCdI in place
+                layer.getActivation().derivative(outs[l].getData(), dCdO.getData(), 0, dCdO.dimension());
+                dCdI = dCdO;
+            }
 
             // Store the deltas for weights and biases
-            layer.addDeltaWeightsAndBiases(dCdW, dCdI);
+            if (accumulator == null) {
+                layer.addGradient(outs[l - 1], dCdI);
+            } else {
+                layer.accumulateGradient(outs[l - 1], dCdI, accumulator.getDeltaWeights(l), accumulator.getDeltaBias(l));
+            }
 
             // prepare error propagation and store for next iteration
-            dCdO = layer.getWeights().multiply(dCdI);
-
-            layer = layer.getPrecedingLayer();
+            if (l > 1) {
+                dCdO = layer.propagateError(dCdI);
+            }
         }
-        while (layer.hasPrecedingLayer());     // Stop when we are at input layer
     }
 
     /**
@@ -168,9 +372,136 @@ public final class NeuralNetwork implements Serializable {
      * collected during evaluation & training.
      */
     public synchronized void updateFromLearning() {
+        UpdateFromLearningEvent event = Tracing.ENABLED ? Tracing.begin(new UpdateFromLearningEvent()) : null;
+        long start = this.updateLatency != null ? System.nanoTime() : 0;
         for (Layer layer : this.layers)
             if (layer.hasPrecedingLayer())         // Skip input layer
                 layer.updateWeightsAndBias();
+        if (this.updateLatency != null)
+            this.updateLatency.record(System.nanoTime() - start);
+        Tracing.commit(event);
+    }
+
+    /**
+     * Synchronous data-parallel version of <code>updateFromLearning()</code>.
+     * The private buffers of all the workers are summed with a parallel tree
+     * reduction (pairs at distance 1, then 2, then 4...), so the order of the
+     * additions, and thus the result, does not depend on the threads scheduling.
+     * The sum is then given to the optimizer and every accumulator is cleared.
+     * <p>
+     * The time spent in the reduction is available through {@link #getLastReductionNanos()}.
+     *
+     * @param accumulators the accumulators of the workers
+     */
+    public synchronized void updateFromLearning(List<GradientAccumulator> accumulators) {
+        // Check parameters
+        if (accumulators == null || accumulators.isEmpty()) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        long start = System.nanoTime();
+        int count = accumulators.size();
+        for (int stride = 1; stride < count; stride *= 2) {
+            int finalStride = stride;
+            IntStream.range(0, (count + 2 * stride - 1) / (2 * stride))
+                    .parallel()
+                    .map(pair -> pair * 2 * finalStride)
+                    .filter(i -> i + finalStride < count)
+                    .forEach(i -> accumulators.get(i).add(accumulators.get(i + finalStride)));
+        }
+        this.lastReductionNanos = System.nanoTime() - start;
+
+        GradientAccumulator sum = accumulators.get(0);
+        for (int l = 0; l < this.layers.size(); l++) {
+            Layer layer = this.layers.get(l);
+            if (layer.hasPrecedingLayer())         // Skip input layer
+                layer.updateWeightsAndBias(sum.getDeltaWeights(l), sum.getDeltaBias(l), sum.getCount());
+        }
+
+        for (GradientAccumulator accumulator : accumulators)
+            accumulator.clear();
+    }
+
+    /**
+     * Train the net on a mini batch, one worker per accumulator.
+     * The batch is split in contiguous shards (one per worker), each worker learns
+     * its shard in its own accumulator and the accumulators are then reduced and
+     * applied by <code>updateFromLearning(accumulators)</code>.
+     *
+     * @param inputs       the inputs of the batch
+     * @param expected     the expected outputs of the batch
+     * @param accumulators the accumulators of the workers (see {@link #newGradientAccumulator()})
+     * @return the average cost over the batch
+     */
+    public double train(List<Vector> inputs, List<Vector> expected, List<GradientAccumulator> accumulators) {
+        // Check parameters
+        if (inputs == null || expected == null || accumulators == null || accumulators.isEmpty()) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (inputs.size() != expected.size()) {
+            throw new IllegalArgumentException("The inputs and expected parameters should have the same size.");
+        }
+
+        int workers = accumulators.size();
+        int batchSize = inputs.size();
+        double[] costs = new double[workers];
+
+        IntStream.range(0, workers).parallel().forEach(w -> {
+            int from = (int) ((long) batchSize * w / workers);
+            int to = (int) ((long) batchSize * (w + 1) / workers);
+            for (int i = from; i < to; i++)
+                costs[w] += this.learnFrom(inputs.get(i), expected.get(i), accumulators.get(w));
+        });
+
+        this.updateFromLearning(accumulators);
+
+        double cost = 0;
+        for (double workerCost : costs)
+            cost += workerCost;
+        cost = batchSize > 0 ? cost / batchSize : 0;
+
+        if (this.cost != null)
+            this.cost.smooth(cost, NeuralNetwork.COST_SMOOTHING);
+        return cost;
+    }
+
+    /**
+     * Create a private gradient buffer shaped after this net, to be owned by one training worker.
+     *
+     * @return the gradient accumulator
+     */
+    public GradientAccumulator newGradientAccumulator() {
+        return new GradientAccumulator(this);
+    }
+
+    /**
+     * Record the latency of the evaluations, backpropagations and updates, and a moving average of the cost,
+     * in a registry under a prefix (prefix.inferenceNanos, prefix.backpropNanos, prefix.updateNanos and prefix.cost).
+     * The metrics are not recorded by default, and then cost nothing more than a null check.
+     *
+     * @param registry the registry, or null to stop recording
+     * @param prefix   the prefix of the names of the metrics
+     */
+    public void recordMetrics(MetricsRegistry registry, String prefix) {
+        if (registry == null) {
+            this.inferenceLatency = null;
+            this.backpropLatency = null;
+            this.updateLatency = null;
+            this.cost = null;
+        } else {
+            this.cost = registry.gauge(prefix + ".cost");
+            this.updateLatency = registry.histogram(prefix + ".updateNanos");
+            this.backpropLatency = registry.histogram(prefix + ".backpropNanos");
+            this.inferenceLatency = registry.histogram(prefix + ".inferenceNanos");
+        }
+    }
+
+    /**
+     * Gets the time spent in the last reduction of the gradient accumulators.
+     *
+     * @return the reduction time in nanoseconds
+     */
+    public long getLastReductionNanos() {
+        return this.lastReductionNanos;
     }
 
     // --------------------------------------------------------------------
@@ -184,6 +515,30 @@ public final class NeuralNetwork implements Serializable {
         return this.layers.get(this.layers.size() - 1);
     }
 
+    /**
+     * Get the number of weights and biases of the net.
+     *
+     * @return the parameter count
+     */
+    public long getParameterCount() {
+        long count = 0;
+        for (Layer layer : this.layers) {
+            if (layer.hasPrecedingLayer()) {
+                count += (long) layer.getWeights().rows() * layer.getWeights().cols() + layer.getBias().dimension();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets cost function.
+     *
+     * @return the cost function
+     */
+    public CostFunction getCostFunction() {
+        return this.costFunction;
+    }
+
     /**
      * Gets layers.
      *
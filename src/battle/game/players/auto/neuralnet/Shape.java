@@ -0,0 +1,111 @@
+package battle.game.players.auto.neuralnet;
+
+import java.io.Serializable;
+
+/**
+ * The shape of a C×H×W tensor stored in a flat vector, channel after channel and line after line :
+ * the element (c, y, x) is at the index (c * height + y) * width + x.
+ * It is used to look at a flat input (e.g. the hit and busy planes of a grid) as a stack of 2D planes.
+ */
+public final class Shape implements Serializable {
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = -2935205355750420984L;
+    /**
+     * The number of channels.
+     */
+    private final int channels;
+    /**
+     * The height of each plane.
+     */
+    private final int height;
+    /**
+     * The width of each plane.
+     */
+    private final int width;
+
+    /**
+     * Instantiates a new Shape.
+     *
+     * @param channels the number of channels
+     * @param height   the height of each plane
+     * @param width    the width of each plane
+     */
+    public Shape(int channels, int height, int width) {
+        if (channels <= 0 || height <= 0 || width <= 0) {
+            throw new IllegalArgumentException("The channels, height and width parameters should be numbers greater than 0.");
+        }
+
+        this.channels = channels;
+        this.height = height;
+        this.width = width;
+    }
+
+    /**
+     * Get the index of an element in the flat vector.
+     *
+     * @param channel the channel
+     * @param y       the line in the plane
+     * @param x       the column in the plane
+     * @return the index
+     */
+    public int index(int channel, int y, int x) {
+        return (channel * this.height + y) * this.width + x;
+    }
+
+    /**
+     * Get the size of the flat vector.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.channels * this.height * this.width;
+    }
+
+    /**
+     * Get the size of a plane.
+     *
+     * @return the plane size
+     */
+    public int planeSize() {
+        return this.height * this.width;
+    }
+
+    /**
+     * Gets the number of channels.
+     *
+     * @return the channels
+     */
+    public int getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Gets the height of each plane.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the width of each plane.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Return each field of the shape
+     *
+     * @return the formatted string
+     */
+    @Override
+    public String toString() {
+        return this.channels + "x" + this.height + "x" + this.width;
+    }
+}
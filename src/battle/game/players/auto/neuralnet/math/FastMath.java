@@ -0,0 +1,58 @@
+package battle.game.players.auto.neuralnet.math;
+
+/**
+ * Fast approximations of some mathematical functions, used on the hot paths of the network.
+ */
+public final class FastMath {
+    /**
+     * The binary logarithm of e.
+     */
+    private static final double LOG2E = 1.4426950408889634;
+    /**
+     * The high bits of ln(2), exact when multiplied by a small integer.
+     */
+    private static final double LN2_HI = 0.6931471803691238;
+    /**
+     * The low bits of ln(2).
+     */
+    private static final double LN2_LO = 1.9082149292705877e-10;
+    /**
+     * Below this value exp underflows to 0.
+     */
+    private static final double MIN_EXPONENT = -708.0d;
+    /**
+     * Above this value exp overflows to infinity.
+     */
+    private static final double MAX_EXPONENT = 709.0d;
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private FastMath() {
+
+    }
+
+    /**
+     * Approximation of e^x with a relative error lower than 1e-8.
+     * x is reduced to x = k * ln(2) + r with |r| &lt;= ln(2) / 2, e^r is then computed
+     * with a degree 7 polynomial and scaled by 2^k directly in the exponent bits.
+     *
+     * @param x the exponent
+     * @return e^x
+     */
+    public static double exp(double x) {
+        if (x < FastMath.MIN_EXPONENT) {
+            return 0;
+        } else if (x > FastMath.MAX_EXPONENT) {
+            return Double.POSITIVE_INFINITY;
+        } else if (x != x) {
+            return x;   // NaN
+        }
+
+        double k = Math.rint(x * FastMath.LOG2E);
+        double r = (x - k * FastMath.LN2_HI) - k * FastMath.LN2_LO;
+
+        double p = 1 + r * (1 + r * (1.0 / 2 + r * (1.0 / 6 + r * (1.0 / 24 + r * (1.0 / 120 + r * (1.0 / 720 + r * (1.0 / 5040)))))));
+        return p * Double.longBitsToDouble(((long) k + 1023) << 52);
+    }
+}
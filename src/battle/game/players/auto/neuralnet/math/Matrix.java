@@ -7,6 +7,10 @@ import java.util.Arrays;
  * Careful: not immutable. Most matrix operations are made on same object.
  */
 public class Matrix implements Serializable {
+    /**
+     * The version of the serialized form, the one the bundled network was saved with.
+     */
+    private static final long serialVersionUID = 600911974986195897L;
     /**
      * The Cols.
      */
@@ -8,6 +8,10 @@ import java.util.stream.DoubleStream;
  * The type Vector.
  */
 public class Vector implements Serializable {
+    /**
+     * The version of the serialized form, the one the bundled network was saved with.
+     */
+    private static final long serialVersionUID = 8306138499545288244L;
     /**
      * The Data.
      */
@@ -7,6 +7,10 @@ import battle.game.players.auto.neuralnet.math.Vector;
  * Updates Weights and biases based on a constant learning rate - i.e. W -= η * dC/dW
  */
 public class GradientDescent implements Optimizer {
+    /**
+     * The version of the serialized form, the one the bundled network was saved with.
+     */
+    private static final long serialVersionUID = -5706754517579870723L;
     /**
      * The Learning rate.
      */
@@ -0,0 +1,58 @@
+package battle.game.players.auto.training;
+
+import battle.game.players.auto.BoardSymmetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The augmentation stage of the training pipelines : each sample is followed by its images through the symmetries
+ * of the board (see {@link BoardSymmetry}), its input planes and its expected output being permuted alike.
+ * A game then gives 4 times (8 times on a square board) more samples, without playing more.
+ */
+public class Augmentation {
+    /**
+     * The symmetries of the board, but the identity
+     */
+    private final List<BoardSymmetry> symmetries;
+
+    /**
+     * Instantiates a new Augmentation.
+     *
+     * @param lines   the number of lines of the board
+     * @param columns the number of columns of the board
+     */
+    public Augmentation(int lines, int columns) {
+        List<BoardSymmetry> group = BoardSymmetry.group(lines, columns);
+        this.symmetries = group.subList(1, group.size());
+    }
+
+    /**
+     * Get a sample followed by its images
+     *
+     * @param sample the sample
+     * @return the samples
+     */
+    public List<TrainingSample> expand(TrainingSample sample) {
+        // Check parameters
+        if (sample == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        List<TrainingSample> samples = new ArrayList<>(this.symmetries.size() + 1);
+        samples.add(sample);
+        for (BoardSymmetry symmetry : this.symmetries) {
+            samples.add(new TrainingSample(symmetry.apply(sample.getInput()), symmetry.apply(sample.getExpected())));
+        }
+        return samples;
+    }
+
+    /**
+     * Gets the number of samples given for each sample.
+     *
+     * @return the factor
+     */
+    public int getFactor() {
+        return this.symmetries.size() + 1;
+    }
+}
@@ -0,0 +1,83 @@
+package battle.game.players.auto.training;
+
+import battle.game.players.auto.neuralnet.math.Vector;
+
+import java.util.Arrays;
+
+/**
+ * The opponent grid seen by a player, as the input of the network of a SmartAutoPlayer :
+ * the hit plane (1 for a square shot) followed by the busy plane (1 for a square known to hold a ship),
+ * each plane being stored line after line, i.e. the square of a cell is at cell = line * height + column.
+ */
+public class BoardState {
+    /**
+     * The number of squares
+     */
+    private final int cells;
+    /**
+     * The two planes
+     */
+    private final double[] planes;
+
+    /**
+     * Instantiates a new empty Board state.
+     *
+     * @param cells the number of squares of the board
+     */
+    public BoardState(int cells) {
+        if (cells <= 0) {
+            throw new IllegalArgumentException("The cells parameter should be a number greater than 0.");
+        }
+
+        this.cells = cells;
+        this.planes = new double[cells * 2];
+    }
+
+    /**
+     * Record a shot
+     *
+     * @param cell the cell shot at
+     * @param hit  was a ship hit
+     */
+    public void shoot(int cell, boolean hit) {
+        this.planes[cell] = 1;
+        if (hit) {
+            this.planes[this.cells + cell] = 1;
+        }
+    }
+
+    /**
+     * Test if a cell has been shot at
+     *
+     * @param cell the cell
+     * @return true if the cell has been shot at
+     */
+    public boolean isShot(int cell) {
+        return this.planes[cell] != 0;
+    }
+
+    /**
+     * Forget every shot
+     */
+    public void clear() {
+        Arrays.fill(this.planes, 0);
+    }
+
+    /**
+     * Gets the number of squares.
+     *
+     * @return the number of squares
+     */
+    public int getCells() {
+        return this.cells;
+    }
+
+    /**
+     * Copy the state as an input of the network
+     *
+     * @return the input
+     */
+    public Vector toInput() {
+        return new Vector(this.planes.clone());
+    }
+}
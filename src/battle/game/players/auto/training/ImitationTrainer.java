@@ -0,0 +1,359 @@
+package battle.game.players.auto.training;
+
+import battle.game.Game;
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.DensityAutoPlayer;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.GradientAccumulator;
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.players.auto.neuralnet.math.Vector;
+import battle.game.ships.Ship;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pre-train the network of a SmartAutoPlayer by imitation of a scripted expert (see {@link DensityAutoPlayer}),
+ * before its training by reinforcement.
+ * <p>
+ * Generator threads play games of the expert against randomly placed fleets. Before each shot of the expert,
+ * the board it sees is paired with the square it chooses, as the expected output of the network.
+ * The samples are streamed through a bounded queue to the calling thread, which shuffles them in a bounded window
+ * and trains the network by mini-batches, with one worker per gradient accumulator
+ * (see {@link NeuralNetwork#train(List, List, List)}).
+ * <p>
+ * Usage : ImitationTrainer width height [samples] [reinforcement games] [batch size] [workers]
+ * (-Dbattle.convolutional=true to train a convolutional network, which plays on every board)
+ */
+public class ImitationTrainer {
+    /**
+     * The default number of samples of the pre-training
+     */
+    public static final long DEFAULT_SAMPLES = 1000000;
+    /**
+     * The default number of samples of the shuffle window
+     */
+    public static final int DEFAULT_SHUFFLE_WINDOW = 10000;
+    /**
+     * The number of games played to measure a network
+     */
+    private static final int EVALUATION_GAMES = 1000;
+    /**
+     * The number of samples generated in advance
+     */
+    private static final int QUEUE_SAMPLES = 4096;
+    /**
+     * The end of the samples of a generator
+     */
+    private static final TrainingSample END = new TrainingSample(new Vector(new double[1]), new Vector(new double[1]));
+    /**
+     * The number of samples of a mini-batch
+     */
+    private final int batchSize;
+    /**
+     * The number of generator threads
+     */
+    private final int generators;
+    /**
+     * The random source of the games and the shuffles
+     */
+    private final RandomSource random;
+    /**
+     * The number of samples of the shuffle window
+     */
+    private final int shuffleWindow;
+    /**
+     * The number of training workers
+     */
+    private final int workers;
+    /**
+     * Are the samples augmented by the symmetries of the board
+     */
+    private boolean augmented;
+
+    /**
+     * Instantiates a new Imitation trainer.
+     *
+     * @param batchSize     the number of samples of a mini-batch
+     * @param shuffleWindow the number of samples of the shuffle window
+     * @param generators    the number of generator threads
+     * @param workers       the number of training workers
+     * @param seed          the seed of the games and the shuffles
+     */
+    public ImitationTrainer(int batchSize, int shuffleWindow, int generators, int workers, long seed) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batchSize parameter should be a number greater than 0.");
+        } else if (shuffleWindow <= 0) {
+            throw new IllegalArgumentException("The shuffleWindow parameter should be a number greater than 0.");
+        } else if (generators <= 0) {
+            throw new IllegalArgumentException("The generators parameter should be a number greater than 0.");
+        } else if (workers <= 0) {
+            throw new IllegalArgumentException("The workers parameter should be a number greater than 0.");
+        }
+
+        this.batchSize = batchSize;
+        this.shuffleWindow = shuffleWindow;
+        this.generators = generators;
+        this.workers = workers;
+        this.random = new RandomSource(seed);
+    }
+
+    /**
+     * Pre-train a network by imitation, then train it by reinforcement against AutoPlayer, measuring it after each step,
+     * and save it
+     *
+     * @param args the width and height of the board, the number of samples, the number of reinforcement games,
+     *             the batch size and the number of workers (all but the first two optional)
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage : ImitationTrainer width height [samples] [reinforcement games] [batch size] [workers]");
+            System.exit(1);
+        }
+
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        long samples = args.length > 2 ? Long.parseLong(args[2]) : ImitationTrainer.DEFAULT_SAMPLES;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : OfflineTrainer.DEFAULT_BATCH_SIZE;
+        int workers = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        ArrayList<Ship> fleet = new ArrayList<>();
+        fleet.add(new Ship("Aircraft carrier", 5));
+        fleet.add(new Ship("Cruiser", 4));
+        fleet.add(new Ship("Destroyer", 3));
+        fleet.add(new Ship("Submarine", 3));
+        fleet.add(new Ship("Torpedo boat", 2));
+
+        RandomSource random = new RandomSource(Long.getLong("battle.seed", RandomSource.withRandomSeed().getSeed()));
+        NeuralNetwork neuralNetwork = OfflineTrainer.createNetwork(width, height, random.nextLong());
+        ImitationTrainer trainer = new ImitationTrainer(batchSize, ImitationTrainer.DEFAULT_SHUFFLE_WINDOW, workers, workers, random.nextLong());
+        trainer.setAugmented(Boolean.getBoolean(OfflineTrainer.AUGMENT_PROPERTY));
+
+        System.out.println("Expert : " + ImitationTrainer.winRate(new DensityAutoPlayer(fleet, "Expert", width, height, random.split()), fleet, random.split())
+                + "% of games won over the programmed IA");
+
+        long start = System.nanoTime();
+        double cost = trainer.pretrain(neuralNetwork, fleet, width, height, samples);
+        System.out.printf("Imitation : %d samples, average cost %.4f, %.1f s%n", samples, cost, (System.nanoTime() - start) / 1e9);
+        System.out.println("Imitation : " + ImitationTrainer.winRate(new SmartAutoPlayer(fleet, "Neural Network AI player", width, height, neuralNetwork, false, random.split()), fleet, random.split())
+                + "% of games won by the neural network over the programmed IA");
+
+        if (games > 0) {
+            // Hand off to the reinforcement learning against the programmed IA, the learning network being
+            // free to shoot a square again : its games are stopped after as many shots as the squares of both grids
+            Player smartPlayer = new SmartAutoPlayer(fleet, "Neural Network AI player", width, height, neuralNetwork, true, random.split());
+            Game game = new Game(smartPlayer, new AutoPlayer(fleet, "Programmed AI player", width, height, random.split()));
+            int maxShots = 2 * width * height;
+            start = System.nanoTime();
+            for (int i = 0; i < games; i++) {
+                game.play(maxShots);
+            }
+            System.out.printf("Reinforcement : %d games, %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+            System.out.println("Reinforcement : " + ImitationTrainer.winRate(new SmartAutoPlayer(fleet, "Neural Network AI player", width, height, neuralNetwork, false, random.split()), fleet, random.split())
+                    + "% of games won by the neural network over the programmed IA");
+        }
+
+        neuralNetwork.saveNN();
+    }
+
+    /**
+     * Augment the samples by the symmetries of the board (see {@link Augmentation}), the number of samples
+     * given to {@link #pretrain(NeuralNetwork, ArrayList, int, int, long)} being the number of positions played.
+     *
+     * @param augmented are the samples augmented
+     */
+    public void setAugmented(boolean augmented) {
+        this.augmented = augmented;
+    }
+
+    /**
+     * Measure a player against AutoPlayer, each one starting half of the games
+     *
+     * @param player the player
+     * @param fleet  the fleet
+     * @param random the random source of AutoPlayer
+     * @return the percentage of games won by the player
+     */
+    public static double winRate(Player player, ArrayList<Ship> fleet, RandomSource random) {
+        // Check parameters
+        if (player == null || fleet == null || random == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        Player autoPlayer = new AutoPlayer(fleet, "Programmed AI player", player.getWidth(), player.getHeight(), random);
+        Game first = new Game(player, autoPlayer);
+        Game second = new Game(autoPlayer, player);
+        int won = 0;
+        for (int i = 0; i < ImitationTrainer.EVALUATION_GAMES; i++) {
+            won += (i % 2 == 0 ? first : second).play() == player ? 1 : 0;
+        }
+        return 100.0 * won / ImitationTrainer.EVALUATION_GAMES;
+    }
+
+    /**
+     * Train a network on samples of the expert
+     *
+     * @param neuralNetwork the network, with an input for each square of the two planes of the board and an output for each square
+     * @param fleet         the fleet
+     * @param width         the width of the board
+     * @param height        the height of the board
+     * @param samples       the number of samples
+     * @return the average cost over the samples
+     */
+    public double pretrain(NeuralNetwork neuralNetwork, ArrayList<Ship> fleet, int width, int height, long samples) {
+        // Check parameters
+        if (neuralNetwork == null || fleet == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (samples <= 0) {
+            throw new IllegalArgumentException("The samples parameter should be a number greater than 0.");
+        } else if (neuralNetwork.getLayers().get(0).size() != width * height * 2) {
+            throw new IllegalArgumentException("The network has " + neuralNetwork.getLayers().get(0).size() + " inputs, the board needs " + width * height * 2);
+        }
+
+        BlockingQueue<TrainingSample> queue = new ArrayBlockingQueue<>(ImitationTrainer.QUEUE_SAMPLES);
+        AtomicLong remaining = new AtomicLong(samples);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        Augmentation augmentation = this.augmented ? new Augmentation(width, height) : null;
+        List<Thread> threads = new ArrayList<>();
+        for (int g = 0; g < this.generators; g++) {
+            RandomSource generatorRandom = this.random.split();
+            Thread thread = new Thread(() -> {
+                try {
+                    ImitationTrainer.generate(fleet, width, height, generatorRandom, augmentation, remaining, queue);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                } finally {
+                    try {
+                        queue.put(ImitationTrainer.END);
+                    } catch (InterruptedException e) {
+                        // The training stopped, nobody waits for the end
+                    }
+                }
+            }, "expert-" + g);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        List<GradientAccumulator> accumulators = new ArrayList<>();
+        for (int w = 0; w < this.workers; w++) {
+            accumulators.add(neuralNetwork.newGradientAccumulator());
+        }
+        ShuffleBuffer<TrainingSample> shuffle = new ShuffleBuffer<>(this.shuffleWindow, this.random.split());
+        List<Vector> inputs = new ArrayList<>(this.batchSize);
+        List<Vector> expected = new ArrayList<>(this.batchSize);
+
+        double cost = 0;
+        long trained = 0;
+        try {
+            int ended = 0;
+            while (ended < this.generators) {
+                TrainingSample sample = queue.take();
+                if (sample == ImitationTrainer.END) {
+                    ended++;
+                    continue;
+                }
+
+                TrainingSample drawn = shuffle.offer(sample);
+                if (drawn != null) {
+                    inputs.add(drawn.getInput());
+                    expected.add(drawn.getExpected());
+                    if (inputs.size() == this.batchSize) {
+                        cost += neuralNetwork.train(inputs, expected, accumulators) * inputs.size();
+                        trained += inputs.size();
+                        inputs.clear();
+                        expected.clear();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pre-training interrupted", e);
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        TrainingSample drawn;
+        while ((drawn = shuffle.poll()) != null) {
+            inputs.add(drawn.getInput());
+            expected.add(drawn.getExpected());
+            if (inputs.size() == this.batchSize) {
+                cost += neuralNetwork.train(inputs, expected, accumulators) * inputs.size();
+                trained += inputs.size();
+                inputs.clear();
+                expected.clear();
+            }
+        }
+        if (!inputs.isEmpty()) {
+            cost += neuralNetwork.train(inputs, expected, accumulators) * inputs.size();
+            trained += inputs.size();
+        }
+
+        return trained > 0 ? cost / trained : 0;
+    }
+
+    /**
+     * Play games of the expert against randomly placed fleets and send a sample before each of its shots
+     * (followed by its images when augmented), until no more sample is needed
+     *
+     * @param fleet        the fleet
+     * @param width        the width of the board
+     * @param height       the height of the board
+     * @param random       the random source of the games
+     * @param augmentation the augmentation of the samples, or null
+     * @param remaining    the number of samples still needed, shared by the generators
+     * @param queue        the queue of the samples
+     */
+    private static void generate(ArrayList<Ship> fleet, int width, int height, RandomSource random, Augmentation augmentation, AtomicLong remaining, BlockingQueue<TrainingSample> queue) {
+        DensityAutoPlayer expert = new DensityAutoPlayer(fleet, "Expert", width, height, random.split());
+        Player target = new AutoPlayer(fleet, "Target", width, height, random.split());
+        BoardState board = new BoardState(width * height);
+
+        while (remaining.get() > 0) {
+            expert.initializeGrids();
+            target.initializeGrids();
+            board.clear();
+
+            while (!target.allSunk()) {
+                Vector input = board.toInput();
+                int[] shot = expert.newShot();
+                if (remaining.getAndDecrement() <= 0) {
+                    return;
+                }
+                double[] expected = new double[width * height];
+                expected[shot[0] * height + shot[1]] = 1.0d;
+                TrainingSample sample = new TrainingSample(input, new Vector(expected));
+                try {
+                    if (augmentation == null) {
+                        queue.put(sample);
+                    } else {
+                        for (TrainingSample image : augmentation.expand(sample)) {
+                            queue.put(image);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                ShotResult shotResult = target.analyzeShot(shot);
+                expert.sendLastShotResult(shotResult, shot);
+                board.shoot(shot[0] * height + shot[1], shotResult != ShotResult.MISS);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package battle.game.players.auto.training;
+
+import battle.game.ShotResult;
+import battle.game.journal.GameRecord;
+import battle.game.players.auto.neuralnet.math.Vector;
+import battle.game.ships.Direction;
+
+import java.util.function.Consumer;
+
+/**
+ * Rebuild the training samples of a recorded game : before each shot, the opponent grid seen by the shooter
+ * is an input, and the expected output is a probability distribution spread evenly over the squares
+ * of the opponent fleet not hit yet (known from the recorded placements).
+ * The samples of both players are given, in the order of the shots.
+ */
+public final class JournalSamples {
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private JournalSamples() {
+
+    }
+
+    /**
+     * Give the samples of a game
+     *
+     * @param record the game
+     * @param sink   the consumer of the samples
+     */
+    public static void fromGame(GameRecord record, Consumer<TrainingSample> sink) {
+        int cells = record.getWidth() * record.getHeight();
+        BoardState[] views = {new BoardState(cells), new BoardState(cells)};
+        boolean[][] ships = {JournalSamples.occupancy(record, 0), JournalSamples.occupancy(record, 1)};
+        int[] remaining = new int[2];
+        for (int player = 0; player < 2; player++) {
+            for (boolean ship : ships[player]) {
+                remaining[player] += ship ? 1 : 0;
+            }
+        }
+
+        for (int shot = 0; shot < record.getShotCount(); shot++) {
+            int shooter = record.getShooter(shot);
+            int opponent = 1 - shooter;
+            BoardState view = views[shooter];
+
+            if (remaining[opponent] > 0) {
+                double[] expected = new double[cells];
+                double probability = 1.0d / remaining[opponent];
+                for (int cell = 0; cell < cells; cell++) {
+                    if (ships[opponent][cell] && !view.isShot(cell)) {
+                        expected[cell] = probability;
+                    }
+                }
+                sink.accept(new TrainingSample(view.toInput(), new Vector(expected)));
+            }
+
+            int cell = record.getShotCell(shot);
+            if (!view.isShot(cell) && ships[opponent][cell]) {
+                remaining[opponent]--;
+            }
+            view.shoot(cell, record.getShotResult(shot) != ShotResult.MISS);
+        }
+    }
+
+    /**
+     * Get the squares holding a ship of a player
+     *
+     * @param record the game
+     * @param player the player
+     * @return true for each cell holding a ship
+     */
+    static boolean[] occupancy(GameRecord record, int player) {
+        int height = record.getHeight();
+        boolean[] ships = new boolean[record.getWidth() * height];
+        for (GameRecord.Placement placement : record.getPlacements(player)) {
+            int line = placement.getCell() / height;
+            int column = placement.getCell() % height;
+            for (int i = 0; i < placement.getSize(); i++) {
+                if (placement.getDirection() == Direction.HORIZONTAL) {
+                    ships[line * height + column + i] = true;
+                } else {
+                    ships[(line + i) * height + column] = true;
+                }
+            }
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,373 @@
+package battle.game.players.auto.training;
+
+import battle.game.Game;
+import battle.game.RandomSource;
+import battle.game.journal.GameJournalReader;
+import battle.game.journal.GameRecord;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.Activation;
+import battle.game.players.auto.neuralnet.CostFunction;
+import battle.game.players.auto.neuralnet.GradientAccumulator;
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.players.auto.neuralnet.math.Vector;
+import battle.game.ships.Ship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Train a network from recorded games (see {@link battle.game.journal.GameJournalWriter}) instead of live play.
+ * <p>
+ * A reader thread decodes the memory-mapped journal, rebuilds the samples of each game (see {@link JournalSamples}),
+ * shuffles them in a bounded window and groups them in mini-batches, handed over through a small queue.
+ * Meanwhile the calling thread trains the network on the previous batch, with one worker per gradient accumulator
+ * (see {@link NeuralNetwork#train(List, List, List)}).
+ * <p>
+ * Usage : OfflineTrainer journal [epochs] [batch size] [workers]
+ * (-Dbattle.convolutional=true to train a convolutional network, which plays on every board)
+ */
+public class OfflineTrainer {
+    /**
+     * The default number of samples of a mini-batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    /**
+     * The default number of samples of the shuffle window
+     */
+    public static final int DEFAULT_SHUFFLE_WINDOW = 50000;
+    /**
+     * The system property turning the augmentation of the samples on in the trainers
+     */
+    static final String AUGMENT_PROPERTY = "battle.augment";
+    /**
+     * The system property making the trainers create a convolutional network, which plays on every board
+     */
+    static final String CONVOLUTIONAL_PROPERTY = "battle.convolutional";
+    /**
+     * The number of batches decoded in advance
+     */
+    private static final int QUEUE_BATCHES = 8;
+    /**
+     * The number of games played to measure the trained network
+     */
+    private static final int EVALUATION_GAMES = 1000;
+    /**
+     * The number of samples of a mini-batch
+     */
+    private final int batchSize;
+    /**
+     * The random source of the shuffles
+     */
+    private final RandomSource random;
+    /**
+     * The number of samples of the shuffle window
+     */
+    private final int shuffleWindow;
+    /**
+     * The number of training workers
+     */
+    private final int workers;
+    /**
+     * Are the samples augmented by the symmetries of the board
+     */
+    private boolean augmented;
+    /**
+     * The number of samples of the last epoch
+     */
+    private long lastSampleCount;
+
+    /**
+     * Instantiates a new Offline trainer.
+     *
+     * @param batchSize     the number of samples of a mini-batch
+     * @param shuffleWindow the number of samples of the shuffle window
+     * @param workers       the number of training workers
+     * @param seed          the seed of the shuffles
+     */
+    public OfflineTrainer(int batchSize, int shuffleWindow, int workers, long seed) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batchSize parameter should be a number greater than 0.");
+        } else if (shuffleWindow <= 0) {
+            throw new IllegalArgumentException("The shuffleWindow parameter should be a number greater than 0.");
+        } else if (workers <= 0) {
+            throw new IllegalArgumentException("The workers parameter should be a number greater than 0.");
+        }
+
+        this.batchSize = batchSize;
+        this.shuffleWindow = shuffleWindow;
+        this.workers = workers;
+        this.random = new RandomSource(seed);
+    }
+
+    /**
+     * Train a network from a journal, then play against AutoPlayer with it and save it
+     *
+     * @param args the journal directory, the number of epochs, the batch size and the number of workers (all but the first optional)
+     * @throws IOException if the journal can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage : OfflineTrainer journal [epochs] [batch size] [workers]");
+            System.exit(1);
+        }
+
+        Path journal = Paths.get(args[0]);
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : OfflineTrainer.DEFAULT_BATCH_SIZE;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameRecord first;
+        try (GameJournalReader reader = new GameJournalReader(journal)) {
+            first = reader.next();
+        }
+        if (first == null) {
+            System.err.println("No game in " + journal);
+            System.exit(1);
+        }
+
+        RandomSource random = new RandomSource(first.getSeed());
+        NeuralNetwork neuralNetwork = OfflineTrainer.createNetwork(first.getWidth(), first.getHeight(), random.nextLong());
+        OfflineTrainer trainer = new OfflineTrainer(batchSize, OfflineTrainer.DEFAULT_SHUFFLE_WINDOW, workers, random.nextLong());
+        trainer.setAugmented(Boolean.getBoolean(OfflineTrainer.AUGMENT_PROPERTY));
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            long start = System.nanoTime();
+            double cost = trainer.train(neuralNetwork, journal);
+            System.out.printf("Epoch %d : %d samples, average cost %.4f, %.1f s%n",
+                    epoch, trainer.getLastSampleCount(), cost, (System.nanoTime() - start) / 1e9);
+        }
+
+        ArrayList<Ship> fleet = new ArrayList<>();
+        for (GameRecord.Placement placement : first.getPlacements(0)) {
+            fleet.add(new Ship("ship", placement.getSize()));
+        }
+        Player smartPlayer = new SmartAutoPlayer(fleet, "Neural Network AI player", first.getWidth(), first.getHeight(), neuralNetwork, false, random.split());
+        Player autoPlayer = new AutoPlayer(fleet, "Programmed AI player", first.getWidth(), first.getHeight(), random.split());
+        Game game = new Game(smartPlayer, autoPlayer);
+        int won = 0;
+        for (int i = 0; i < OfflineTrainer.EVALUATION_GAMES; i++) {
+            won += game.play() == smartPlayer ? 1 : 0;
+        }
+        System.out.println(100.0 * won / OfflineTrainer.EVALUATION_GAMES + "% of games won by the neural network over the programmed IA");
+
+        neuralNetwork.saveNN();
+    }
+
+    /**
+     * Create the network to train : a dense one, or a convolutional one playing on every board
+     * when the system property battle.convolutional is true
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @param seed   the seed of the initialization of the weights
+     * @return the neural network
+     */
+    static NeuralNetwork createNetwork(int width, int height, long seed) {
+        if (Boolean.getBoolean(OfflineTrainer.CONVOLUTIONAL_PROPERTY)) {
+            return SmartAutoPlayer.createConvolutionalNetwork(width, height, new CostFunction.CrossEntropy(), seed);
+        }
+        return SmartAutoPlayer.createNetwork(width * height, Activation.Softmax, new CostFunction.CrossEntropy(), seed);
+    }
+
+    /**
+     * Train a network on every game of a journal once (one epoch)
+     *
+     * @param neuralNetwork the network, whose input must match the board of the journal
+     * @param journal       the directory of the journal
+     * @return the average cost over the epoch
+     * @throws IOException if the journal can't be read
+     */
+    public double train(NeuralNetwork neuralNetwork, Path journal) throws IOException {
+        // Check parameters
+        if (neuralNetwork == null || journal == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(OfflineTrainer.QUEUE_BATCHES);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        RandomSource shuffleRandom = this.random.split();
+
+        Thread reader = new Thread(() -> {
+            try {
+                this.read(journal, shuffleRandom, queue);
+            } catch (Exception e) {
+                failure.set(e);
+            } finally {
+                try {
+                    queue.put(Batch.END);
+                } catch (InterruptedException e) {
+                    // The training stopped, nobody waits for the end
+                }
+            }
+        }, "journal-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        List<GradientAccumulator> accumulators = new ArrayList<>();
+        for (int w = 0; w < this.workers; w++) {
+            accumulators.add(neuralNetwork.newGradientAccumulator());
+        }
+        int inputSize = neuralNetwork.getLayers().get(0).size();
+
+        double cost = 0;
+        long samples = 0;
+        try {
+            Batch batch;
+            while ((batch = queue.take()) != Batch.END) {
+                if (batch.inputs.get(0).dimension() != inputSize) {
+                    throw new IllegalArgumentException("The network has " + inputSize + " inputs, the journal gives " + batch.inputs.get(0).dimension());
+                }
+                cost += neuralNetwork.train(batch.inputs, batch.expected, accumulators) * batch.inputs.size();
+                samples += batch.inputs.size();
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.interrupt();
+            throw new IllegalStateException("Training interrupted", e);
+        } finally {
+            if (reader.isAlive()) {
+                reader.interrupt();
+            }
+        }
+
+        if (failure.get() instanceof IOException) {
+            throw (IOException) failure.get();
+        } else if (failure.get() != null) {
+            throw new IllegalStateException("Can't read the journal", failure.get());
+        }
+
+        this.lastSampleCount = samples;
+        return samples > 0 ? cost / samples : 0;
+    }
+
+    /**
+     * Decode the journal into shuffled mini-batches
+     *
+     * @param journal the directory of the journal
+     * @param random  the random source of the shuffle
+     * @param queue   the queue of the batches
+     * @throws IOException if the journal can't be read
+     */
+    private void read(Path journal, RandomSource random, BlockingQueue<Batch> queue) throws IOException {
+        ShuffleBuffer<TrainingSample> shuffle = new ShuffleBuffer<>(this.shuffleWindow, random);
+        Batch[] batch = {new Batch(this.batchSize)};
+
+        Consumer<TrainingSample> toShuffle = sample -> {
+            TrainingSample drawn = shuffle.offer(sample);
+            if (drawn != null) {
+                batch[0] = this.addToBatch(batch[0], drawn, queue);
+            }
+        };
+
+        try (GameJournalReader reader = new GameJournalReader(journal)) {
+            Consumer<TrainingSample> sink = null;
+            GameRecord record;
+            while ((record = reader.next()) != null && !Thread.currentThread().isInterrupted()) {
+                if (sink == null) {
+                    Augmentation augmentation = this.augmented ? new Augmentation(record.getWidth(), record.getHeight()) : null;
+                    sink = augmentation == null ? toShuffle : sample -> augmentation.expand(sample).forEach(toShuffle);
+                }
+                JournalSamples.fromGame(record, sink);
+            }
+        }
+
+        TrainingSample drawn;
+        while ((drawn = shuffle.poll()) != null) {
+            batch[0] = this.addToBatch(batch[0], drawn, queue);
+        }
+        if (!batch[0].inputs.isEmpty()) {
+            OfflineTrainer.put(queue, batch[0]);
+        }
+    }
+
+    /**
+     * Add a sample to a batch, and hand the batch over once full
+     *
+     * @param batch  the batch being filled
+     * @param sample the sample
+     * @param queue  the queue of the batches
+     * @return the batch to fill next
+     */
+    private Batch addToBatch(Batch batch, TrainingSample sample, BlockingQueue<Batch> queue) {
+        batch.inputs.add(sample.getInput());
+        batch.expected.add(sample.getExpected());
+        if (batch.inputs.size() < this.batchSize) {
+            return batch;
+        }
+
+        OfflineTrainer.put(queue, batch);
+        return new Batch(this.batchSize);
+    }
+
+    /**
+     * Put a batch in the queue, waiting for room
+     *
+     * @param queue the queue
+     * @param batch the batch
+     */
+    private static void put(BlockingQueue<Batch> queue, Batch batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Reading of the journal interrupted", e));
+        }
+    }
+
+    /**
+     * Augment the samples by the symmetries of the board (see {@link Augmentation}).
+     *
+     * @param augmented are the samples augmented
+     */
+    public void setAugmented(boolean augmented) {
+        this.augmented = augmented;
+    }
+
+    /**
+     * Gets the number of samples of the last epoch.
+     *
+     * @return the sample count
+     */
+    public long getLastSampleCount() {
+        return this.lastSampleCount;
+    }
+
+    /**
+     * A mini-batch.
+     */
+    private static final class Batch {
+        /**
+         * The end of the stream
+         */
+        static final Batch END = new Batch(0);
+        /**
+         * The expected outputs
+         */
+        final List<Vector> expected;
+        /**
+         * The inputs
+         */
+        final List<Vector> inputs;
+
+        /**
+         * Instantiates a new empty Batch.
+         *
+         * @param size the number of samples of the batch
+         */
+        Batch(int size) {
+            this.inputs = new ArrayList<>(size);
+            this.expected = new ArrayList<>(size);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package battle.game.players.auto.training;
+
+import battle.game.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded shuffle of a stream too large to be held in memory : the buffer is filled with the first items,
+ * then each new item takes the place of an item drawn at random, which is given back.
+ * Items far apart in the stream are not mixed, but consecutive items (the states of a same game) are.
+ *
+ * @param <T> the type of the items
+ */
+public class ShuffleBuffer<T> {
+    /**
+     * The items waiting
+     */
+    private final List<T> items;
+    /**
+     * The maximum number of items waiting
+     */
+    private final int capacity;
+    /**
+     * The random source of the shuffle
+     */
+    private final RandomSource random;
+
+    /**
+     * Instantiates a new Shuffle buffer.
+     *
+     * @param capacity the maximum number of items waiting
+     * @param random   the random source of the shuffle
+     */
+    public ShuffleBuffer(int capacity, RandomSource random) {
+        // Check parameters
+        if (random == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity parameter should be a number greater than 0.");
+        }
+
+        this.capacity = capacity;
+        this.random = random;
+        this.items = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Add an item
+     *
+     * @param item the item
+     * @return an item drawn at random once the buffer is full, null before
+     */
+    public T offer(T item) {
+        if (this.items.size() < this.capacity) {
+            this.items.add(item);
+            return null;
+        }
+
+        int i = this.random.nextInt(this.capacity);
+        T drawn = this.items.get(i);
+        this.items.set(i, item);
+        return drawn;
+    }
+
+    /**
+     * Take an item at random, at the end of the stream
+     *
+     * @return the item, null if the buffer is empty
+     */
+    public T poll() {
+        if (this.items.isEmpty()) {
+            return null;
+        }
+
+        int i = this.random.nextInt(this.items.size());
+        int last = this.items.size() - 1;
+        T drawn = this.items.get(i);
+        this.items.set(i, this.items.get(last));
+        this.items.remove(last);
+        return drawn;
+    }
+}
@@ -0,0 +1,51 @@
+package battle.game.players.auto.training;
+
+import battle.game.players.auto.neuralnet.math.Vector;
+
+/**
+ * An input of the network with the output it should give.
+ */
+public class TrainingSample {
+    /**
+     * The expected output
+     */
+    private final Vector expected;
+    /**
+     * The input
+     */
+    private final Vector input;
+
+    /**
+     * Instantiates a new Training sample.
+     *
+     * @param input    the input
+     * @param expected the expected output
+     */
+    public TrainingSample(Vector input, Vector expected) {
+        // Check parameters
+        if (input == null || expected == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.input = input;
+        this.expected = expected;
+    }
+
+    /**
+     * Gets the input.
+     *
+     * @return the input
+     */
+    public Vector getInput() {
+        return this.input;
+    }
+
+    /**
+     * Gets the expected output.
+     *
+     * @return the expected output
+     */
+    public Vector getExpected() {
+        return this.expected;
+    }
+}
@@ -7,9 +7,9 @@ import battle.text.AppText;
  */
 public class Ship implements Cloneable {
     /**
-     * The maximum size of a ship
+     * The maximum size of a ship, the side of the largest board
      */
-    public static final int MAX_SIZE = 10;
+    public static final int MAX_SIZE = 256;
     /**
      * The minimum size of a ship
      */
@@ -159,6 +159,33 @@ public class Ship implements Cloneable {
         this.lineOrigin = lineOrigin;
     }
 
+    /**
+     * Gets The column origin of the ship horizontal axis.
+     *
+     * @return Value of The column origin of the ship horizontal axis.
+     */
+    public int getColumnOrigin() {
+        return this.columnOrigin;
+    }
+
+    /**
+     * Gets The direction of the ship.
+     *
+     * @return Value of The direction of the ship.
+     */
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    /**
+     * Gets The line origin of the ship vertical axis.
+     *
+     * @return Value of The line origin of the ship vertical axis.
+     */
+    public int getLineOrigin() {
+        return this.lineOrigin;
+    }
+
     /**
      * Get the number of hits the ship received
      *
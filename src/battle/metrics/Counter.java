@@ -0,0 +1,50 @@
+package battle.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter, cheap to increment from several threads.
+ */
+public class Counter implements Metric {
+    /**
+     * The count
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Add one to the counter
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Add a number to the counter
+     *
+     * @param n the number to add
+     */
+    public void add(long n) {
+        this.count.add(n);
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return the count
+     */
+    public long get() {
+        return this.count.sum();
+    }
+
+    /**
+     * Add the count to a snapshot
+     *
+     * @param name     the name of the metric in the registry
+     * @param snapshot the snapshot, values by name
+     */
+    @Override
+    public void snapshot(String name, Map<String, Double> snapshot) {
+        snapshot.put(name, (double) this.get());
+    }
+}
@@ -0,0 +1,83 @@
+package battle.metrics;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value which can go up and down, either set by its owner or computed when read.
+ */
+public class Gauge implements Metric {
+    /**
+     * The function computing the value, or null if the value is set
+     */
+    private final DoubleSupplier supplier;
+    /**
+     * Has a value been set
+     */
+    private volatile boolean hasValue;
+    /**
+     * The last value set
+     */
+    private volatile double value;
+
+    /**
+     * Instantiates a new Gauge whose value is set with {@link #set(double)}.
+     */
+    public Gauge() {
+        this.supplier = null;
+    }
+
+    /**
+     * Instantiates a new Gauge whose value is computed each time it is read.
+     *
+     * @param supplier the function computing the value
+     */
+    public Gauge(DoubleSupplier supplier) {
+        // Check parameters
+        if (supplier == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+        this.supplier = supplier;
+    }
+
+    /**
+     * Set the value
+     *
+     * @param value the value
+     */
+    public void set(double value) {
+        this.value = value;
+        this.hasValue = true;
+    }
+
+    /**
+     * Move the value toward a new sample with an exponential moving average.
+     * The update is not atomic : when several threads update the gauge, some samples may be lost.
+     *
+     * @param sample the sample
+     * @param alpha  the weight of the sample, between 0 and 1
+     */
+    public void smooth(double sample, double alpha) {
+        this.set(this.hasValue ? this.value + alpha * (sample - this.value) : sample);
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value
+     */
+    public double get() {
+        return this.supplier != null ? this.supplier.getAsDouble() : this.value;
+    }
+
+    /**
+     * Add the value to a snapshot
+     *
+     * @param name     the name of the metric in the registry
+     * @param snapshot the snapshot, values by name
+     */
+    @Override
+    public void snapshot(String name, Map<String, Double> snapshot) {
+        snapshot.put(name, this.get());
+    }
+}
@@ -0,0 +1,155 @@
+package battle.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with log-linear buckets in the manner of HdrHistogram :
+ * each power of two is split in {@value #SUB_BUCKETS} buckets, so any recorded value is known
+ * with a relative error below 1 / {@value #SUB_BUCKETS} whatever its magnitude.
+ * Recording is a few integer operations and one atomic increment, and nothing is allocated.
+ */
+public class LatencyHistogram implements Metric {
+    /**
+     * The number of bits of the sub buckets
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    /**
+     * The number of buckets in each power of two
+     */
+    private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+    /**
+     * The number of buckets, enough for any positive long
+     */
+    private static final int BUCKETS = (64 - LatencyHistogram.SUB_BUCKET_BITS) * LatencyHistogram.SUB_BUCKETS;
+    /**
+     * The number of values recorded in each bucket
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    /**
+     * The number of values recorded
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * The greatest value recorded
+     */
+    private final AtomicLong max = new AtomicLong();
+    /**
+     * The sum of the values recorded
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Get the bucket of a value
+     *
+     * @param value the value, not negative
+     * @return the index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < LatencyHistogram.SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - LatencyHistogram.SUB_BUCKET_BITS;
+        return (shift + 1) * LatencyHistogram.SUB_BUCKETS + (int) (value >>> shift) - LatencyHistogram.SUB_BUCKETS;
+    }
+
+    /**
+     * Get the highest value of a bucket
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LatencyHistogram.SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / LatencyHistogram.SUB_BUCKETS - 1;
+        long top = LatencyHistogram.SUB_BUCKETS + bucket % LatencyHistogram.SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a duration
+     *
+     * @param nanos the duration in nanoseconds, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.buckets.incrementAndGet(LatencyHistogram.bucketOf(value));
+        this.count.increment();
+        this.sum.add(value);
+        if (value > this.max.get()) {
+            this.max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return the mean, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * Gets the greatest value recorded.
+     *
+     * @return the max
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Get a percentile of the values recorded, i.e. the highest value of the bucket holding it
+     * (never more than the greatest value recorded).
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the value, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            total += this.buckets.get(i);
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS && total > 0; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), this.getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Add the count, mean, p50, p99 and max to a snapshot
+     *
+     * @param name     the name of the metric in the registry
+     * @param snapshot the snapshot, values by name
+     */
+    @Override
+    public void snapshot(String name, Map<String, Double> snapshot) {
+        snapshot.put(name + ".count", (double) this.getCount());
+        snapshot.put(name + ".mean", this.getMean());
+        snapshot.put(name + ".p50", (double) this.getPercentile(0.50));
+        snapshot.put(name + ".p99", (double) this.getPercentile(0.99));
+        snapshot.put(name + ".max", (double) this.getMax());
+    }
+}
@@ -0,0 +1,16 @@
+package battle.metrics;
+
+import java.util.Map;
+
+/**
+ * The interface of a metric of a {@link MetricsRegistry}.
+ */
+public interface Metric {
+    /**
+     * Add the current values of the metric to a snapshot
+     *
+     * @param name     the name of the metric in the registry
+     * @param snapshot the snapshot, values by name
+     */
+    void snapshot(String name, Map<String, Double> snapshot);
+}
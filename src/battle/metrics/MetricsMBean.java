@@ -0,0 +1,113 @@
+package battle.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link MetricsRegistry} : each value of a snapshot is a read-only attribute.
+ * The attributes follow the metrics added to the registry.
+ */
+class MetricsMBean implements DynamicMBean {
+    /**
+     * The registry
+     */
+    private final MetricsRegistry registry;
+
+    /**
+     * Instantiates a new Metrics MBean.
+     *
+     * @param registry the registry
+     */
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Gets the value of an attribute.
+     *
+     * @param attribute the name of the attribute
+     * @return the value
+     * @throws AttributeNotFoundException if there is no such metric
+     */
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Double value = this.registry.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    /**
+     * Metrics are read only.
+     *
+     * @param attribute the attribute
+     */
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read only");
+    }
+
+    /**
+     * Gets the values of some attributes, from the same snapshot.
+     *
+     * @param attributes the names of the attributes
+     * @return the values
+     */
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Double> snapshot = this.registry.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (snapshot.containsKey(attribute)) {
+                list.add(new Attribute(attribute, snapshot.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Metrics are read only.
+     *
+     * @param attributes the attributes
+     * @return an empty list
+     */
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    /**
+     * There is no operation.
+     *
+     * @param actionName the name of the operation
+     * @param params     the parameters
+     * @param signature  the signature
+     * @return nothing
+     */
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operation on metrics");
+    }
+
+    /**
+     * Describe the attributes, one per value of a snapshot.
+     *
+     * @return the MBean info
+     */
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Double> snapshot = this.registry.snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+        int i = 0;
+        for (String name : snapshot.keySet()) {
+            attributes[i++] = new MBeanAttributeInfo(name, Double.class.getName(), name, true, false, false);
+        }
+        return new MBeanInfo(MetricsRegistry.class.getName(), "Metrics of the game", attributes, null, null, null);
+    }
+}
@@ -0,0 +1,217 @@
+package battle.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A set of named metrics. The metrics are created once and kept by the code updating them,
+ * so updating a metric never looks it up by its name.
+ * <p>
+ * The values of all the metrics can be read together as a snapshot, written as CSV or JSON
+ * (see {@link MetricsReporter}) or exposed through JMX with {@link #registerMBean(String)}.
+ */
+public class MetricsRegistry {
+    /**
+     * The registry used by the game
+     */
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    /**
+     * The metrics, by name
+     */
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+    /**
+     * The names of the MBeans exposing the registry
+     */
+    private final Set<String> mbeans = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gets the registry used by the game.
+     *
+     * @return the default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return MetricsRegistry.DEFAULT;
+    }
+
+    /**
+     * Get a counter, created if it does not exist yet
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return this.getOrCreate(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * Get a gauge set by its owner, created if it does not exist yet
+     *
+     * @param name the name of the gauge
+     * @return the gauge
+     */
+    public Gauge gauge(String name) {
+        return this.getOrCreate(name, Gauge.class, Gauge::new);
+    }
+
+    /**
+     * Get a gauge computing its value when read, created if it does not exist yet
+     *
+     * @param name     the name of the gauge
+     * @param supplier the function computing the value
+     * @return the gauge
+     */
+    public Gauge gauge(String name, DoubleSupplier supplier) {
+        return this.getOrCreate(name, Gauge.class, () -> new Gauge(supplier));
+    }
+
+    /**
+     * Get a latency histogram, created if it does not exist yet
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return this.getOrCreate(name, LatencyHistogram.class, LatencyHistogram::new);
+    }
+
+    /**
+     * Get a metric, created if it does not exist yet
+     *
+     * @param name    the name of the metric
+     * @param type    the expected type of the metric
+     * @param factory the function creating the metric
+     * @param <M>     the type of the metric
+     * @return the metric
+     */
+    private <M extends Metric> M getOrCreate(String name, Class<M> type, Supplier<M> factory) {
+        // Check parameters
+        if (name == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        Metric metric = this.metrics.computeIfAbsent(name, n -> factory.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("The metric " + name + " is a " + metric.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Remove a metric, if it is still the one registered under its name, e.g. a gauge bound to an object
+     * which is not used any more
+     *
+     * @param name   the name of the metric
+     * @param metric the metric
+     */
+    public void remove(String name, Metric metric) {
+        // Check parameters
+        if (name == null || metric == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        this.metrics.remove(name, metric);
+    }
+
+    /**
+     * Read the values of all the metrics
+     *
+     * @return the values, sorted by name
+     */
+    public Map<String, Double> snapshot() {
+        Map<String, Double> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Metric> metric : this.metrics.entrySet()) {
+            metric.getValue().snapshot(metric.getKey(), snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Write a snapshot as a JSON object on a single line
+     *
+     * @param timestamp the time of the snapshot, in milliseconds since the epoch
+     * @param snapshot  the snapshot
+     * @return the JSON object
+     */
+    public static String toJson(long timestamp, Map<String, Double> snapshot) {
+        StringBuilder json = new StringBuilder("{\"timestamp\":").append(timestamp);
+        for (Map.Entry<String, Double> value : snapshot.entrySet()) {
+            json.append(",\"").append(value.getKey()).append("\":").append(MetricsRegistry.format(value.getValue()));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Write the names of a snapshot as a CSV header
+     *
+     * @param snapshot the snapshot
+     * @return the header
+     */
+    public static String toCsvHeader(Map<String, Double> snapshot) {
+        return "timestamp," + String.join(",", snapshot.keySet());
+    }
+
+    /**
+     * Write the values of a snapshot as a CSV line
+     *
+     * @param timestamp the time of the snapshot, in milliseconds since the epoch
+     * @param snapshot  the snapshot
+     * @return the line
+     */
+    public static String toCsvLine(long timestamp, Map<String, Double> snapshot) {
+        StringBuilder line = new StringBuilder().append(timestamp);
+        for (Double value : snapshot.values()) {
+            line.append(',').append(MetricsRegistry.format(value));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Format a value, with no more decimals than needed (and 0 instead of NaN or infinity, not valid in JSON)
+     *
+     * @param value the value
+     * @return the formatted value
+     */
+    private static String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "0";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    /**
+     * Expose the metrics through JMX, as the read-only attributes of an MBean named battle:type=Metrics,name=...
+     * The MBean reads the metrics registered at any time, so the registry is exposed once under a name :
+     * registering the same name again does nothing, unless the MBean was unregistered meanwhile.
+     *
+     * @param name the name of the MBean
+     * @return the object name of the MBean
+     */
+    public synchronized ObjectName registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("battle:type=Metrics,name=" + ObjectName.quote(name));
+            if (this.mbeans.contains(name) && server.isRegistered(objectName)) {
+                return objectName;
+            } else if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new MetricsMBean(this), objectName);
+            this.mbeans.add(name);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't register the metrics MBean " + name, e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package battle.metrics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write a snapshot of a registry to a file at a fixed period, from a background daemon thread.
+ * A file ending with .json gets one JSON object per line, any other file gets CSV lines
+ * (with a new header each time the set of metrics changes).
+ */
+public class MetricsReporter implements Closeable {
+    /**
+     * The executor running the reports
+     */
+    private final ScheduledExecutorService executor;
+    /**
+     * Is the output JSON (or CSV)
+     */
+    private final boolean json;
+    /**
+     * The registry
+     */
+    private final MetricsRegistry registry;
+    /**
+     * The writer of the output file
+     */
+    private final BufferedWriter writer;
+    /**
+     * The last CSV header written
+     */
+    private String header;
+
+    /**
+     * Instantiates a new Metrics reporter and start reporting.
+     *
+     * @param registry     the registry
+     * @param output       the output file, appended to
+     * @param periodMillis the time between two reports, in milliseconds
+     * @throws IOException if the file can't be opened
+     */
+    public MetricsReporter(MetricsRegistry registry, Path output, long periodMillis) throws IOException {
+        // Check parameters
+        if (registry == null || output == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (periodMillis <= 0) {
+            throw new IllegalArgumentException("The periodMillis parameter should be a number greater than 0.");
+        }
+
+        this.registry = registry;
+        this.json = output.getFileName().toString().toLowerCase().endsWith(".json");
+        this.writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write a snapshot of the registry now
+     */
+    public synchronized void report() {
+        long timestamp = System.currentTimeMillis();
+        Map<String, Double> snapshot = this.registry.snapshot();
+
+        try {
+            if (this.json) {
+                this.writer.write(MetricsRegistry.toJson(timestamp, snapshot));
+            } else {
+                String header = MetricsRegistry.toCsvHeader(snapshot);
+                if (!header.equals(this.header)) {
+                    this.header = header;
+                    this.writer.write(header);
+                    this.writer.newLine();
+                }
+                this.writer.write(MetricsRegistry.toCsvLine(timestamp, snapshot));
+            }
+            this.writer.newLine();
+            this.writer.flush();
+        } catch (IOException e) {
+            System.err.println("Can't write the metrics : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop reporting, after a last report
+     *
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.executor.shutdownNow();
+        this.report();
+        this.writer.close();
+    }
+}
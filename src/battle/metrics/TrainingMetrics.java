@@ -0,0 +1,172 @@
+package battle.metrics;
+
+import battle.game.GameListener;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+
+/**
+ * A game listener measuring the training of a player :
+ * games played and won, shots, win rate and games per second over the last games, and latency of the moves.
+ * <p>
+ * The rolling values are updated by the game thread only, the gauges read them from any thread.
+ */
+public class TrainingMetrics implements GameListener {
+    /**
+     * The names of the gauges computed from the rolling values
+     */
+    private static final String[] GAUGE_NAMES = {"training.winRate", "training.shotsPerGame", "training.gamesPerSecond"};
+    /**
+     * The time at which each of the last games ended, in a ring
+     */
+    private final long[] endNanos;
+    /**
+     * The games played
+     */
+    private final Counter games;
+    /**
+     * The gauges computed from the rolling values, bound to this object
+     */
+    private final Gauge[] gauges;
+    /**
+     * The time of each move
+     */
+    private final LatencyHistogram moveLatency;
+    /**
+     * The player whose wins are counted
+     */
+    private final Player player;
+    /**
+     * The registry of the metrics
+     */
+    private final MetricsRegistry registry;
+    /**
+     * The shots fired by both players
+     */
+    private final Counter shots;
+    /**
+     * The games won by the player
+     */
+    private final Counter wins;
+    /**
+     * Was each of the last games won, in a ring
+     */
+    private final boolean[] won;
+    /**
+     * The number of games won in the ring
+     */
+    private volatile int recentWins;
+    /**
+     * The number of games in the ring
+     */
+    private volatile int recentGames;
+    /**
+     * The index of the next game in the ring
+     */
+    private int next;
+
+    /**
+     * Instantiates new Training metrics, registered in a registry under the prefix "training.".
+     *
+     * @param registry the registry
+     * @param player   the player whose wins are counted
+     * @param window   the number of last games of the win rate and the games per second
+     */
+    public TrainingMetrics(MetricsRegistry registry, Player player, int window) {
+        // Check parameters
+        if (registry == null || player == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (window < 2) {
+            throw new IllegalArgumentException("The window parameter should be a number greater than 1.");
+        }
+
+        this.player = player;
+        this.registry = registry;
+        this.endNanos = new long[window];
+        this.won = new boolean[window];
+
+        this.games = registry.counter("training.games");
+        this.wins = registry.counter("training.wins");
+        this.shots = registry.counter("training.shots");
+        this.moveLatency = registry.histogram("training.moveNanos");
+        this.gauges = new Gauge[]{
+                registry.gauge(TrainingMetrics.GAUGE_NAMES[0], this::getWinRate),
+                registry.gauge(TrainingMetrics.GAUGE_NAMES[1], () -> this.games.get() == 0 ? 0 : (double) this.shots.get() / this.games.get()),
+                registry.gauge(TrainingMetrics.GAUGE_NAMES[2], this::getGamesPerSecond)
+        };
+    }
+
+    /**
+     * Remove the gauges of the metrics from the registry once the training is over, so that the next training
+     * metrics get their own gauges. The counters and the histogram stay, adding up the games of every training.
+     */
+    public void unregister() {
+        for (int i = 0; i < this.gauges.length; i++) {
+            this.registry.remove(TrainingMetrics.GAUGE_NAMES[i], this.gauges[i]);
+        }
+    }
+
+    /**
+     * Record the time of a move
+     *
+     * @param shooter    the player who shot
+     * @param shot       the shot position
+     * @param shotResult the result of the shot
+     * @param nanos      the time taken by the move
+     */
+    @Override
+    public void movePlayed(Player shooter, int[] shot, ShotResult shotResult, long nanos) {
+        this.moveLatency.record(nanos);
+    }
+
+    /**
+     * Count a game, and whether it was won
+     *
+     * @param winner    the winner of the game
+     * @param shotCount the number of shots fired by both players
+     */
+    @Override
+    public void gameEnded(Player winner, int shotCount) {
+        boolean won = winner == this.player;
+        this.games.increment();
+        this.shots.add(shotCount);
+        if (won) {
+            this.wins.increment();
+        }
+
+        if (this.recentGames == this.won.length) {
+            this.recentWins -= this.won[this.next] ? 1 : 0;
+        } else {
+            this.recentGames++;
+        }
+        this.recentWins += won ? 1 : 0;
+        this.won[this.next] = won;
+        this.endNanos[this.next] = System.nanoTime();
+        this.next = (this.next + 1) % this.won.length;
+    }
+
+    /**
+     * Gets the rate of the last games won by the player.
+     *
+     * @return the win rate, between 0 and 1
+     */
+    public double getWinRate() {
+        int games = this.recentGames;
+        return games == 0 ? 0 : (double) this.recentWins / games;
+    }
+
+    /**
+     * Gets the number of games played per second over the last games.
+     *
+     * @return the games per second
+     */
+    public double getGamesPerSecond() {
+        int games = this.recentGames;
+        if (games < 2) {
+            return 0;
+        }
+        int last = (this.next - 1 + this.won.length) % this.won.length;
+        int first = games == this.won.length ? this.next : 0;
+        long nanos = this.endNanos[last] - this.endNanos[first];
+        return nanos <= 0 ? 0 : (games - 1) * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,143 @@
+package battle.tournament;
+
+import battle.game.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * The Bradley-Terry model of the results of a tournament : each player i has a strength p(i),
+ * and i beats j with the probability p(i) / (p(i) + p(j)).
+ * The strengths are fitted by the minorization-maximization algorithm of Hunter (2004), and given on the Elo scale
+ * (400 points for 10 times the odds of winning), the average player being rated 1500.
+ * <p>
+ * Half a win is added to both players of each pair which played, so that a player winning every game
+ * keeps a finite rating.
+ */
+final class BradleyTerry {
+    /**
+     * The rating of the average player
+     */
+    static final double AVERAGE_RATING = 1500;
+    /**
+     * The maximum number of iterations of the fit
+     */
+    private static final int MAX_ITERATIONS = 10000;
+    /**
+     * The wins added to both players of each pair which played
+     */
+    private static final double PRIOR_WINS = 0.5d;
+    /**
+     * The points for 10 times the odds of winning
+     */
+    private static final double SCALE = 400;
+    /**
+     * The change of the log strengths under which the fit stops
+     */
+    private static final double TOLERANCE = 1e-10;
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private BradleyTerry() {
+
+    }
+
+    /**
+     * Fit the ratings of the players
+     *
+     * @param wins the number of games won by each player (line) against each other player (column)
+     * @return the rating of each player
+     */
+    static double[] ratings(int[][] wins) {
+        int players = wins.length;
+        double[] strengths = new double[players];
+        Arrays.fill(strengths, 1);
+
+        double[] won = new double[players];
+        for (int i = 0; i < players; i++) {
+            for (int j = 0; j < players; j++) {
+                if (i != j && wins[i][j] + wins[j][i] > 0) {
+                    won[i] += wins[i][j] + BradleyTerry.PRIOR_WINS;
+                }
+            }
+        }
+
+        for (int iteration = 0; iteration < BradleyTerry.MAX_ITERATIONS; iteration++) {
+            double[] next = new double[players];
+            double logMean = 0;
+            for (int i = 0; i < players; i++) {
+                double denominator = 0;
+                for (int j = 0; j < players; j++) {
+                    int games = wins[i][j] + wins[j][i];
+                    if (i != j && games > 0) {
+                        denominator += (games + 2 * BradleyTerry.PRIOR_WINS) / (strengths[i] + strengths[j]);
+                    }
+                }
+                next[i] = denominator > 0 ? won[i] / denominator : 1;
+                logMean += Math.log(next[i]) / players;
+            }
+
+            // Normalize the strengths to a geometric mean of 1, the average rating
+            double change = 0;
+            for (int i = 0; i < players; i++) {
+                next[i] /= Math.exp(logMean);
+                change = Math.max(change, Math.abs(Math.log(next[i] / strengths[i])));
+            }
+            strengths = next;
+            if (change < BradleyTerry.TOLERANCE) {
+                break;
+            }
+        }
+
+        double[] ratings = new double[players];
+        for (int i = 0; i < players; i++) {
+            ratings[i] = BradleyTerry.AVERAGE_RATING + BradleyTerry.SCALE * Math.log10(strengths[i]);
+        }
+        return ratings;
+    }
+
+    /**
+     * Estimate the confidence intervals of the ratings by parametric bootstrap : the results of each pair are drawn
+     * again from its observed win rate, and the ratings fitted again.
+     *
+     * @param wins       the number of games won by each player (line) against each other player (column)
+     * @param samples    the number of bootstrap samples
+     * @param confidence the confidence level of the intervals, between 0 and 1
+     * @param random     the source of the draws
+     * @return the lower and upper bounds of the rating of each player
+     */
+    static double[][] intervals(int[][] wins, int samples, double confidence, RandomSource random) {
+        int players = wins.length;
+        double[][] sampled = new double[players][samples];
+        int[][] resampled = new int[players][players];
+
+        for (int s = 0; s < samples; s++) {
+            for (int i = 0; i < players; i++) {
+                for (int j = i + 1; j < players; j++) {
+                    int games = wins[i][j] + wins[j][i];
+                    double winRate = games == 0 ? 0 : (double) wins[i][j] / games;
+                    int won = 0;
+                    for (int g = 0; g < games; g++) {
+                        won += random.nextDouble() < winRate ? 1 : 0;
+                    }
+                    resampled[i][j] = won;
+                    resampled[j][i] = games - won;
+                }
+            }
+
+            double[] ratings = BradleyTerry.ratings(resampled);
+            for (int i = 0; i < players; i++) {
+                sampled[i][s] = ratings[i];
+            }
+        }
+
+        double[][] intervals = new double[players][];
+        int low = (int) Math.floor((1 - confidence) / 2 * (samples - 1));
+        int high = (int) Math.ceil((1 + confidence) / 2 * (samples - 1));
+        for (int i = 0; i < players; i++) {
+            Arrays.sort(sampled[i]);
+            intervals[i] = new double[]{sampled[i][low], sampled[i][high]};
+        }
+        return intervals;
+    }
+}
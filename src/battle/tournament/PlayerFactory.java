@@ -0,0 +1,101 @@
+package battle.tournament;
+
+import battle.game.RandomSource;
+import battle.game.players.Player;
+import battle.game.players.auto.AutoPlayer;
+import battle.game.players.auto.DensityAutoPlayer;
+import battle.game.players.auto.HuntTargetAutoPlayer;
+import battle.game.players.auto.ModelKey;
+import battle.game.players.auto.ModelRegistry;
+import battle.game.players.auto.SmartAutoPlayer;
+import battle.game.players.auto.neuralnet.NeuralNetwork;
+import battle.game.ships.Ship;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The way to create a new player of a tournament for each of its matches, as the matches are played in parallel
+ * and a player can only play one game at a time.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    /**
+     * Get the factory of the programmed IA, shooting at random
+     *
+     * @return the factory
+     */
+    static PlayerFactory random() {
+        return AutoPlayer::new;
+    }
+
+    /**
+     * Get the factory of the scripted player hunting on a checkerboard and targeting around the hits
+     *
+     * @return the factory
+     */
+    static PlayerFactory huntTarget() {
+        return HuntTargetAutoPlayer::new;
+    }
+
+    /**
+     * Get the factory of the scripted player shooting where the ships are the most likely to be
+     *
+     * @return the factory
+     */
+    static PlayerFactory density() {
+        return DensityAutoPlayer::new;
+    }
+
+    /**
+     * Get the factory of a neural network player which does not learn, from a checkpoint saved with
+     * {@link NeuralNetwork#saveNN()}. The file is read once, and the players of a board and a fleet share
+     * a single copy of the network through a {@link ModelRegistry}, as they do not learn.
+     * A convolutional network plays on every board, a dense one only on the board it was trained on.
+     *
+     * @param checkpoint the file of the network
+     * @return the factory
+     * @throws IOException if the file cannot be read
+     */
+    static PlayerFactory neural(Path checkpoint) throws IOException {
+        // Check parameters
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        }
+
+        byte[] network = Files.readAllBytes(checkpoint);
+        // Fail before the tournament starts if the file does not hold a network
+        NeuralNetwork.loadNN(new ByteArrayInputStream(network));
+
+        String version = checkpoint.getFileName().toString();
+        ModelRegistry registry = new ModelRegistry(ModelRegistry.DEFAULT_BUDGET_BYTES);
+        registry.registerVersion(version, () -> NeuralNetwork.loadNN(new ByteArrayInputStream(network)));
+
+        return (fleet, name, width, height, random) -> {
+            NeuralNetwork neuralNetwork;
+            try {
+                neuralNetwork = registry.get(ModelKey.of(width, height, fleet, version));
+            } catch (IOException e) {
+                throw new IllegalStateException("The checkpoint " + checkpoint + " cannot be read.", e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("The checkpoint " + checkpoint + " was not trained on a " + width + "x" + height + " board and is not convolutional.", e);
+            }
+            return new SmartAutoPlayer(fleet, name, width, height, neuralNetwork, false, random);
+        };
+    }
+
+    /**
+     * Create a new player
+     *
+     * @param fleet  the fleet to copy
+     * @param name   the name of the player
+     * @param width  The width of the player's grid
+     * @param height The height of the player's grid
+     * @param random the source of the random decisions of the player
+     * @return the player
+     */
+    Player create(ArrayList<Ship> fleet, String name, int width, int height, RandomSource random);
+}
@@ -0,0 +1,244 @@
+package battle.tournament;
+
+import battle.game.RandomSource;
+import battle.game.ships.Ship;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * A sequential probability ratio test (Wald, 1945) of the strength of a player against another one,
+ * deciding between two hypotheses as soon as the results of the games played are significant :
+ * H0, the player is elo0 Elo points stronger than its opponent, and H1, it is elo1 points stronger (elo1 greater than elo0).
+ * <p>
+ * After each game the log-likelihood ratio of H1 against H0 is updated. The test accepts H1 when the ratio goes above
+ * log((1 - beta) / alpha), and accepts H0 when it goes below log(beta / (1 - alpha)), so that alpha and beta bound
+ * the probabilities of accepting H1 when H0 holds, and H0 when H1 holds.
+ * A clear difference is decided after a few hundred games instead of a fixed budget of thousands.
+ * <p>
+ * Usage : Sprt candidate baseline [width] [height] [elo0] [elo1] [max games]
+ */
+public class Sprt {
+    /**
+     * The default probability of accepting H1 when H0 holds, and of accepting H0 when H1 holds
+     */
+    public static final double DEFAULT_ERROR = 0.05d;
+    /**
+     * The default maximum number of games of a match, when neither hypothesis is accepted
+     */
+    public static final int DEFAULT_MAX_GAMES = 5000;
+    /**
+     * The probability of accepting H1 when H0 holds
+     */
+    private final double alpha;
+    /**
+     * The probability of accepting H0 when H1 holds
+     */
+    private final double beta;
+    /**
+     * The Elo difference of H0
+     */
+    private final double elo0;
+    /**
+     * The Elo difference of H1
+     */
+    private final double elo1;
+    /**
+     * The change of the log-likelihood ratio after a loss
+     */
+    private final double lossWeight;
+    /**
+     * The log-likelihood ratio under which H0 is accepted
+     */
+    private final double lowerBound;
+    /**
+     * The log-likelihood ratio over which H1 is accepted
+     */
+    private final double upperBound;
+    /**
+     * The change of the log-likelihood ratio after a win
+     */
+    private final double winWeight;
+    /**
+     * The number of games lost by the player
+     */
+    private int losses;
+    /**
+     * The verdict of the test
+     */
+    private Verdict verdict = Verdict.UNDECIDED;
+    /**
+     * The number of games won by the player
+     */
+    private int wins;
+
+    /**
+     * Instantiates a new Sprt.
+     *
+     * @param elo0  the Elo difference of H0
+     * @param elo1  the Elo difference of H1, greater than elo0
+     * @param alpha the probability of accepting H1 when H0 holds, between 0 and 1
+     * @param beta  the probability of accepting H0 when H1 holds, between 0 and 1
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("The elo1 parameter should be a number greater than elo0.");
+        } else if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("The alpha parameter should be a number between 0 and 1.");
+        } else if (beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("The beta parameter should be a number between 0 and 1.");
+        }
+
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+
+        double p0 = Sprt.winProbability(elo0);
+        double p1 = Sprt.winProbability(elo1);
+        this.winWeight = Math.log(p1 / p0);
+        this.lossWeight = Math.log((1 - p1) / (1 - p0));
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Test if a neural network checkpoint is stronger than another one with the classic fleet, and print the verdict.
+     *
+     * @param args the candidate and baseline checkpoints, the width and height of the grids, elo0, elo1
+     *             and the maximum number of games (all but the checkpoints optional)
+     * @throws IOException          if a checkpoint cannot be read
+     * @throws InterruptedException if the match is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage : Sprt candidate baseline [width] [height] [elo0] [elo1] [max games]");
+            System.exit(1);
+        }
+
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int height = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 20;
+        int maxGames = args.length > 6 ? Integer.parseInt(args[6]) : Sprt.DEFAULT_MAX_GAMES;
+
+        ArrayList<Ship> fleet = new ArrayList<>();
+        fleet.add(new Ship("Aircraft carrier", 5));
+        fleet.add(new Ship("Cruiser", 4));
+        fleet.add(new Ship("Destroyer", 3));
+        fleet.add(new Ship("Submarine", 3));
+        fleet.add(new Ship("Torpedo boat", 2));
+
+        Tournament tournament = new Tournament(fleet, width, height, Long.getLong("battle.seed", RandomSource.withRandomSeed().getSeed()));
+        tournament.add("candidate", PlayerFactory.neural(Path.of(args[0])));
+        tournament.add("baseline", PlayerFactory.neural(Path.of(args[1])));
+
+        Sprt sprt = new Sprt(elo0, elo1, Sprt.DEFAULT_ERROR, Sprt.DEFAULT_ERROR);
+        long start = System.nanoTime();
+        tournament.match("candidate", "baseline", sprt, maxGames, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%s (%.1f s)%n", sprt, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Get the probability of winning of a player stronger than its opponent by an Elo difference
+     *
+     * @param elo the Elo difference
+     * @return the probability of winning
+     */
+    public static double winProbability(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Add the result of a game, unless the test is already decided
+     *
+     * @param won did the player win the game
+     * @return the verdict of the test
+     */
+    public Verdict add(boolean won) {
+        if (this.verdict == Verdict.UNDECIDED) {
+            if (won) {
+                this.wins++;
+            } else {
+                this.losses++;
+            }
+
+            double ratio = this.getLogLikelihoodRatio();
+            if (ratio >= this.upperBound) {
+                this.verdict = Verdict.H1;
+            } else if (ratio <= this.lowerBound) {
+                this.verdict = Verdict.H0;
+            }
+        }
+        return this.verdict;
+    }
+
+    /**
+     * Gets the log-likelihood ratio of H1 against H0 given the games played.
+     *
+     * @return the log-likelihood ratio
+     */
+    public double getLogLikelihoodRatio() {
+        return this.wins * this.winWeight + this.losses * this.lossWeight;
+    }
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return the number of games
+     */
+    public int getGames() {
+        return this.wins + this.losses;
+    }
+
+    /**
+     * Gets the number of games won by the player.
+     *
+     * @return the number of games won
+     */
+    public int getWins() {
+        return this.wins;
+    }
+
+    /**
+     * Gets the verdict of the test.
+     *
+     * @return the verdict
+     */
+    public Verdict getVerdict() {
+        return this.verdict;
+    }
+
+    /**
+     * Gets the verdict of the test and the results it is based on.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        String hypotheses = String.format("H0 : %+.0f Elo, H1 : %+.0f Elo, alpha %.2f, beta %.2f", this.elo0, this.elo1, this.alpha, this.beta);
+        String verdict = this.verdict == Verdict.UNDECIDED ? "Undecided" : this.verdict + " accepted";
+        return String.format("%s after %d games (%d wins, %d losses), log-likelihood ratio %.2f in [%.2f, %.2f] (%s)",
+                verdict, this.getGames(), this.wins, this.losses, this.getLogLikelihoodRatio(),
+                this.lowerBound, this.upperBound, hypotheses);
+    }
+
+    /**
+     * The verdict of a test
+     */
+    public enum Verdict {
+        /**
+         * H0 is accepted : the player is rather elo0 than elo1 points stronger than its opponent
+         */
+        H0,
+        /**
+         * H1 is accepted : the player is rather elo1 than elo0 points stronger than its opponent
+         */
+        H1,
+        /**
+         * Neither hypothesis is accepted yet
+         */
+        UNDECIDED
+    }
+}
@@ -0,0 +1,428 @@
+package battle.tournament;
+
+import battle.game.Game;
+import battle.game.GameListener;
+import battle.game.RandomSource;
+import battle.game.ShotResult;
+import battle.game.players.Player;
+import battle.game.ships.Ship;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A round-robin tournament between players : every pair of players plays the same number of games,
+ * each player starting half of them, and the players are rated with the Bradley-Terry model (see {@link BradleyTerry}).
+ * <p>
+ * The games of each pair are cut into chunks played in parallel, each chunk by new players (see {@link PlayerFactory})
+ * whose random sources only depend on the seed of the tournament and the index of the chunk.
+ * The same seed thus replays the same tournament whatever the number of threads, and every pair plays chunks
+ * of the same index from the same fleet placements.
+ * <p>
+ * Usage : Tournament [games per pair] [width] [height] [checkpoint...]
+ */
+public class Tournament {
+    /**
+     * The default number of games of each pair of players
+     */
+    public static final int DEFAULT_GAMES = 1000;
+    /**
+     * The number of bootstrap samples of the confidence intervals of the ratings
+     */
+    private static final int BOOTSTRAP_SAMPLES = 1000;
+    /**
+     * The number of games played in a row by the same players
+     */
+    private static final int CHUNK_GAMES = 50;
+    /**
+     * The confidence level of the intervals of the ratings
+     */
+    private static final double CONFIDENCE = 0.95d;
+    /**
+     * The factories of the players
+     */
+    private final List<PlayerFactory> factories = new ArrayList<>();
+    /**
+     * The fleet of every player
+     */
+    private final ArrayList<Ship> fleet;
+    /**
+     * The height of the grids
+     */
+    private final int height;
+    /**
+     * The names of the players
+     */
+    private final List<String> names = new ArrayList<>();
+    /**
+     * The seed of the random sources of the players
+     */
+    private final long seed;
+    /**
+     * The width of the grids
+     */
+    private final int width;
+
+    /**
+     * Instantiates a new Tournament.
+     *
+     * @param fleet  the fleet of every player
+     * @param width  the width of the grids
+     * @param height the height of the grids
+     * @param seed   the seed of the random sources of the players
+     */
+    public Tournament(ArrayList<Ship> fleet, int width, int height, long seed) {
+        // Check parameters
+        if (fleet == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (width <= 0) {
+            throw new IllegalArgumentException("The width parameter should be a number greater than 0.");
+        } else if (height <= 0) {
+            throw new IllegalArgumentException("The height parameter should be a number greater than 0.");
+        }
+
+        this.fleet = fleet;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+    }
+
+    /**
+     * Play a tournament between the programmed IA, the scripted players and neural network checkpoints
+     * with the classic fleet, and print the results.
+     *
+     * @param args the number of games of each pair, the width and height of the grids, and the checkpoints (all optional)
+     * @throws IOException          if a checkpoint cannot be read
+     * @throws InterruptedException if the tournament is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : Tournament.DEFAULT_GAMES;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ArrayList<Ship> fleet = new ArrayList<>();
+        fleet.add(new Ship("Aircraft carrier", 5));
+        fleet.add(new Ship("Cruiser", 4));
+        fleet.add(new Ship("Destroyer", 3));
+        fleet.add(new Ship("Submarine", 3));
+        fleet.add(new Ship("Torpedo boat", 2));
+
+        Tournament tournament = new Tournament(fleet, width, height, Long.getLong("battle.seed", RandomSource.withRandomSeed().getSeed()));
+        tournament.add("random", PlayerFactory.random());
+        tournament.add("hunt-target", PlayerFactory.huntTarget());
+        tournament.add("density", PlayerFactory.density());
+        for (int i = 3; i < args.length; i++) {
+            Path checkpoint = Path.of(args[i]);
+            tournament.add(checkpoint.getFileName().toString(), PlayerFactory.neural(checkpoint));
+        }
+
+        long start = System.nanoTime();
+        TournamentResult result = tournament.play(games, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%d games per pair on a %dx%d board, seed %d, %.1f s%n%n", games, width, height,
+                tournament.seed, (System.nanoTime() - start) / 1e9);
+        System.out.print(result);
+    }
+
+    /**
+     * Add a player to the tournament
+     *
+     * @param name    the name of the player, unique in the tournament
+     * @param factory the factory of the player
+     */
+    public void add(String name, PlayerFactory factory) {
+        // Check parameters
+        if (name == null || factory == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (this.names.contains(name)) {
+            throw new IllegalArgumentException("The player " + name + " is already in the tournament.");
+        }
+
+        this.names.add(name);
+        this.factories.add(factory);
+    }
+
+    /**
+     * Play the games of every pair of players
+     *
+     * @param games   the number of games of each pair
+     * @param threads the number of threads playing the games
+     * @return the results
+     * @throws InterruptedException if the tournament is interrupted
+     */
+    public TournamentResult play(int games, int threads) throws InterruptedException {
+        if (games <= 0) {
+            throw new IllegalArgumentException("The games parameter should be a number greater than 0.");
+        } else if (threads <= 0) {
+            throw new IllegalArgumentException("The threads parameter should be a number greater than 0.");
+        } else if (this.names.size() < 2) {
+            throw new IllegalStateException("A tournament needs at least two players.");
+        }
+
+        int players = this.names.size();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Chunk>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < players; i++) {
+                for (int j = i + 1; j < players; j++) {
+                    for (int first = 0; first < games; first += Tournament.CHUNK_GAMES) {
+                        int player = i;
+                        int opponent = j;
+                        int firstGame = first;
+                        int count = Math.min(Tournament.CHUNK_GAMES, games - first);
+                        futures.add(executor.submit(() -> this.playChunk(player, opponent, firstGame, count)));
+                    }
+                }
+            }
+
+            int[][] wins = new int[players][players];
+            int[][] shotsToWin = new int[players][this.width * this.height + 1];
+            for (Future<Chunk> future : futures) {
+                Chunk chunk = Tournament.get(future);
+                chunk.addTo(wins, shotsToWin);
+            }
+
+            double[] ratings = BradleyTerry.ratings(wins);
+            double[][] intervals = BradleyTerry.intervals(wins, Tournament.BOOTSTRAP_SAMPLES, Tournament.CONFIDENCE, new RandomSource(this.seed));
+            return new TournamentResult(new ArrayList<>(this.names), wins, shotsToWin, ratings, intervals, Tournament.CONFIDENCE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Play the games of a player against another one until a sequential test is decided (see {@link Sprt}).
+     * The chunks of games are played in parallel a few ahead of the test, which reads their results in order,
+     * game after game, so that the verdict and the number of games only depend on the seed of the tournament.
+     *
+     * @param player   the name of the player tested
+     * @param opponent the name of its opponent
+     * @param sprt     the test, given the result of each game of the player
+     * @param maxGames the maximum number of games, when the test stays undecided
+     * @param threads  the number of threads playing the games
+     * @return the verdict of the test
+     * @throws InterruptedException if the match is interrupted
+     */
+    public Sprt.Verdict match(String player, String opponent, Sprt sprt, int maxGames, int threads) throws InterruptedException {
+        // Check parameters
+        if (player == null || opponent == null || sprt == null) {
+            throw new IllegalArgumentException("One or more parameter is null. See the concerned method.");
+        } else if (!this.names.contains(player) || !this.names.contains(opponent) || player.equals(opponent)) {
+            throw new IllegalArgumentException("The player and opponent parameters should be two different players of the tournament.");
+        } else if (maxGames <= 0) {
+            throw new IllegalArgumentException("The maxGames parameter should be a number greater than 0.");
+        } else if (threads <= 0) {
+            throw new IllegalArgumentException("The threads parameter should be a number greater than 0.");
+        }
+
+        int playerIndex = this.names.indexOf(player);
+        int opponentIndex = this.names.indexOf(opponent);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (sprt.getVerdict() == Sprt.Verdict.UNDECIDED) {
+                // Keep every thread busy while the results of the oldest chunk are read
+                while (next < maxGames && pending.size() < 2 * threads) {
+                    int firstGame = next;
+                    int count = Math.min(Tournament.CHUNK_GAMES, maxGames - next);
+                    pending.add(executor.submit(() -> this.playChunk(playerIndex, opponentIndex, firstGame, count)));
+                    next += count;
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                for (boolean won : Tournament.get(pending.poll()).getOutcomes()) {
+                    if (sprt.add(won) != Sprt.Verdict.UNDECIDED) {
+                        break;
+                    }
+                }
+            }
+            return sprt.getVerdict();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Play a chunk of the games of a pair of players, the first player starting the games of even index.
+     * A game still running after as many shots as the squares of both grids is stopped (see {@link Game#play(int)}),
+     * so that a player shooting the same squares again cannot hold a thread forever.
+     *
+     * @param player    the index of the first player
+     * @param opponent  the index of the second player
+     * @param firstGame the index of the first game of the chunk
+     * @param count     the number of games
+     * @return the results of the games
+     */
+    Chunk playChunk(int player, int opponent, int firstGame, int count) {
+        RandomSource random = new RandomSource(this.seed + firstGame / Tournament.CHUNK_GAMES);
+        Player first = this.factories.get(player).create(this.fleet, this.names.get(player), this.width, this.height, random.split());
+        Player second = this.factories.get(opponent).create(this.fleet, this.names.get(opponent), this.width, this.height, random.split());
+
+        Chunk chunk = new Chunk(player, opponent, first, count, this.width * this.height);
+        // Players which never shoot a square twice end a game within the squares of both grids
+        int maxShots = 2 * this.width * this.height;
+        Game firstStarts = new Game(first, second);
+        Game secondStarts = new Game(second, first);
+        firstStarts.addListener(chunk);
+        secondStarts.addListener(chunk);
+        for (int game = firstGame; game < firstGame + count; game++) {
+            (game % 2 == 0 ? firstStarts : secondStarts).play(maxShots);
+        }
+        return chunk;
+    }
+
+    /**
+     * Wait for the result of a chunk, rethrowing the exception of its thread
+     *
+     * @param future the future result
+     * @return the result
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private static Chunk get(Future<Chunk> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("A match of the tournament failed.", e.getCause());
+        }
+    }
+
+    /**
+     * The results of the games of a chunk, gathered by listening to them
+     */
+    static final class Chunk implements GameListener {
+        /**
+         * The first player
+         */
+        private final Player first;
+        /**
+         * The index of the first player
+         */
+        private final int player;
+        /**
+         * The index of the second player
+         */
+        private final int opponent;
+        /**
+         * Did the first player win, for each game in the order they were played
+         */
+        private final boolean[] outcomes;
+        /**
+         * The number of games won in each number of shots, by the first (index 0) and the second player
+         */
+        private final int[][] shotsToWin;
+        /**
+         * The number of games won by the first (index 0) and the second player
+         */
+        private final int[] wins = new int[2];
+        /**
+         * The number of games played
+         */
+        private int played;
+        /**
+         * The first player of the current game
+         */
+        private Player starter;
+        /**
+         * The number of shots fired by the first player of the current game
+         */
+        private int starterShots;
+
+        /**
+         * Instantiates a new Chunk.
+         *
+         * @param player   the index of the first player
+         * @param opponent the index of the second player
+         * @param first    the first player
+         * @param count    the number of games
+         * @param cells    the number of squares of a grid
+         */
+        Chunk(int player, int opponent, Player first, int count, int cells) {
+            this.player = player;
+            this.first = first;
+            this.opponent = opponent;
+            this.outcomes = new boolean[count];
+            this.shotsToWin = new int[2][cells + 1];
+        }
+
+        /**
+         * Remember who starts the game
+         *
+         * @param player1 the first player, shooting first
+         * @param player2 the second player
+         */
+        @Override
+        public void gameStarted(Player player1, Player player2) {
+            this.starter = player1;
+            this.starterShots = 0;
+        }
+
+        /**
+         * Count the shots of the first player
+         *
+         * @param shooter    the player who shot
+         * @param shot       the shot position
+         * @param shotResult the result of the shot
+         * @param nanos      the time taken by the move
+         */
+        @Override
+        public void movePlayed(Player shooter, int[] shot, ShotResult shotResult, long nanos) {
+            if (shooter == this.starter) {
+                this.starterShots++;
+            }
+        }
+
+        /**
+         * Record the winner and its number of shots
+         *
+         * @param winner    the winner of the game
+         * @param shotCount the number of shots fired by both players
+         */
+        @Override
+        public void gameEnded(Player winner, int shotCount) {
+            // The player who starts fires one shot more than the other one when it wins
+            int shots = winner == this.starter ? this.starterShots : shotCount - this.starterShots;
+            int side = winner == this.first ? 0 : 1;
+            this.wins[side]++;
+            this.shotsToWin[side][shots]++;
+            this.outcomes[this.played++] = side == 0;
+        }
+
+        /**
+         * Gets whether the first player won, for each game in the order they were played.
+         *
+         * @return the outcomes
+         */
+        boolean[] getOutcomes() {
+            return Arrays.copyOf(this.outcomes, this.played);
+        }
+
+        /**
+         * Add the results of the chunk to those of the tournament
+         *
+         * @param wins       the number of games won by each player against each other player
+         * @param shotsToWin for each player, the number of games won in each number of shots
+         */
+        void addTo(int[][] wins, int[][] shotsToWin) {
+            wins[this.player][this.opponent] += this.wins[0];
+            wins[this.opponent][this.player] += this.wins[1];
+            for (int shots = 0; shots < this.shotsToWin[0].length; shots++) {
+                shotsToWin[this.player][shots] += this.shotsToWin[0][shots];
+                shotsToWin[this.opponent][shots] += this.shotsToWin[1][shots];
+            }
+        }
+    }
+}
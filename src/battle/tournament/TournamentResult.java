@@ -0,0 +1,206 @@
+package battle.tournament;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of a tournament : for each player its games, wins, number of shots to win and rating,
+ * and the games won by each player against each other one.
+ */
+public class TournamentResult {
+    /**
+     * The confidence level of the intervals of the ratings
+     */
+    private final double confidence;
+    /**
+     * The lower and upper bounds of the rating of each player
+     */
+    private final double[][] intervals;
+    /**
+     * The names of the players
+     */
+    private final List<String> names;
+    /**
+     * The rating of each player, on the Elo scale
+     */
+    private final double[] ratings;
+    /**
+     * For each player, the number of games won in each number of shots
+     */
+    private final int[][] shotsToWin;
+    /**
+     * The number of games won by each player (line) against each other player (column)
+     */
+    private final int[][] wins;
+
+    /**
+     * Instantiates a new Tournament result.
+     *
+     * @param names      the names of the players
+     * @param wins       the number of games won by each player (line) against each other player (column)
+     * @param shotsToWin for each player, the number of games won in each number of shots
+     * @param ratings    the rating of each player
+     * @param intervals  the lower and upper bounds of the rating of each player
+     * @param confidence the confidence level of the intervals
+     */
+    TournamentResult(List<String> names, int[][] wins, int[][] shotsToWin, double[] ratings, double[][] intervals, double confidence) {
+        this.names = Collections.unmodifiableList(names);
+        this.wins = wins;
+        this.shotsToWin = shotsToWin;
+        this.ratings = ratings;
+        this.intervals = intervals;
+        this.confidence = confidence;
+    }
+
+    /**
+     * Gets the names of the players, in the order of their indexes.
+     *
+     * @return the names
+     */
+    public List<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Gets the number of games won by a player against another one.
+     *
+     * @param player   the index of the player
+     * @param opponent the index of the opponent
+     * @return the number of games won
+     */
+    public int getWins(int player, int opponent) {
+        return this.wins[player][opponent];
+    }
+
+    /**
+     * Gets the number of games won by a player.
+     *
+     * @param player the index of the player
+     * @return the number of games won
+     */
+    public int getWins(int player) {
+        int won = 0;
+        for (int opponent = 0; opponent < this.wins.length; opponent++) {
+            won += this.wins[player][opponent];
+        }
+        return won;
+    }
+
+    /**
+     * Gets the number of games played by a player.
+     *
+     * @param player the index of the player
+     * @return the number of games
+     */
+    public int getGames(int player) {
+        int games = 0;
+        for (int opponent = 0; opponent < this.wins.length; opponent++) {
+            games += this.wins[player][opponent] + this.wins[opponent][player];
+        }
+        return games;
+    }
+
+    /**
+     * Gets the share of the games won by a player.
+     *
+     * @param player the index of the player
+     * @return the win rate, between 0 and 1
+     */
+    public double getWinRate(int player) {
+        int games = this.getGames(player);
+        return games == 0 ? 0 : (double) this.getWins(player) / games;
+    }
+
+    /**
+     * Gets the average number of shots fired by a player in the games it won.
+     *
+     * @param player the index of the player
+     * @return the average number of shots, 0 if no game was won
+     */
+    public double getMeanShotsToWin(int player) {
+        long shots = 0;
+        for (int count = 0; count < this.shotsToWin[player].length; count++) {
+            shots += (long) count * this.shotsToWin[player][count];
+        }
+        int won = this.getWins(player);
+        return won == 0 ? 0 : (double) shots / won;
+    }
+
+    /**
+     * Gets a percentile of the number of shots fired by a player in the games it won.
+     *
+     * @param player   the index of the player
+     * @param quantile the share of the games won in at most the returned number of shots, between 0 and 1
+     * @return the number of shots, 0 if no game was won
+     */
+    public int getShotsToWin(int player, double quantile) {
+        int won = this.getWins(player);
+        long cumulated = 0;
+        for (int count = 0; count < this.shotsToWin[player].length; count++) {
+            cumulated += this.shotsToWin[player][count];
+            if (cumulated > 0 && cumulated >= quantile * won) {
+                return count;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the Bradley-Terry rating of a player, on the Elo scale.
+     *
+     * @param player the index of the player
+     * @return the rating
+     */
+    public double getRating(int player) {
+        return this.ratings[player];
+    }
+
+    /**
+     * Gets the confidence interval of the rating of a player.
+     *
+     * @param player the index of the player
+     * @return the lower and upper bounds of the rating
+     */
+    public double[] getRatingInterval(int player) {
+        return this.intervals[player].clone();
+    }
+
+    /**
+     * Gets a table of the results of each player, followed by the matrix of the win rates of each pair.
+     *
+     * @return the tables
+     */
+    @Override
+    public String toString() {
+        int width = 12;
+        for (String name : this.names) {
+            width = Math.max(width, name.length() + 2);
+        }
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-" + width + "s%8s%8s%10s%10s%6s%6s%8s   %s%n", "Player", "Games", "Wins", "Win rate",
+                "Shots", "p50", "p90", "Rating", Math.round(this.confidence * 100) + "% interval"));
+        for (int i = 0; i < this.names.size(); i++) {
+            table.append(String.format("%-" + width + "s%8d%8d%9.1f%%%10.1f%6d%6d%8.0f   [%.0f, %.0f]%n", this.names.get(i),
+                    this.getGames(i), this.getWins(i), this.getWinRate(i) * 100, this.getMeanShotsToWin(i),
+                    this.getShotsToWin(i, 0.5), this.getShotsToWin(i, 0.9), this.ratings[i],
+                    this.intervals[i][0], this.intervals[i][1]));
+        }
+
+        table.append(String.format("%nWin rates (line against column)%n%-" + width + "s", ""));
+        for (String name : this.names) {
+            table.append(String.format("%" + width + "s", name));
+        }
+        table.append(String.format("%n"));
+        for (int i = 0; i < this.names.size(); i++) {
+            table.append(String.format("%-" + width + "s", this.names.get(i)));
+            for (int j = 0; j < this.names.size(); j++) {
+                int games = this.wins[i][j] + this.wins[j][i];
+                table.append(i == j || games == 0 ? String.format("%" + width + "s", "-")
+                        : String.format("%" + (width - 1) + ".1f%%", 100.0 * this.wins[i][j] / games));
+            }
+            table.append(String.format("%n"));
+        }
+        return table.toString();
+    }
+}
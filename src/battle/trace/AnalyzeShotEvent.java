@@ -0,0 +1,27 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The analysis of a shot by the player shot at.
+ */
+@Name("battle.AnalyzeShot")
+@Label("Analyze Shot")
+@Category({"Battle", "Game"})
+@Description("The analysis of a shot by the player shot at.")
+public class AnalyzeShotEvent extends Event {
+    /**
+     * The name of the player
+     */
+    @Label("Player")
+    public String player;
+    /**
+     * The result of the shot
+     */
+    @Label("Result")
+    public String result;
+}
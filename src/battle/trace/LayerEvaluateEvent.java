@@ -0,0 +1,27 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The evaluation of a layer of a neural network.
+ */
+@Name("battle.LayerEvaluate")
+@Label("Layer Evaluate")
+@Category({"Battle", "Neural network"})
+@Description("The evaluation of a layer of a neural network.")
+public class LayerEvaluateEvent extends Event {
+    /**
+     * The type of the layer
+     */
+    @Label("Type")
+    public String type;
+    /**
+     * The number of outputs of the layer
+     */
+    @Label("Size")
+    public int size;
+}
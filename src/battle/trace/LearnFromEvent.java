@@ -0,0 +1,17 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The backpropagation of the error of the last evaluation of a neural network.
+ */
+@Name("battle.LearnFrom")
+@Label("Learn From")
+@Category({"Battle", "Neural network"})
+@Description("The backpropagation of the error of the last evaluation of a neural network.")
+public class LearnFromEvent extends Event {
+}
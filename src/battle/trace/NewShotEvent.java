@@ -0,0 +1,22 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The choice of a shot by a player.
+ */
+@Name("battle.NewShot")
+@Label("New Shot")
+@Category({"Battle", "Game"})
+@Description("The choice of a shot by a player.")
+public class NewShotEvent extends Event {
+    /**
+     * The name of the player
+     */
+    @Label("Player")
+    public String player;
+}
@@ -0,0 +1,22 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The placement of the fleet of a player.
+ */
+@Name("battle.ShipPlacement")
+@Label("Ship Placement")
+@Category({"Battle", "Game"})
+@Description("The placement of the fleet of a player.")
+public class ShipPlacementEvent extends Event {
+    /**
+     * The name of the player
+     */
+    @Label("Player")
+    public String player;
+}
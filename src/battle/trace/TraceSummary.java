@@ -0,0 +1,133 @@
+package battle.trace;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turn a JDK Flight Recorder recording into a per-phase time breakdown of the battle events.
+ * The phases are nested (a shot choice contains the evaluation of the layers...), so besides the total time
+ * of each phase, its self time (the total time minus the time of the phases it contains) is given,
+ * and the self times add up to the time traced.
+ * <p>
+ * Usage : TraceSummary recording.jfr
+ */
+public final class TraceSummary {
+    /**
+     * The prefix of the names of the battle events
+     */
+    private static final String PREFIX = "battle.";
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private TraceSummary() {
+
+    }
+
+    /**
+     * Print the breakdown of a recording
+     *
+     * @param args the recording file
+     * @throws IOException if the recording can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage : TraceSummary recording.jfr");
+            System.exit(1);
+        }
+
+        Map<String, Phase> phases = TraceSummary.summarize(RecordingFile.readAllEvents(Paths.get(args[0])));
+
+        long traced = 0;
+        for (Phase phase : phases.values()) {
+            traced += phase.selfNanos;
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-20s %10s %12s %12s %12s %8s",
+                "Phase", "Count", "Total ms", "Self ms", "Mean us", "Self %"));
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            Phase phase = entry.getValue();
+            System.out.println(String.format(Locale.ROOT, "%-20s %10d %12.1f %12.1f %12.2f %7.1f%%",
+                    entry.getKey(), phase.count, phase.totalNanos / 1e6, phase.selfNanos / 1e6,
+                    phase.totalNanos / 1e3 / phase.count, traced == 0 ? 0 : 100.0 * phase.selfNanos / traced));
+        }
+        System.out.println(String.format(Locale.ROOT, "%-20s %10s %12s %12.1f", "Traced", "", "", traced / 1e6));
+    }
+
+    /**
+     * Compute the count, total and self time of each phase
+     *
+     * @param events the events of the recording
+     * @return the phases, by name
+     */
+    static Map<String, Phase> summarize(List<RecordedEvent> events) {
+        // Group the battle events by thread, as phases only nest on the same thread
+        Map<Long, List<RecordedEvent>> byThread = new HashMap<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().startsWith(TraceSummary.PREFIX)) {
+                long thread = event.getThread() == null ? -1 : event.getThread().getJavaThreadId();
+                byThread.computeIfAbsent(thread, t -> new ArrayList<>()).add(event);
+            }
+        }
+
+        Map<String, Phase> phases = new TreeMap<>();
+        for (List<RecordedEvent> threadEvents : byThread.values()) {
+            // Parents first : by start time, then the longest first
+            threadEvents.sort((a, b) -> a.getStartTime().equals(b.getStartTime())
+                    ? b.getEndTime().compareTo(a.getEndTime())
+                    : a.getStartTime().compareTo(b.getStartTime()));
+
+            Deque<RecordedEvent> open = new ArrayDeque<>();
+            Deque<Phase> openPhases = new ArrayDeque<>();
+            for (RecordedEvent event : threadEvents) {
+                while (!open.isEmpty() && open.peek().getEndTime().compareTo(event.getStartTime()) <= 0) {
+                    open.pop();
+                    openPhases.pop();
+                }
+
+                String name = event.getEventType().getName().substring(TraceSummary.PREFIX.length());
+                Phase phase = phases.computeIfAbsent(name, n -> new Phase());
+                long nanos = event.getDuration().toNanos();
+                phase.count++;
+                phase.totalNanos += nanos;
+                phase.selfNanos += nanos;
+
+                if (!openPhases.isEmpty()) {
+                    openPhases.peek().selfNanos -= nanos;
+                }
+                open.push(event);
+                openPhases.push(phase);
+            }
+        }
+        return phases;
+    }
+
+    /**
+     * The times of a phase
+     */
+    static final class Phase {
+        /**
+         * The number of events
+         */
+        long count;
+        /**
+         * The time of the phase, without the phases it contains
+         */
+        long selfNanos;
+        /**
+         * The time of the phase
+         */
+        long totalNanos;
+    }
+}
@@ -0,0 +1,52 @@
+package battle.trace;
+
+import jdk.jfr.Event;
+
+/**
+ * The switch of the JDK Flight Recorder events of the hot paths, turned on with -Dbattle.trace=true.
+ * The events are only recorded if a recording is running, e.g. with -XX:StartFlightRecording=filename=battle.jfr.
+ * <p>
+ * The flag is a constant : when it is off, the JIT removes the tracing code entirely.
+ * An event is traced with :
+ * <pre>
+ * NewShotEvent event = Tracing.ENABLED ? Tracing.begin(new NewShotEvent()) : null;
+ * ...
+ * Tracing.commit(event);
+ * </pre>
+ */
+public final class Tracing {
+    /**
+     * Are the events traced
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("battle.trace");
+
+    /**
+     * Private constructor to not allow instantiation
+     */
+    private Tracing() {
+
+    }
+
+    /**
+     * Start the timing of an event
+     *
+     * @param event the event
+     * @param <E>   the type of the event
+     * @return the event
+     */
+    public static <E extends Event> E begin(E event) {
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the timing of an event and commit it, if it was started
+     *
+     * @param event the event, null when tracing is off
+     */
+    public static void commit(Event event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+}
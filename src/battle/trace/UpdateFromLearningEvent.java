@@ -0,0 +1,17 @@
+package battle.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The update of the weights of a neural network from the learning gathered.
+ */
+@Name("battle.UpdateFromLearning")
+@Label("Update From Learning")
+@Category({"Battle", "Neural network"})
+@Description("The update of the weights of a neural network from the learning gathered.")
+public class UpdateFromLearningEvent extends Event {
+}